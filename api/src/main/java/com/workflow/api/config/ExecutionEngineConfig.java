@@ -0,0 +1,75 @@
+package com.workflow.api.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class ExecutionEngineConfig {
+
+    /**
+     * Runs CPU-bound nodes such as CODE and CONDITION. Sized to the number of cores by
+     * default so script evaluation cannot oversubscribe the machine. When the queue is
+     * full the submitting thread runs the node itself, which throttles new work instead
+     * of rejecting it.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService cpuNodeExecutor(
+            @Value("${workflow.execution.cpu-pool-size:0}") int poolSize,
+            @Value("${workflow.execution.cpu-queue-capacity:1000}") int queueCapacity) {
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        return boundedPool(threads, queueCapacity, "wf-cpu-");
+    }
+
+    /**
+     * Runs nodes that block on IO, such as HTTP_REQUEST. Much larger than the CPU pool
+     * because its threads mostly wait on remote systems.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService ioNodeExecutor(
+            @Value("${workflow.execution.io-pool-size:64}") int poolSize,
+            @Value("${workflow.execution.io-queue-capacity:1000}") int queueCapacity) {
+        return boundedPool(poolSize, queueCapacity, "wf-io-");
+    }
+
+    /**
+     * Runs asynchronously submitted workflows. Submissions beyond the queue capacity
+     * are rejected so callers get a fast 503 instead of piling up.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService runExecutor(
+            @Value("${workflow.execution.run-pool-size:8}") int poolSize,
+            @Value("${workflow.execution.run-queue-capacity:500}") int queueCapacity) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            poolSize,
+            poolSize,
+            60L,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(queueCapacity),
+            new CustomizableThreadFactory("wf-run-"),
+            new ThreadPoolExecutor.AbortPolicy()
+        );
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private ExecutorService boundedPool(int threads, int queueCapacity, String threadNamePrefix) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            threads,
+            threads,
+            60L,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(queueCapacity),
+            new CustomizableThreadFactory(threadNamePrefix),
+            new ThreadPoolExecutor.CallerRunsPolicy()
+        );
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
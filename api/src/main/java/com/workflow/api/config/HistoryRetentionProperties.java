@@ -0,0 +1,44 @@
+package com.workflow.api.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * How long execution history is kept. Clients listed under {@code clients} (keyed by
+ * {@code Workflow.clientId}) override the default; runs without a client use the default.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "workflow.history.retention")
+public class HistoryRetentionProperties {
+
+    private Duration defaultRetention = Duration.ofDays(30);
+
+    private Map<String, Duration> clients = new HashMap<>();
+
+    /**
+     * Days of partitions created beyond the longest retention window, so inserts never
+     * land in the default partition while the maintenance job is late.
+     */
+    private int precreateDays = 3;
+
+    /**
+     * Rows per DELETE when the database has no partitions (H2 in the dev profile).
+     */
+    private int deleteBatchSize = 5000;
+
+    public Duration retentionFor(String clientId) {
+        Duration retention = clientId != null ? clients.get(clientId) : null;
+        return retention != null ? retention : defaultRetention;
+    }
+
+    public Duration longestRetention() {
+        return clients.values().stream()
+            .reduce(defaultRetention, (a, b) -> a.compareTo(b) >= 0 ? a : b);
+    }
+}
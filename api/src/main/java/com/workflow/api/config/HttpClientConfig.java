@@ -0,0 +1,27 @@
+package com.workflow.api.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+@Configuration
+public class HttpClientConfig {
+
+    /**
+     * Client shared by all HTTP_REQUEST nodes. It keeps connections alive between
+     * requests and negotiates HTTP/2 where the server supports it, so repeated calls to
+     * the same host reuse a connection instead of paying for a new TLS handshake.
+     * Read timeouts are applied per request from the node configuration.
+     */
+    @Bean
+    public HttpClient nodeHttpClient(@Value("${workflow.http.connect-timeout-ms:10000}") long connectTimeoutMs) {
+        return HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
+    }
+}
@@ -0,0 +1,32 @@
+package com.workflow.api.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.workflow.api.dto.WorkflowDefinition;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JacksonConfig {
+
+    /**
+     * Replaces reflective property access with generated lambdas in the application's
+     * ObjectMapper. Spring Boot registers Module beans with the mapper it builds, which
+     * everything in the api shares.
+     */
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+
+    /**
+     * Reader for stored workflow definitions. Readers are immutable and resolve the
+     * deserializer once, so one instance is shared by every caller.
+     */
+    @Bean
+    public ObjectReader workflowDefinitionReader(ObjectMapper objectMapper) {
+        return objectMapper.readerFor(WorkflowDefinition.class);
+    }
+}
@@ -0,0 +1,68 @@
+package com.workflow.api.controller;
+
+import com.workflow.api.dto.ExecutionStatus;
+import com.workflow.api.exception.ExecutionNotFoundException;
+import com.workflow.api.exception.WorkflowAccessDeniedException;
+import com.workflow.api.service.ExecutionRunService;
+import com.workflow.model.ApiResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@Slf4j
+@RestController
+@RequestMapping("/executions")
+@RequiredArgsConstructor
+public class ExecutionController {
+    
+    private final ExecutionRunService executionRunService;
+    
+    /**
+     * Get progress and, once finished, the result of an asynchronously submitted run
+     */
+    @GetMapping("/{runId}")
+    public ResponseEntity<ApiResponse<ExecutionStatus>> getExecution(
+            @PathVariable String runId,
+            @RequestHeader(value = "X-User-Id", required = false) String userId) {
+        
+        log.debug("Getting execution status for run: {}", runId);
+        
+        ExecutionStatus status = executionRunService.getStatus(runId)
+                .orElseThrow(() -> new ExecutionNotFoundException("Execution with run id '" + runId + "' not found"));
+        
+        if (userId != null && status.getRequestedBy() != null && !status.getRequestedBy().equals(userId)) {
+            throw new WorkflowAccessDeniedException("You do not have permission to view this execution");
+        }
+        
+        ApiResponse<ExecutionStatus> response = new ApiResponse<>(
+            HttpStatus.OK.value(),
+            "Success",
+            status
+        );
+        
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Resume a failed run. Nodes that were checkpointed before it failed are not executed again.
+     */
+    @PostMapping("/{runId}/resume")
+    public ResponseEntity<ApiResponse<ExecutionStatus>> resumeExecution(
+            @PathVariable String runId,
+            @RequestHeader(value = "X-User-Id", required = false) String userId) {
+        
+        log.info("Resuming execution {} for user: {}", runId, userId);
+        
+        ExecutionStatus status = executionRunService.resume(runId, userId);
+        
+        ApiResponse<ExecutionStatus> response = new ApiResponse<>(
+            HttpStatus.ACCEPTED.value(),
+            "Workflow execution resumed",
+            status
+        );
+        
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+    }
+}
@@ -0,0 +1,115 @@
+package com.workflow.api.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.workflow.api.dto.ExecutionStatus;
+import com.workflow.api.exception.WebhookNotFoundException;
+import com.workflow.api.exception.WebhookPayloadTooLargeException;
+import com.workflow.api.exception.WebhookUnauthorizedException;
+import com.workflow.api.service.webhook.WebhookIngress;
+import com.workflow.api.service.webhook.WebhookRoute;
+import com.workflow.api.service.webhook.WebhookRouteIndex;
+import com.workflow.model.ApiResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Starts workflows from inbound webhooks. The workflow is found by method and path in
+ * the in-memory route index, its run is buffered for the run queue and the request is
+ * acknowledged with 202; no database access or JSON parsing happens on the request
+ * thread. The payload reaches the workflow as the trigger node's {@code input} output.
+ */
+@Slf4j
+@RestController
+@RequestMapping(WebhookController.PREFIX)
+public class WebhookController {
+
+    static final String PREFIX = "/webhooks";
+
+    private final WebhookRouteIndex webhookRouteIndex;
+    private final WebhookIngress webhookIngress;
+    private final ObjectMapper objectMapper;
+    private final int maxPayloadBytes;
+
+    public WebhookController(WebhookRouteIndex webhookRouteIndex,
+                             WebhookIngress webhookIngress,
+                             ObjectMapper objectMapper,
+                             @Value("${workflow.webhook.max-payload-bytes:1048576}") int maxPayloadBytes) {
+        this.webhookRouteIndex = webhookRouteIndex;
+        this.webhookIngress = webhookIngress;
+        this.objectMapper = objectMapper;
+        this.maxPayloadBytes = maxPayloadBytes;
+    }
+
+    /**
+     * Receive a webhook for any method and path below /webhooks
+     */
+    @RequestMapping("/**")
+    public ResponseEntity<ApiResponse<ExecutionStatus>> receive(HttpServletRequest request) throws IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length() + PREFIX.length());
+        WebhookRoute route = webhookRouteIndex.find(request.getMethod(), path)
+            .orElseThrow(() -> new WebhookNotFoundException("No webhook for " + request.getMethod() + " " + path));
+
+        if (!route.authorize(request::getHeader)) {
+            throw new WebhookUnauthorizedException("Missing or invalid webhook credentials");
+        }
+
+        ExecutionStatus status = webhookIngress.accept(route, readInput(request));
+        log.debug("Accepted webhook {} as run {}", route.key(), status.getRunId());
+
+        ApiResponse<ExecutionStatus> response = new ApiResponse<>(
+            HttpStatus.ACCEPTED.value(),
+            "Webhook accepted",
+            status
+        );
+
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+    }
+
+    /**
+     * JSON input of the run. JSON bodies are passed through verbatim and only parsed
+     * when the run starts; other bodies become a JSON string, and requests without a
+     * body pass their query parameters.
+     */
+    private String readInput(HttpServletRequest request) throws IOException {
+        byte[] body;
+        try (InputStream in = request.getInputStream()) {
+            body = in.readNBytes(maxPayloadBytes + 1);
+        }
+        if (body.length > maxPayloadBytes) {
+            throw new WebhookPayloadTooLargeException("Webhook payload exceeds " + maxPayloadBytes + " bytes");
+        }
+
+        if (body.length > 0) {
+            String text = new String(body, StandardCharsets.UTF_8);
+            String contentType = request.getContentType();
+            return contentType != null && contentType.contains("json") ? text : writeJson(text);
+        }
+        if (!request.getParameterMap().isEmpty()) {
+            Map<String, Object> query = new LinkedHashMap<>();
+            request.getParameterMap().forEach((name, values) ->
+                query.put(name, values.length == 1 ? values[0] : values));
+            return writeJson(query);
+        }
+        return null;
+    }
+
+    private String writeJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Webhook payload is not serializable", e);
+        }
+    }
+}
@@ -1,11 +1,13 @@
 package com.workflow.api.controller;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.workflow.api.dto.WorkflowDefinition;
+import com.workflow.api.dto.WorkflowDefinitionJson;
+import com.workflow.api.dto.WorkflowRequest;
+import com.workflow.api.dto.WorkflowSummary;
 import com.workflow.api.entity.Workflow;
 import com.workflow.api.exception.WorkflowNotFoundException;
 import com.workflow.api.service.WorkflowService;
 import com.workflow.model.ApiResponse;
+import com.workflow.model.CursorPage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -32,7 +34,7 @@ public class WorkflowController {
      */
     @PostMapping
     public ResponseEntity<ApiResponse<Workflow>> createWorkflow(
-            @RequestBody java.util.Map<String, Object> request,
+            @RequestBody WorkflowRequest request,
             @RequestHeader(value = "X-User-Id", required = false) String userId) {
         
         log.info("Creating workflow for user: {}", userId);
@@ -41,22 +43,13 @@ public class WorkflowController {
         String ownerId = userId != null ? userId : "default-user";
         
         Workflow workflow = new Workflow();
-        workflow.setName((String) request.get("name"));
-        workflow.setDescription((String) request.get("description"));
-        workflow.setClientId((String) request.get("clientId"));
-        workflow.setStatus((String) request.getOrDefault("status", "DRAFT"));
-        
-        // Convert workflowDefinition to JSON string
-        if (request.get("workflowDefinition") != null) {
-            ObjectMapper mapper = new ObjectMapper();
-            try {
-                String workflowDefJson = mapper.writeValueAsString(request.get("workflowDefinition"));
-                workflow.setWorkflowDefinition(workflowDefJson);
-            } catch (Exception e) {
-                log.error("Error serializing workflow definition", e);
-                throw new IllegalArgumentException("Invalid workflow definition format");
-            }
-        }
+        workflow.setName(request.getName());
+        workflow.setDescription(request.getDescription());
+        workflow.setClientId(request.getClientId());
+        workflow.setStatus(request.getStatus() != null ? request.getStatus() : "DRAFT");
+        
+        // Definition arrives as raw JSON text and is stored as-is
+        workflow.setWorkflowDefinition(request.getWorkflowDefinition());
         
         Workflow created = workflowService.createWorkflow(workflow, ownerId);
         
@@ -89,10 +82,30 @@ public class WorkflowController {
     }
     
     /**
-     * Get all workflows for current user
+     * Get the definition of a workflow
+     */
+    @GetMapping("/{id}/definition")
+    public ResponseEntity<ApiResponse<WorkflowDefinitionJson>> getWorkflowDefinition(@PathVariable String id) {
+        log.info("Getting definition of workflow: {}", id);
+        
+        WorkflowDefinitionJson definition = workflowService.getWorkflowDefinitionById(id)
+                .orElseThrow(() -> new WorkflowNotFoundException("Workflow with id '" + id + "' not found"));
+        
+        ApiResponse<WorkflowDefinitionJson> response = new ApiResponse<>(
+            HttpStatus.OK.value(),
+            "Success",
+            definition
+        );
+        
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Get all workflows for current user, without their definitions
+     * (fetch a definition through /workflows/{id}/definition)
      */
     @GetMapping
-    public ResponseEntity<ApiResponse<Page<Workflow>>> getAllWorkflows(
+    public ResponseEntity<ApiResponse<Page<WorkflowSummary>>> getAllWorkflows(
             @PageableDefault(size = 10, sort = "updatedAt", direction = Sort.Direction.DESC) Pageable pageable,
             @RequestParam(required = false) String search,
             @RequestHeader(value = "X-User-Id", required = false) String userId) {
@@ -101,14 +114,43 @@ public class WorkflowController {
         
         String ownerId = userId != null ? userId : "default-user";
         
-        Page<Workflow> workflowsPage;
+        Page<WorkflowSummary> workflowsPage;
         if (search != null && !search.trim().isEmpty()) {
             workflowsPage = workflowService.searchWorkflowsByOwner(ownerId, search, pageable);
         } else {
             workflowsPage = workflowService.getAllWorkflowsByOwner(ownerId, pageable);
         }
         
-        ApiResponse<Page<Workflow>> response = new ApiResponse<>(
+        ApiResponse<Page<WorkflowSummary>> response = new ApiResponse<>(
+            HttpStatus.OK.value(),
+            "Success",
+            workflowsPage
+        );
+        
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Get workflows for current user by cursor, most recently updated first
+     * Pass the returned nextCursor to get the following page; it is null on the last page.
+     * includeTotal adds an approximate total (PostgreSQL only).
+     */
+    @GetMapping("/cursor")
+    public ResponseEntity<ApiResponse<CursorPage<WorkflowSummary>>> getWorkflowsByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String search,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            @RequestHeader(value = "X-User-Id", required = false) String userId) {
+        
+        log.info("Getting workflows by cursor for user: {}, search: {}", userId, search);
+        
+        String ownerId = userId != null ? userId : "default-user";
+        
+        CursorPage<WorkflowSummary> workflowsPage =
+                workflowService.getWorkflowSummariesByOwner(ownerId, search, cursor, size, includeTotal);
+        
+        ApiResponse<CursorPage<WorkflowSummary>> response = new ApiResponse<>(
             HttpStatus.OK.value(),
             "Success",
             workflowsPage
@@ -123,7 +165,7 @@ public class WorkflowController {
     @PutMapping("/{id}")
     public ResponseEntity<ApiResponse<Workflow>> updateWorkflow(
             @PathVariable String id,
-            @RequestBody java.util.Map<String, Object> request,
+            @RequestBody WorkflowRequest request,
             @RequestHeader(value = "X-User-Id", required = false) String userId) {
         
         log.info("Updating workflow: {} for user: {}", id, userId);
@@ -131,22 +173,13 @@ public class WorkflowController {
         String ownerId = userId != null ? userId : "default-user";
         
         Workflow workflowDetails = new Workflow();
-        workflowDetails.setName((String) request.get("name"));
-        workflowDetails.setDescription((String) request.get("description"));
-        workflowDetails.setClientId((String) request.get("clientId"));
-        workflowDetails.setStatus((String) request.get("status"));
-        
-        // Convert workflowDefinition to JSON string
-        if (request.get("workflowDefinition") != null) {
-            ObjectMapper mapper = new ObjectMapper();
-            try {
-                String workflowDefJson = mapper.writeValueAsString(request.get("workflowDefinition"));
-                workflowDetails.setWorkflowDefinition(workflowDefJson);
-            } catch (Exception e) {
-                log.error("Error serializing workflow definition", e);
-                throw new IllegalArgumentException("Invalid workflow definition format");
-            }
-        }
+        workflowDetails.setName(request.getName());
+        workflowDetails.setDescription(request.getDescription());
+        workflowDetails.setClientId(request.getClientId());
+        workflowDetails.setStatus(request.getStatus());
+        
+        // Definition arrives as raw JSON text and is stored as-is
+        workflowDetails.setWorkflowDefinition(request.getWorkflowDefinition());
         
         Workflow updated = workflowService.updateWorkflow(id, workflowDetails, ownerId);
         
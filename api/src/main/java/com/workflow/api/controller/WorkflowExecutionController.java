@@ -3,7 +3,10 @@ package com.workflow.api.controller;
 import com.workflow.api.dto.*;
 import com.workflow.api.exception.*;
 import com.workflow.api.service.ExecutionEngineService;
-import com.workflow.api.service.WorkflowService;
+import com.workflow.api.service.ExecutionRunService;
+import com.workflow.api.service.plan.ExecutionPlan;
+import com.workflow.api.service.plan.ExecutionPlanCache;
+import com.workflow.api.service.plan.WorkflowDefinitionCache;
 import com.workflow.model.ApiResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -11,6 +14,8 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+
 @Slf4j
 @RestController
 @RequestMapping("/workflows")
@@ -18,75 +23,85 @@ import org.springframework.web.bind.annotation.*;
 public class WorkflowExecutionController {
     
     private final ExecutionEngineService executionEngineService;
-    private final WorkflowService workflowService;
+    private final ExecutionRunService executionRunService;
+    private final ExecutionPlanCache executionPlanCache;
+    private final WorkflowDefinitionCache workflowDefinitionCache;
     
     /**
      * Execute workflow by ID (loads from database)
      */
     @PostMapping("/{id}/execute")
-    public ResponseEntity<ApiResponse<ExecutionResult>> executeWorkflowById(
+    public CompletableFuture<ResponseEntity<ApiResponse<ExecutionResult>>> executeWorkflowById(
             @PathVariable String id,
             @RequestHeader(value = "X-User-Id", required = false) String userId) {
         
         log.info("Executing workflow by ID: {} for user: {}", id, userId);
         
-        // Load workflow from database
-        com.workflow.api.entity.Workflow workflowEntity = workflowService.getWorkflowById(id)
-                .orElseThrow(() -> new WorkflowNotFoundException("Workflow with id '" + id + "' not found"));
-        
-        // Check authorization
-        if (userId != null && !workflowEntity.getOwnerId().equals(userId)) {
-            throw new WorkflowAccessDeniedException("You do not have permission to execute this workflow");
-        }
-        
-        // Parse workflow definition
-        WorkflowDefinition workflowDefinition = workflowService.toWorkflowDefinition(workflowEntity);
+        ExecutionPlan plan = loadPlan(id, userId);
         
-        if (workflowDefinition.getNodes() == null || workflowDefinition.getNodes().isEmpty()) {
-            throw new WorkflowValidationException("Workflow definition is empty or invalid");
-        }
+        // Execute workflow; the request thread is released while the run is in progress
+        return executionEngineService.executeAsync(plan, userId).thenApply(this::executedResponse);
+    }
+    
+    /**
+     * Submit workflow by ID for asynchronous execution. Returns the run ID immediately;
+     * poll GET /executions/{runId} for progress and the result.
+     */
+    @PostMapping(value = "/{id}/execute", params = "async=true")
+    public ResponseEntity<ApiResponse<ExecutionStatus>> submitWorkflowById(
+            @PathVariable String id,
+            @RequestHeader(value = "X-User-Id", required = false) String userId) {
         
-        // Execute workflow
-        ExecutionResult result = executionEngineService.execute(
-                workflowDefinition.getNodes(),
-                workflowDefinition.getEdges() != null ? workflowDefinition.getEdges() : java.util.Collections.emptyList()
-        );
+        log.info("Submitting workflow by ID: {} for user: {}", id, userId);
         
-        log.info("Workflow execution completed. Run ID: {}, Results: {}", 
-                result.getRunId(), result.getResults().size());
+        ExecutionStatus status = executionRunService.submit(loadPlan(id, userId), null, userId);
         
-        ApiResponse<ExecutionResult> response = new ApiResponse<>(
-            HttpStatus.OK.value(),
-            "Workflow executed successfully",
-            result
+        ApiResponse<ExecutionStatus> response = new ApiResponse<>(
+            HttpStatus.ACCEPTED.value(),
+            "Workflow execution accepted",
+            status
         );
         
-        return ResponseEntity.ok(response);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
     }
     
     /**
      * Execute workflow with provided definition (for testing/ad-hoc execution)
      */
     @PostMapping("/execute")
-    public ResponseEntity<ApiResponse<ExecutionResult>> executeWorkflow(@RequestBody ExecutionRequest request) {
-        log.info("Executing workflow with {} nodes and {} edges", 
+    public CompletableFuture<ResponseEntity<ApiResponse<ExecutionResult>>> executeWorkflow(
+            @RequestBody ExecutionRequest request,
+            @RequestHeader(value = "X-User-Id", required = false) String userId) {
+        log.info("Executing workflow with {} nodes and {} edges",
             request.getNodes().size(), request.getEdges().size());
         
-        ExecutionResult result = executionEngineService.execute(
-            request.getNodes(), 
-            request.getEdges()
-        );
+        ExecutionPlan plan = executionEngineService.compile(request.getNodes(), request.getEdges());
         
-        log.info("Workflow execution completed. Run ID: {}, Results: {}", 
-            result.getRunId(), result.getResults().size());
+        return executionEngineService.executeAsync(plan, userId).thenApply(this::executedResponse);
+    }
+    
+    /**
+     * Submit an ad-hoc workflow definition for asynchronous execution
+     */
+    @PostMapping(value = "/execute", params = "async=true")
+    public ResponseEntity<ApiResponse<ExecutionStatus>> submitWorkflow(
+            @RequestBody ExecutionRequest request,
+            @RequestHeader(value = "X-User-Id", required = false) String userId) {
+        log.info("Submitting workflow with {} nodes and {} edges",
+            request.getNodes().size(), request.getEdges().size());
         
-        ApiResponse<ExecutionResult> response = new ApiResponse<>(
-            HttpStatus.OK.value(),
-            "Workflow executed successfully",
-            result
+        ExecutionPlan plan = executionEngineService.compile(request.getNodes(), request.getEdges());
+        WorkflowDefinition definition = new WorkflowDefinition(
+            null, null, request.getNodes(), request.getEdges(), null, null);
+        ExecutionStatus status = executionRunService.submit(plan, definition, userId);
+        
+        ApiResponse<ExecutionStatus> response = new ApiResponse<>(
+            HttpStatus.ACCEPTED.value(),
+            "Workflow execution accepted",
+            status
         );
         
-        return ResponseEntity.ok(response);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
     }
     
     @PostMapping("/execute/node")
@@ -95,7 +110,7 @@ public class WorkflowExecutionController {
         
         NodeRunResult result = executionEngineService.executeSingleNode(request.getNode());
         
-        log.info("Node execution completed. Node ID: {}, Status: {}", 
+        log.info("Node execution completed. Node ID: {}, Status: {}",
             result.getNodeId(), result.getStatus());
         
         ApiResponse<NodeRunResult> response = new ApiResponse<>(
@@ -106,4 +121,33 @@ public class WorkflowExecutionController {
         
         return ResponseEntity.ok(response);
     }
+    
+    private ResponseEntity<ApiResponse<ExecutionResult>> executedResponse(ExecutionResult result) {
+        log.info("Workflow execution completed. Run ID: {}, Results: {}",
+            result.getRunId(), result.getResults().size());
+        
+        ApiResponse<ExecutionResult> response = new ApiResponse<>(
+            HttpStatus.OK.value(),
+            "Workflow executed successfully",
+            result
+        );
+        
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Load a stored workflow, check the caller may run it and return its compiled plan
+     */
+    private ExecutionPlan loadPlan(String id, String userId) {
+        // Served from memory unless the workflow changed since it was last run
+        WorkflowDefinitionCache.CachedWorkflow workflow = workflowDefinitionCache.get(id)
+                .orElseThrow(() -> new WorkflowNotFoundException("Workflow with id '" + id + "' not found"));
+        
+        // Check authorization
+        if (userId != null && !workflow.ownerId().equals(userId)) {
+            throw new WorkflowAccessDeniedException("You do not have permission to execute this workflow");
+        }
+        
+        return executionPlanCache.getPlan(workflow);
+    }
 }
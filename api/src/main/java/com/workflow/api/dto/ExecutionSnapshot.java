@@ -13,4 +13,5 @@ public class ExecutionSnapshot {
     private Map<String, Map<String, Object>> nodeOutputs;
     private String runId;
     private String startTime;
+    private Object input;
 }
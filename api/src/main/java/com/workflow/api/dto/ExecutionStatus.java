@@ -0,0 +1,22 @@
+package com.workflow.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExecutionStatus {
+    private String runId;
+    private String workflowId;
+    private String requestedBy;
+    private String status; // QUEUED, RUNNING, SUCCEEDED, FAILED
+    private int totalNodes;
+    private int finishedNodes;
+    private String submittedAt;
+    private String startedAt;
+    private String finishedAt;
+    private String error;
+    private ExecutionResult result;
+}
@@ -0,0 +1,14 @@
+package com.workflow.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+import java.time.LocalDateTime;
+
+/**
+ * The stored definition of one workflow. The definition is written out as the JSON text
+ * read from the database, without being parsed.
+ */
+public record WorkflowDefinitionJson(String id,
+                                     @JsonRawValue String workflowDefinition,
+                                     LocalDateTime updatedAt) {
+}
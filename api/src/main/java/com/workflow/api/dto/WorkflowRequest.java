@@ -0,0 +1,23 @@
+package com.workflow.api.dto;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.workflow.api.util.RawJsonDeserializer;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Body of workflow create and update requests. The definition is kept as the JSON text
+ * it arrived as and stored unchanged.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WorkflowRequest {
+    private String name;
+    private String description;
+    private String clientId;
+    private String status;
+    @JsonDeserialize(using = RawJsonDeserializer.class)
+    private String workflowDefinition;
+}
@@ -0,0 +1,19 @@
+package com.workflow.api.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * A workflow without its definition, for list views. Queries returning it select only
+ * these columns, so listing never reads the definition column.
+ */
+public record WorkflowSummary(String id,
+                              String name,
+                              String description,
+                              String ownerId,
+                              String clientId,
+                              String status,
+                              LocalDateTime createdAt,
+                              LocalDateTime updatedAt,
+                              String createdBy,
+                              String updatedBy) {
+}
@@ -5,7 +5,9 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.annotations.UpdateTimestamp;
+import org.hibernate.type.SqlTypes;
 
 import java.time.LocalDateTime;
 
@@ -36,8 +38,9 @@ public class Workflow {
     @Column(name = "status", nullable = false, length = 50)
     private String status = "DRAFT";
     
-    @Column(name = "workflow_definition", columnDefinition = "TEXT")
-    private String workflowDefinition; // JSON string
+    @Column(name = "workflow_definition")
+    @JdbcTypeCode(SqlTypes.JSON)
+    private String workflowDefinition; // JSON text; jsonb on PostgreSQL, JSON on H2
     
     @Column(name = "created_at", nullable = false, updatable = false)
     @CreationTimestamp
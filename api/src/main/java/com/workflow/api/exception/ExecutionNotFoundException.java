@@ -0,0 +1,12 @@
+package com.workflow.api.exception;
+
+public class ExecutionNotFoundException extends RuntimeException {
+    
+    public ExecutionNotFoundException(String message) {
+        super(message);
+    }
+    
+    public ExecutionNotFoundException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,8 @@
+package com.workflow.api.exception;
+
+public class ExecutionNotResumableException extends RuntimeException {
+    
+    public ExecutionNotResumableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.workflow.api.exception;
+
+public class WebhookNotFoundException extends RuntimeException {
+    
+    public WebhookNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.workflow.api.exception;
+
+public class WebhookPayloadTooLargeException extends RuntimeException {
+    
+    public WebhookPayloadTooLargeException(String message) {
+        super(message);
+    }
+}
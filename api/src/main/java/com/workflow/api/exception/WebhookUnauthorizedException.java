@@ -0,0 +1,8 @@
+package com.workflow.api.exception;
+
+public class WebhookUnauthorizedException extends RuntimeException {
+    
+    public WebhookUnauthorizedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package com.workflow.api.exception;
+
+public class WorkflowRunRejectedException extends RuntimeException {
+    
+    public WorkflowRunRejectedException(String message) {
+        super(message);
+    }
+    
+    public WorkflowRunRejectedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -29,6 +29,14 @@ public class GlobalExceptionHandler {
         EXCEPTION_MAP.put(WorkflowValidationException.class, new ErrorDetails("WORKFLOW_VALIDATION_ERROR", HttpStatus.BAD_REQUEST));
         EXCEPTION_MAP.put(WorkflowAccessDeniedException.class, new ErrorDetails("WORKFLOW_ACCESS_DENIED", HttpStatus.FORBIDDEN));
         EXCEPTION_MAP.put(WorkflowExecutionException.class, new ErrorDetails("WORKFLOW_EXECUTION_ERROR", HttpStatus.BAD_REQUEST));
+        EXCEPTION_MAP.put(WorkflowRunRejectedException.class, new ErrorDetails("WORKFLOW_RUN_REJECTED", HttpStatus.SERVICE_UNAVAILABLE));
+        EXCEPTION_MAP.put(ExecutionNotFoundException.class, new ErrorDetails("EXECUTION_NOT_FOUND", HttpStatus.NOT_FOUND));
+        EXCEPTION_MAP.put(ExecutionNotResumableException.class, new ErrorDetails("EXECUTION_NOT_RESUMABLE", HttpStatus.CONFLICT));
+        
+        // Webhook exceptions
+        EXCEPTION_MAP.put(WebhookNotFoundException.class, new ErrorDetails("WEBHOOK_NOT_FOUND", HttpStatus.NOT_FOUND));
+        EXCEPTION_MAP.put(WebhookUnauthorizedException.class, new ErrorDetails("WEBHOOK_UNAUTHORIZED", HttpStatus.UNAUTHORIZED));
+        EXCEPTION_MAP.put(WebhookPayloadTooLargeException.class, new ErrorDetails("WEBHOOK_PAYLOAD_TOO_LARGE", HttpStatus.PAYLOAD_TOO_LARGE));
     }
 
     @ExceptionHandler(IllegalArgumentException.class)
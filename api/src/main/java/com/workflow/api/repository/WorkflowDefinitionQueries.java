@@ -0,0 +1,40 @@
+package com.workflow.api.repository;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Queries over the nodes of stored workflow definitions. On PostgreSQL the filters run
+ * in SQL against the jsonb definitions and their GIN indexes; on other databases (H2
+ * in development) definitions are scanned and filtered in Java.
+ */
+public interface WorkflowDefinitionQueries {
+
+    /**
+     * Ids of workflows with at least one node of the given type.
+     */
+    List<String> findIdsByNodeType(String nodeType);
+
+    /**
+     * Ids of workflows with at least one node whose config sets the given key.
+     */
+    List<String> findIdsByNodeConfigKey(String configKey);
+
+    /**
+     * Ids of workflows with a node of the given type whose config sets {@code configKey}
+     * to the string {@code value}, such as TRIGGER nodes with a SCHEDULE trigger type.
+     */
+    List<String> findIdsByNodeTypeAndConfigValue(String nodeType, String configKey, String value);
+
+    /**
+     * Ids of workflows with a node of the given type whose {@code url} config points at
+     * the given host (case-insensitive), such as HTTP_REQUEST nodes calling one API.
+     */
+    List<String> findIdsByNodeTypeAndUrlHost(String nodeType, String host);
+
+    /**
+     * Number of nodes of the given type per client id, counting only workflows that have
+     * any. Workflows without a client are counted under {@code null}.
+     */
+    Map<String, Long> countNodesByClient(String nodeType);
+}
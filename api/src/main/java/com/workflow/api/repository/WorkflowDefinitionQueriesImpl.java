@@ -0,0 +1,169 @@
+package com.workflow.api.repository;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.workflow.api.dto.WorkflowDefinition;
+import com.workflow.api.dto.WorkflowNode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Implementation of {@link WorkflowDefinitionQueries}, picked up by Spring Data as a
+ * fragment of {@link WorkflowRepository}. The PostgreSQL queries use the same
+ * expressions as the GIN indexes of changeset 014, so the planner can use them.
+ */
+@Slf4j
+class WorkflowDefinitionQueriesImpl implements WorkflowDefinitionQueries {
+
+    private static final String HAS_NODE_TYPE =
+        "jsonb_path_query_array(workflow_definition, '$.nodes[*].type') @> jsonb_build_array(CAST(? AS text))";
+
+    private static final String HAS_CONFIG_KEY =
+        "jsonb_path_query_array(workflow_definition, '$.nodes[*].data.config.keyvalue().key') "
+            + "@> jsonb_build_array(CAST(? AS text))";
+
+    private static final String SELECT_BY_NODE_TYPE = "SELECT id FROM workflows WHERE " + HAS_NODE_TYPE;
+
+    private static final String SELECT_BY_CONFIG_KEY = "SELECT id FROM workflows WHERE " + HAS_CONFIG_KEY;
+
+    /** Containment on whole nodes, served by the jsonb_path_ops index on {@code workflow_definition -> 'nodes'}. */
+    private static final String SELECT_BY_NODE_TYPE_AND_CONFIG_VALUE =
+        "SELECT id FROM workflows WHERE workflow_definition -> 'nodes' @> jsonb_build_array(jsonb_build_object("
+            + "'type', CAST(? AS text), 'data', jsonb_build_object('config', jsonb_build_object(CAST(? AS text), "
+            + "CAST(? AS text)))))";
+
+    private static final String SELECT_BY_NODE_TYPE_AND_HOST =
+        "SELECT id FROM workflows WHERE " + HAS_NODE_TYPE + " AND EXISTS ("
+            + "SELECT 1 FROM jsonb_path_query(workflow_definition, '$.nodes[*]') AS n(node) "
+            + "WHERE n.node ->> 'type' = ? AND lower(substring(n.node #>> '{data,config,url}' "
+            + "FROM '^[a-zA-Z][a-zA-Z0-9+.-]*://(?:[^@/]*@)?([^/:?#]+)')) = ?)";
+
+    private static final String COUNT_NODES_BY_CLIENT =
+        "SELECT client_id, SUM(jsonb_array_length(jsonb_path_query_array(workflow_definition, "
+            + "'$.nodes[*] ? (@.type == $type)', jsonb_build_object('type', CAST(? AS text))))) AS node_count "
+            + "FROM workflows WHERE " + HAS_NODE_TYPE + " GROUP BY client_id";
+
+    private static final String SELECT_ALL_DEFINITIONS =
+        "SELECT id, client_id, workflow_definition FROM workflows WHERE workflow_definition IS NOT NULL";
+
+    /** Same host extraction as the PostgreSQL query, for the scanning fallback. */
+    private static final Pattern URL_HOST = Pattern.compile("^[a-zA-Z][a-zA-Z0-9+.-]*://(?:[^@/]*@)?([^/:?#]+)");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectReader workflowDefinitionReader;
+
+    private volatile Boolean postgres;
+
+    WorkflowDefinitionQueriesImpl(JdbcTemplate jdbcTemplate, ObjectReader workflowDefinitionReader) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.workflowDefinitionReader = workflowDefinitionReader;
+    }
+
+    @Override
+    public List<String> findIdsByNodeType(String nodeType) {
+        if (isPostgres()) {
+            return jdbcTemplate.queryForList(SELECT_BY_NODE_TYPE, String.class, nodeType);
+        }
+        return scanIds(node -> nodeType.equals(node.getType()));
+    }
+
+    @Override
+    public List<String> findIdsByNodeConfigKey(String configKey) {
+        if (isPostgres()) {
+            return jdbcTemplate.queryForList(SELECT_BY_CONFIG_KEY, String.class, configKey);
+        }
+        return scanIds(node -> config(node).containsKey(configKey));
+    }
+
+    @Override
+    public List<String> findIdsByNodeTypeAndConfigValue(String nodeType, String configKey, String value) {
+        if (isPostgres()) {
+            return jdbcTemplate.queryForList(SELECT_BY_NODE_TYPE_AND_CONFIG_VALUE, String.class,
+                nodeType, configKey, value);
+        }
+        return scanIds(node -> nodeType.equals(node.getType()) && value.equals(config(node).get(configKey)));
+    }
+
+    @Override
+    public List<String> findIdsByNodeTypeAndUrlHost(String nodeType, String host) {
+        String normalizedHost = host.toLowerCase(Locale.ROOT);
+        if (isPostgres()) {
+            return jdbcTemplate.queryForList(SELECT_BY_NODE_TYPE_AND_HOST, String.class,
+                nodeType, nodeType, normalizedHost);
+        }
+        return scanIds(node -> nodeType.equals(node.getType())
+            && normalizedHost.equals(urlHost(config(node).get("url"))));
+    }
+
+    @Override
+    public Map<String, Long> countNodesByClient(String nodeType) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        if (isPostgres()) {
+            jdbcTemplate.query(COUNT_NODES_BY_CLIENT, rs -> {
+                counts.put(rs.getString("client_id"), rs.getLong("node_count"));
+            }, nodeType, nodeType);
+            return counts;
+        }
+        jdbcTemplate.query(SELECT_ALL_DEFINITIONS, rs -> {
+            long nodes = nodes(rs.getString("id"), rs.getString("workflow_definition")).stream()
+                .filter(node -> nodeType.equals(node.getType()))
+                .count();
+            if (nodes > 0) {
+                counts.merge(rs.getString("client_id"), nodes, Long::sum);
+            }
+        });
+        return counts;
+    }
+
+    private List<String> scanIds(Predicate<WorkflowNode> matches) {
+        List<String> ids = new ArrayList<>();
+        jdbcTemplate.query(SELECT_ALL_DEFINITIONS, rs -> {
+            String id = rs.getString("id");
+            if (nodes(id, rs.getString("workflow_definition")).stream().anyMatch(matches)) {
+                ids.add(id);
+            }
+        });
+        return ids;
+    }
+
+    private List<WorkflowNode> nodes(String workflowId, String json) {
+        try {
+            WorkflowDefinition definition = workflowDefinitionReader.readValue(json);
+            return definition.getNodes() != null ? definition.getNodes() : List.of();
+        } catch (IOException e) {
+            log.warn("Skipping workflow {} with an unreadable definition: {}", workflowId, e.getMessage());
+            return List.of();
+        }
+    }
+
+    private static Map<String, Object> config(WorkflowNode node) {
+        return node.getData() != null && node.getData().getConfig() != null ? node.getData().getConfig() : Map.of();
+    }
+
+    private static String urlHost(Object url) {
+        if (!(url instanceof String text)) {
+            return null;
+        }
+        Matcher matcher = URL_HOST.matcher(text);
+        return matcher.find() ? matcher.group(1).toLowerCase(Locale.ROOT) : null;
+    }
+
+    private boolean isPostgres() {
+        if (postgres == null) {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+            postgres = "PostgreSQL".equalsIgnoreCase(product);
+        }
+        return postgres;
+    }
+}
@@ -1,18 +1,41 @@
 package com.workflow.api.repository;
 
+import com.workflow.api.dto.WorkflowDefinitionJson;
+import com.workflow.api.dto.WorkflowSummary;
 import com.workflow.api.entity.Workflow;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface WorkflowRepository extends JpaRepository<Workflow, String> {
+public interface WorkflowRepository extends JpaRepository<Workflow, String>, WorkflowDefinitionQueries {
+    String SUMMARY_SELECT = "select new com.workflow.api.dto.WorkflowSummary(w.id, w.name, w.description, w.ownerId, "
+        + "w.clientId, w.status, w.createdAt, w.updatedAt, w.createdBy, w.updatedBy) from Workflow w ";
+    
     Optional<Workflow> findByNameAndOwnerId(String name, String ownerId);
-    Page<Workflow> findByOwnerId(String ownerId, Pageable pageable);
     Page<Workflow> findByClientId(String clientId, Pageable pageable);
-    Page<Workflow> findByOwnerIdAndNameContainingIgnoreCase(String ownerId, String search, Pageable pageable);
+    Page<WorkflowSummary> findSummariesByOwnerId(String ownerId, Pageable pageable);
+    Page<WorkflowSummary> findSummariesByOwnerIdAndNameContainingIgnoreCase(String ownerId, String search, Pageable pageable);
+    @Query("select new com.workflow.api.dto.WorkflowDefinitionJson(w.id, w.workflowDefinition, w.updatedAt) from Workflow w where w.id = :id")
+    Optional<WorkflowDefinitionJson> findDefinitionById(@Param("id") String id);
+    @Query(SUMMARY_SELECT + "where w.ownerId = :ownerId and lower(w.name) like :namePattern escape '\\' "
+        + "order by w.updatedAt desc, w.id desc")
+    List<WorkflowSummary> seekSummariesByOwnerId(@Param("ownerId") String ownerId,
+                                                 @Param("namePattern") String namePattern, Pageable pageable);
+    @Query(SUMMARY_SELECT + "where w.ownerId = :ownerId and lower(w.name) like :namePattern escape '\\' "
+        + "and (w.updatedAt, w.id) < (:updatedAt, :id) order by w.updatedAt desc, w.id desc")
+    List<WorkflowSummary> seekSummariesByOwnerIdAfter(@Param("ownerId") String ownerId,
+                                                      @Param("namePattern") String namePattern,
+                                                      @Param("updatedAt") LocalDateTime updatedAt,
+                                                      @Param("id") String id, Pageable pageable);
     boolean existsByNameAndOwnerId(String name, String ownerId);
+    List<Workflow> findByStatus(String status);
+    List<Workflow> findByUpdatedAtAfter(LocalDateTime since);
 }
@@ -5,36 +5,186 @@ import com.workflow.api.dto.NodeRunResult;
 import lombok.Getter;
 
 import java.time.Instant;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToIntFunction;
 
-@Getter
+/**
+ * Node outputs of a single run, kept as an append-only log. Entries are never changed
+ * once written, so a snapshot is just a view over the first {@code n} entries and costs
+ * O(1) regardless of how many nodes have run. Growing the log copies the backing
+ * arrays; views taken earlier keep pointing at the old arrays, which stay valid for
+ * their prefix.
+ * <p>
+ * Parallel branches finish in no fixed order, so snapshots iterate in the order
+ * given at construction (the plan's topological order for a run) rather than in
+ * the order the outputs were recorded.
+ */
 public class ExecutionContext {
-    private final Map<String, Map<String, Object>> nodeOutputs = new HashMap<>();
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    @Getter
     private final String runId;
+    @Getter
     private final String startTime;
+    @Getter
+    private final Object input;
+
+    private final ToIntFunction<String> order;
+    private final Map<String, Integer> positions = new ConcurrentHashMap<>();
+    private String[] nodeIds = new String[INITIAL_CAPACITY];
+    private Map<String, Object>[] outputs = newOutputsArray(INITIAL_CAPACITY);
+    private int size;
 
     public ExecutionContext(String runId) {
+        this(runId, null, null);
+    }
+
+    /**
+     * @param input payload the run was triggered with, exposed as the trigger's
+     *              {@code input} output; {@code null} if there is none
+     * @param order rank of a node id in iteration order, typically
+     *              {@code plan::indexOf}; {@code null} to iterate in the order
+     *              outputs were recorded
+     */
+    public ExecutionContext(String runId, Object input, ToIntFunction<String> order) {
         this.runId = runId;
         this.startTime = Instant.now().toString();
+        this.input = input;
+        this.order = order;
     }
 
+    /**
+     * Records a node's outputs. Each node is recorded at most once per run; writers
+     * must be serialized by the caller.
+     */
     public void addNodeResult(NodeRunResult result) {
-        nodeOutputs.put(result.getNodeId(), result.getOutputs());
+        if (positions.containsKey(result.getNodeId())) {
+            throw new IllegalStateException("Outputs for node " + result.getNodeId() + " already recorded");
+        }
+        if (size == nodeIds.length) {
+            nodeIds = Arrays.copyOf(nodeIds, size * 2);
+            outputs = Arrays.copyOf(outputs, size * 2);
+        }
+        Map<String, Object> nodeOutputs = result.getOutputs() != null ? result.getOutputs() : Map.of();
+        nodeIds[size] = result.getNodeId();
+        outputs[size] = Collections.unmodifiableMap(nodeOutputs);
+        positions.put(result.getNodeId(), size);
+        size++;
     }
 
-    public ExecutionSnapshot snapshot() {
-        // Deep copy to prevent external modifications
-        Map<String, Map<String, Object>> copiedOutputs = new HashMap<>();
-        nodeOutputs.forEach((key, value) -> {
-            Map<String, Object> copiedValue = new HashMap<>(value);
-            copiedOutputs.put(key, copiedValue);
-        });
+    /**
+     * Read-only view of the outputs recorded so far.
+     */
+    public Map<String, Map<String, Object>> getNodeOutputs() {
+        return new NodeOutputsView(nodeIds, outputs, size, positions, order);
+    }
 
+    public ExecutionSnapshot snapshot() {
         return new ExecutionSnapshot(
-            copiedOutputs,
+            getNodeOutputs(),
             runId,
-            startTime
+            startTime,
+            input
         );
     }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object>[] newOutputsArray(int capacity) {
+        return (Map<String, Object>[]) new Map[capacity];
+    }
+
+    /**
+     * Immutable map over a prefix of the output log. Iterates in {@code order} if one
+     * is given, otherwise in execution order.
+     */
+    private static final class NodeOutputsView extends AbstractMap<String, Map<String, Object>> {
+
+        private final String[] nodeIds;
+        private final Map<String, Object>[] outputs;
+        private final int length;
+        private final Map<String, Integer> positions;
+        private final ToIntFunction<String> order;
+
+        private NodeOutputsView(String[] nodeIds, Map<String, Object>[] outputs, int length,
+                                Map<String, Integer> positions, ToIntFunction<String> order) {
+            this.nodeIds = nodeIds;
+            this.outputs = outputs;
+            this.length = length;
+            this.positions = positions;
+            this.order = order;
+        }
+
+        @Override
+        public Map<String, Object> get(Object key) {
+            Integer position = positions.get(key);
+            return position != null && position < length ? outputs[position] : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            Integer position = positions.get(key);
+            return position != null && position < length;
+        }
+
+        @Override
+        public int size() {
+            return length;
+        }
+
+        @Override
+        public Set<Entry<String, Map<String, Object>>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String, Map<String, Object>>> iterator() {
+                    int[] sequence = sequence();
+                    return new Iterator<>() {
+                        private int next;
+
+                        @Override
+                        public boolean hasNext() {
+                            return next < length;
+                        }
+
+                        @Override
+                        public Entry<String, Map<String, Object>> next() {
+                            if (next >= length) {
+                                throw new NoSuchElementException();
+                            }
+                            int position = sequence[next++];
+                            return new SimpleImmutableEntry<>(nodeIds[position], outputs[position]);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return length;
+                }
+            };
+        }
+
+        /**
+         * Log positions in iteration order. Sorted on demand so taking a snapshot
+         * stays O(1) for the many runners that never iterate it.
+         */
+        private int[] sequence() {
+            int[] sequence = new int[length];
+            for (int i = 0; i < length; i++) {
+                sequence[i] = i;
+            }
+            if (order == null) {
+                return sequence;
+            }
+            int[] ranks = new int[length];
+            for (int i = 0; i < length; i++) {
+                ranks[i] = order.applyAsInt(nodeIds[i]);
+            }
+            return Arrays.stream(sequence).boxed()
+                .sorted(Comparator.comparingInt((Integer position) -> ranks[position]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        }
+    }
 }
@@ -2,166 +2,140 @@ package com.workflow.api.service;
 
 import com.workflow.api.dto.*;
 import com.workflow.api.exception.WorkflowExecutionException;
-import com.workflow.api.service.runners.*;
-import com.workflow.api.util.TopologicalSort;
+import com.workflow.api.exception.WorkflowRunRejectedException;
+import com.workflow.api.service.history.ExecutionHistoryWriter;
+import com.workflow.api.service.history.ExecutionRecord;
+import com.workflow.api.service.plan.ExecutionPlan;
+import com.workflow.api.service.plan.ExecutionPlanCompiler;
+import com.workflow.api.service.runners.NodeRunnerRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class ExecutionEngineService {
     
-    private final TriggerNodeRunner triggerNodeRunner;
-    private final HttpNodeRunner httpNodeRunner;
-    private final ConditionNodeRunner conditionNodeRunner;
-    private final DoNothingNodeRunner doNothingNodeRunner;
-    private final CodeNodeRunner codeNodeRunner;
+    private final ExecutionPlanCompiler executionPlanCompiler;
+    private final NodeRunnerRegistry nodeRunnerRegistry;
+    private final RunFileStore runFileStore;
+    private final ExecutionHistoryWriter executionHistoryWriter;
+    @Qualifier("cpuNodeExecutor")
+    private final ExecutorService cpuNodeExecutor;
+    @Qualifier("ioNodeExecutor")
+    private final ExecutorService ioNodeExecutor;
+    @Qualifier("runExecutor")
+    private final ExecutorService runExecutor;
     
+    @Value("${workflow.execution.max-parallel-nodes-per-run:8}")
+    private int maxParallelNodes;
+    
+    /**
+     * Compiles and executes an ad-hoc workflow definition.
+     */
     public ExecutionResult execute(List<WorkflowNode> nodes, List<WorkflowEdge> edges) {
-        String runId = "run-" + System.currentTimeMillis() + "-" + UUID.randomUUID().toString().substring(0, 8);
-        ExecutionContext context = new ExecutionContext(runId);
-        
-        // Validate workflow
-        String validationError = validateWorkflow(nodes);
-        if (validationError != null) {
-            throw new WorkflowExecutionException(validationError);
-        }
-        
-        // Topological sort
-        TopologicalSort.Result sortResult = TopologicalSort.sort(nodes, edges);
-        if (sortResult.isHasCycle()) {
-            throw new WorkflowExecutionException("Cycle detected in workflow graph");
+        return execute(compile(nodes, edges));
+    }
+    
+    public ExecutionResult execute(ExecutionPlan plan) {
+        try {
+            return executeAsync(plan, null).join();
+        } catch (CompletionException e) {
+            throw unwrap(e);
         }
-        
-        List<WorkflowNode> sorted = sortResult.getSorted();
-        
-        // Find trigger node
-        WorkflowNode triggerNode = sorted.stream()
-            .filter(n -> "TRIGGER".equals(n.getType()))
-            .findFirst()
-            .orElseThrow(() -> new WorkflowExecutionException("No trigger node found"));
-        
-        List<NodeRunResult> results = new ArrayList<>();
-        
-        // Execute nodes in topological order
-        for (WorkflowNode node : sorted) {
-            ExecutionSnapshot snapshot = context.snapshot();
-            
-            // Check if node should execute
-            if (!shouldExecuteNode(node, edges, context)) {
-                NodeRunResult skipped = new NodeRunResult(
-                    node.getId(),
-                    new HashMap<>(),
-                    "skipped",
-                    null,
-                    Instant.now().toString()
-                );
-                context.addNodeResult(skipped);
-                results.add(skipped);
-                continue;
-            }
-            
-            // Execute node
-            NodeRunResult result = executeNode(node, snapshot);
-            context.addNodeResult(result);
-            results.add(result);
-            
-            // Stop execution if node failed
-            if ("failed".equals(result.getStatus())) {
-                break;
-            }
+    }
+    
+    /**
+     * Starts the run on the calling thread and returns without waiting for it. The
+     * future completes from whichever thread finishes the last node, so no thread is
+     * parked while nodes wait on remote systems.
+     */
+    public CompletableFuture<ExecutionResult> executeAsync(ExecutionPlan plan, String requestedBy) {
+        return startRun(newRunId(), plan, requestedBy, null, RunListener.NONE, List.of());
+    }
+    
+    /**
+     * Hands the run to the run executor. The returned future completes when the run
+     * has finished. Nodes with a result in {@code restored} are not executed again.
+     * {@code input} is the payload the run was triggered with, if any.
+     */
+    public CompletableFuture<ExecutionResult> submit(String runId, ExecutionPlan plan, String requestedBy,
+                                                     Object input, RunListener listener,
+                                                     List<NodeRunResult> restored) {
+        CompletableFuture<ExecutionResult> completion = new CompletableFuture<>();
+        try {
+            runExecutor.execute(() -> {
+                listener.onRunStarted();
+                startRun(runId, plan, requestedBy, input, listener, restored).whenComplete((result, error) -> {
+                    if (error != null) {
+                        completion.completeExceptionally(unwrap(error));
+                    } else {
+                        completion.complete(result);
+                    }
+                });
+            });
+        } catch (RejectedExecutionException e) {
+            throw new WorkflowRunRejectedException("Too many workflow runs in progress, try again later", e);
         }
-        
-        return new ExecutionResult(runId, results);
+        return completion;
+    }
+    
+    /**
+     * Validates an ad-hoc workflow definition and compiles it without caching.
+     */
+    public ExecutionPlan compile(List<WorkflowNode> nodes, List<WorkflowEdge> edges) {
+        return executionPlanCompiler.compile(null, null, null, nodes, edges);
     }
     
     public NodeRunResult executeSingleNode(WorkflowNode node) {
         ExecutionContext context = new ExecutionContext("test-" + System.currentTimeMillis());
         ExecutionSnapshot snapshot = context.snapshot();
-        return executeNode(node, snapshot);
+        try {
+            return nodeRunnerRegistry.resolve(node.getType()).run(node, snapshot);
+        } finally {
+            runFileStore.deleteRun(context.getRunId());
+        }
     }
     
-    private NodeRunResult executeNode(WorkflowNode node, ExecutionSnapshot snapshot) {
-        String nodeType = node.getType();
-        
-        return switch (nodeType) {
-            case "TRIGGER" -> triggerNodeRunner.run(node, snapshot);
-            case "HTTP_REQUEST" -> httpNodeRunner.run(node, snapshot);
-            case "CONDITION" -> conditionNodeRunner.run(node, snapshot);
-            case "DO_NOTHING" -> doNothingNodeRunner.run(node, snapshot);
-            case "CODE" -> codeNodeRunner.run(node, snapshot);
-            default -> new NodeRunResult(
-                node.getId(),
-                new HashMap<>(),
-                "failed",
-                "Unknown node type: " + nodeType,
-                Instant.now().toString()
-            );
-        };
+    public String newRunId() {
+        return "run-" + System.currentTimeMillis() + "-" + UUID.randomUUID().toString().substring(0, 8);
     }
     
-    private boolean shouldExecuteNode(WorkflowNode node, List<WorkflowEdge> edges, ExecutionContext context) {
-        List<WorkflowEdge> incomingEdges = edges.stream()
-            .filter(e -> e.getTarget().equals(node.getId()))
-            .collect(Collectors.toList());
-        
-        if (incomingEdges.isEmpty()) {
-            return true;
-        }
-        
-        for (WorkflowEdge edge : incomingEdges) {
-            Map<String, Object> sourceOutputs = context.getNodeOutputs().get(edge.getSource());
-            if (sourceOutputs == null) {
-                return false;
-            }
-            
-            // Check for conditional branching
-            if (sourceOutputs.containsKey("branch")) {
-                String expectedBranch = edge.getSourceHandle() != null ? edge.getSourceHandle() : "true";
-                Object actualBranch = sourceOutputs.get("branch");
-                if (!expectedBranch.equals(String.valueOf(actualBranch))) {
-                    return false;
-                }
-            }
-        }
-        
-        return true;
+    /**
+     * Starts a run on the calling thread. Once it has finished, its scratch files are
+     * removed and it is queued for the execution history.
+     */
+    private CompletableFuture<ExecutionResult> startRun(String runId, ExecutionPlan plan, String requestedBy,
+                                                        Object input, RunListener listener,
+                                                        List<NodeRunResult> restored) {
+        Instant startedAt = Instant.now();
+        ExecutionContext context = new ExecutionContext(runId, input, plan::indexOf);
+        // Nodes execute as soon as their upstream nodes have finished
+        RunScheduler scheduler = new RunScheduler(plan, context, cpuNodeExecutor, ioNodeExecutor,
+            maxParallelNodes, listener, restored);
+        return scheduler.start().whenComplete((result, error) -> {
+            runFileStore.deleteRun(runId);
+            executionHistoryWriter.record(ExecutionRecord.of(runId, plan, requestedBy, startedAt, result, error));
+        });
     }
     
-    private String validateWorkflow(List<WorkflowNode> nodes) {
-        long triggerCount = nodes.stream()
-            .filter(n -> "TRIGGER".equals(n.getType()))
-            .count();
-        
-        if (triggerCount == 0) {
-            return "Workflow must have at least one Trigger node";
-        }
-        
-        for (WorkflowNode node : nodes) {
-            String nodeType = node.getType();
-            if ("HTTP_REQUEST".equals(nodeType)) {
-                Map<String, Object> config = node.getData().getConfig();
-                String url = (String) config.get("url");
-                if (url == null || url.trim().isEmpty()) {
-                    return "HTTP_REQUEST node " + node.getId() + " must have a URL";
-                }
-            }
-            
-            if ("CONDITION".equals(nodeType)) {
-                Map<String, Object> config = node.getData().getConfig();
-                String expression = (String) config.get("expression");
-                if (expression == null || expression.trim().isEmpty()) {
-                    return "Condition node " + node.getId() + " must have an expression";
-                }
-            }
+    private RuntimeException unwrap(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null
+            ? error.getCause()
+            : error;
+        if (cause instanceof RuntimeException runtimeException) {
+            return runtimeException;
         }
-        
-        return null;
+        return new WorkflowExecutionException("Workflow run failed", cause);
     }
 }
@@ -0,0 +1,86 @@
+package com.workflow.api.service;
+
+import com.workflow.api.dto.ExecutionResult;
+import com.workflow.api.dto.ExecutionStatus;
+import com.workflow.api.dto.NodeRunResult;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tracks the progress of an asynchronously submitted run.
+ */
+@Getter
+public class ExecutionRun implements RunListener {
+
+    public enum Status { QUEUED, RUNNING, SUCCEEDED, FAILED }
+
+    private final String runId;
+    private final String workflowId;
+    private final String requestedBy;
+    private final int totalNodes;
+    private final Instant submittedAt = Instant.now();
+    private final AtomicInteger finishedNodes = new AtomicInteger();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String error;
+    private volatile ExecutionResult result;
+
+    public ExecutionRun(String runId, String workflowId, String requestedBy, int totalNodes) {
+        this.runId = runId;
+        this.workflowId = workflowId;
+        this.requestedBy = requestedBy;
+        this.totalNodes = totalNodes;
+    }
+
+    @Override
+    public void onRunStarted() {
+        startedAt = Instant.now();
+        status = Status.RUNNING;
+    }
+
+    @Override
+    public void onNodeFinished(NodeRunResult nodeResult) {
+        finishedNodes.incrementAndGet();
+    }
+
+    void complete(ExecutionResult executionResult) {
+        result = executionResult;
+        boolean anyFailed = executionResult.getResults().stream()
+            .anyMatch(r -> "failed".equals(r.getStatus()));
+        finish(anyFailed ? Status.FAILED : Status.SUCCEEDED, null);
+    }
+
+    void fail(Throwable cause) {
+        finish(Status.FAILED, cause.getMessage());
+    }
+
+    private void finish(Status finalStatus, String errorMessage) {
+        error = errorMessage;
+        finishedAt = Instant.now();
+        status = finalStatus;
+    }
+
+    public boolean isFinished() {
+        return finishedAt != null;
+    }
+
+    public ExecutionStatus toStatus() {
+        return new ExecutionStatus(
+            runId,
+            workflowId,
+            requestedBy,
+            status.name(),
+            totalNodes,
+            finishedNodes.get(),
+            submittedAt.toString(),
+            startedAt != null ? startedAt.toString() : null,
+            finishedAt != null ? finishedAt.toString() : null,
+            error,
+            result
+        );
+    }
+}
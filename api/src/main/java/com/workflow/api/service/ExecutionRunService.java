@@ -0,0 +1,173 @@
+package com.workflow.api.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.workflow.api.dto.ExecutionResult;
+import com.workflow.api.dto.ExecutionStatus;
+import com.workflow.api.dto.NodeRunResult;
+import com.workflow.api.dto.WorkflowDefinition;
+import com.workflow.api.exception.ExecutionNotFoundException;
+import com.workflow.api.exception.ExecutionNotResumableException;
+import com.workflow.api.exception.WorkflowAccessDeniedException;
+import com.workflow.api.exception.WorkflowExecutionException;
+import com.workflow.api.service.checkpoint.RunCheckpointStore;
+import com.workflow.api.service.plan.ExecutionPlan;
+import com.workflow.api.service.queue.RunQueueStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Accepts workflow runs for asynchronous execution. Runs are put on the durable run
+ * queue and executed by whichever instance claims them (see
+ * {@link com.workflow.api.service.queue.RunQueueWorker}). Runs executing on this
+ * instance are tracked in memory for live progress; everything else is answered from
+ * the queue table.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ExecutionRunService {
+
+    private final ExecutionEngineService executionEngineService;
+    private final RunQueueStore runQueueStore;
+    private final RunCheckpointStore runCheckpointStore;
+    private final ObjectMapper objectMapper;
+    private final Map<String, ExecutionRun> runs = new ConcurrentHashMap<>();
+
+    @Value("${workflow.execution.run-retention-minutes:60}")
+    private long runRetentionMinutes;
+
+    @Value("${workflow.queue.finished-retention-days:7}")
+    private long finishedRetentionDays;
+
+    /**
+     * Puts a compiled workflow on the run queue. Returns as soon as the run has been
+     * stored. Ad-hoc runs pass their definition, since there is no stored workflow to
+     * load it from.
+     */
+    public ExecutionStatus submit(ExecutionPlan plan, WorkflowDefinition adHocDefinition, String requestedBy) {
+        String runId = executionEngineService.newRunId();
+        String definition = adHocDefinition != null ? writeJson(adHocDefinition) : null;
+        runQueueStore.enqueue(new RunQueueStore.NewRun(runId, plan.getWorkflowId(), plan.getClientId(), definition,
+            null, requestedBy, plan.size()));
+
+        log.info("Queued async run {} for workflow {}", runId, plan.getWorkflowId());
+        return new ExecutionRun(runId, plan.getWorkflowId(), requestedBy, plan.size()).toStatus();
+    }
+
+    /**
+     * Executes a run claimed from the queue on this instance, checkpointing nodes as
+     * they finish. Nodes in {@code restored} were checkpointed by an earlier attempt
+     * and are not executed again. The returned future completes with the finished run.
+     */
+    public CompletableFuture<ExecutionRun> start(String runId, ExecutionPlan plan, String requestedBy,
+                                                 Object input, List<NodeRunResult> restored) {
+        ExecutionRun run = new ExecutionRun(runId, plan.getWorkflowId(), requestedBy, plan.size());
+        run.getFinishedNodes().addAndGet(restored.size());
+        RunListener listener = RunListener.of(run, runCheckpointStore.listener(runId, plan, restored.size()));
+        CompletableFuture<ExecutionRun> finished = new CompletableFuture<>();
+        runs.put(runId, run);
+
+        try {
+            executionEngineService.submit(runId, plan, requestedBy, input, listener, restored)
+                .whenComplete((result, error) -> {
+                    if (error != null) {
+                        log.error("Async run {} failed", runId, error);
+                        run.fail(error);
+                    } else {
+                        run.complete(result);
+                    }
+                    finished.complete(run);
+                });
+        } catch (RuntimeException e) {
+            runs.remove(runId);
+            throw e;
+        }
+        return finished;
+    }
+
+    /**
+     * Puts a failed run back on the queue. Whichever worker claims it restores the
+     * checkpointed nodes and continues from the first node without a checkpoint.
+     */
+    public ExecutionStatus resume(String runId, String requestedBy) {
+        ExecutionStatus current = runQueueStore.findStatus(runId)
+            .map(RunQueueStore.StoredStatus::status)
+            .orElseThrow(() -> new ExecutionNotFoundException("Execution with run id '" + runId + "' not found"));
+
+        if (requestedBy != null && current.getRequestedBy() != null && !current.getRequestedBy().equals(requestedBy)) {
+            throw new WorkflowAccessDeniedException("You do not have permission to resume this execution");
+        }
+        if (!runQueueStore.requeueFailed(runId)) {
+            throw new ExecutionNotResumableException(
+                "Execution '" + runId + "' is " + current.getStatus() + "; only failed executions can be resumed");
+        }
+        // The finished local run would otherwise keep answering getStatus with FAILED
+        runs.remove(runId);
+
+        log.info("Resuming run {} of workflow {}", runId, current.getWorkflowId());
+        return runQueueStore.findStatus(runId).map(RunQueueStore.StoredStatus::status).orElse(current);
+    }
+
+    public Optional<ExecutionRun> getLocalRun(String runId) {
+        return Optional.ofNullable(runs.get(runId));
+    }
+
+    public Optional<ExecutionStatus> getStatus(String runId) {
+        ExecutionRun local = runs.get(runId);
+        if (local != null) {
+            return Optional.of(local.toStatus());
+        }
+        return runQueueStore.findStatus(runId).map(stored -> {
+            ExecutionStatus status = stored.status();
+            if (stored.resultJson() != null) {
+                status.setResult(readResult(stored.resultJson()));
+            }
+            return status;
+        });
+    }
+
+    /**
+     * Drops finished runs from memory after the run retention, and from the run queue,
+     * with their checkpoints, after the separate and longer finished-run retention.
+     * Failed runs stay resumable until the latter.
+     */
+    @Scheduled(fixedDelayString = "${workflow.execution.run-cleanup-interval-ms:60000}")
+    public void evictExpiredRuns() {
+        Instant cutoff = Instant.now().minus(Duration.ofMinutes(runRetentionMinutes));
+        runs.values().removeIf(run -> run.isFinished() && run.getFinishedAt().isBefore(cutoff));
+        try {
+            runQueueStore.deleteFinishedBefore(Instant.now().minus(Duration.ofDays(finishedRetentionDays)));
+        } catch (RuntimeException e) {
+            log.warn("Failed to delete finished runs from the run queue", e);
+        }
+    }
+
+    private String writeJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new WorkflowExecutionException("Failed to serialize workflow definition", e);
+        }
+    }
+
+    private ExecutionResult readResult(String json) {
+        try {
+            return objectMapper.readValue(json, ExecutionResult.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Stored result is not readable", e);
+            return null;
+        }
+    }
+}
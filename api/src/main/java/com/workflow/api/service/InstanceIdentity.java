@@ -0,0 +1,38 @@
+package com.workflow.api.service;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.UUID;
+
+/**
+ * Identifies this api instance in leases it takes in the shared database (run queue
+ * claims, schedule shards). Unique per process, so a restarted instance never mistakes
+ * the leases of its previous incarnation for its own.
+ */
+@Slf4j
+@Component
+public class InstanceIdentity {
+
+    @Getter
+    private final String id;
+
+    public InstanceIdentity(@Value("${workflow.instance-id:}") String configuredId) {
+        this.id = configuredId.isBlank() ? defaultId() : configuredId;
+        log.info("Instance id: {}", id);
+    }
+
+    private static String defaultId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "unknown";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
@@ -0,0 +1,62 @@
+package com.workflow.api.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Scratch files that belong to a single workflow run, such as response bodies too large
+ * to keep in memory. Each run gets its own directory, which the engine deletes once
+ * the run has finished.
+ */
+@Slf4j
+@Component
+public class RunFileStore {
+
+    private final Path baseDirectory;
+
+    public RunFileStore(@Value("${workflow.execution.run-files-directory:${java.io.tmpdir}/workflow-runs}") String baseDirectory) {
+        this.baseDirectory = Paths.get(baseDirectory);
+    }
+
+    /**
+     * Path for a file of the given run. The run directory is created on demand.
+     */
+    public Path newFile(String runId, String name) throws IOException {
+        Path directory = Files.createDirectories(runDirectory(runId));
+        return directory.resolve(sanitize(name));
+    }
+
+    public void deleteRun(String runId) {
+        Path directory = runDirectory(runId);
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException e) {
+                    log.warn("Could not delete run file {}", path, e);
+                }
+            });
+        } catch (IOException e) {
+            log.warn("Could not clean up files of run {}", runId, e);
+        }
+    }
+
+    private Path runDirectory(String runId) {
+        return baseDirectory.resolve(sanitize(runId));
+    }
+
+    private static String sanitize(String name) {
+        return name.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+}
@@ -0,0 +1,39 @@
+package com.workflow.api.service;
+
+import com.workflow.api.dto.NodeRunResult;
+
+/**
+ * Receives progress callbacks from a workflow run. Callbacks are made on engine
+ * threads and must not block.
+ */
+public interface RunListener {
+
+    RunListener NONE = new RunListener() { };
+
+    /**
+     * Listener that forwards every callback to each of {@code listeners} in order.
+     */
+    static RunListener of(RunListener... listeners) {
+        return new RunListener() {
+            @Override
+            public void onRunStarted() {
+                for (RunListener listener : listeners) {
+                    listener.onRunStarted();
+                }
+            }
+
+            @Override
+            public void onNodeFinished(NodeRunResult result) {
+                for (RunListener listener : listeners) {
+                    listener.onNodeFinished(result);
+                }
+            }
+        };
+    }
+
+    default void onRunStarted() {
+    }
+
+    default void onNodeFinished(NodeRunResult result) {
+    }
+}
@@ -0,0 +1,310 @@
+package com.workflow.api.service;
+
+import com.workflow.api.dto.*;
+import com.workflow.api.service.plan.ExecutionPlan;
+import com.workflow.api.service.runners.AsyncNodeRunner;
+import com.workflow.api.service.runners.NodeRunnerMetadata.ExecutionClass;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Drives a single workflow run. A node becomes ready once every upstream node has
+ * finished; at most {@code maxParallel} nodes of a run are in flight at a time.
+ * Blocking-IO nodes go to the IO executor, CPU-bound nodes to the CPU executor and
+ * inline nodes run on the dispatching thread. Asynchronous runners are started on the
+ * dispatching thread and finish through their future, so a node waiting on a remote
+ * call holds no thread. The first failed node stops any further dispatch, nodes that
+ * are already running are allowed to finish.
+ */
+@Slf4j
+class RunScheduler {
+
+    private final String runId;
+    private final ExecutionPlan plan;
+    private final int[] pendingUpstream;
+    private final NodeRunResult[] results;
+    private final ExecutionContext context;
+    private final Executor cpuExecutor;
+    private final Executor ioExecutor;
+    private final int maxParallel;
+    private final RunListener listener;
+
+    private final Deque<Integer> ready = new ArrayDeque<>();
+    private final CompletableFuture<ExecutionResult> completion = new CompletableFuture<>();
+    private int running;
+    private boolean failed;
+
+    RunScheduler(ExecutionPlan plan, ExecutionContext context, Executor cpuExecutor,
+                 Executor ioExecutor, int maxParallel, RunListener listener,
+                 List<NodeRunResult> restored) {
+        this.runId = context.getRunId();
+        this.plan = plan;
+        this.context = context;
+        this.cpuExecutor = cpuExecutor;
+        this.ioExecutor = ioExecutor;
+        this.maxParallel = Math.max(1, maxParallel);
+        this.listener = listener;
+        this.pendingUpstream = new int[plan.size()];
+        this.results = new NodeRunResult[plan.size()];
+        for (int i = 0; i < plan.size(); i++) {
+            pendingUpstream[i] = plan.getInDegree(i);
+        }
+        restore(restored);
+    }
+
+    /**
+     * Seeds results checkpointed by an earlier attempt of the run. Restored nodes are
+     * treated as finished: they are not dispatched again, even once their upstream
+     * nodes complete, and their successors only wait for the remaining upstream nodes.
+     * Results of nodes the plan no longer has are ignored.
+     */
+    private void restore(List<NodeRunResult> restored) {
+        for (NodeRunResult result : restored) {
+            int index = plan.indexOf(result.getNodeId());
+            if (index < 0 || results[index] != null) {
+                continue;
+            }
+            results[index] = result;
+            context.addNodeResult(result);
+            for (int successor : plan.getOutgoingTargets(index)) {
+                pendingUpstream[successor]--;
+            }
+        }
+    }
+
+    /**
+     * Starts the run on the calling thread.
+     */
+    CompletableFuture<ExecutionResult> start() {
+        synchronized (this) {
+            for (int i = 0; i < plan.size(); i++) {
+                if (pendingUpstream[i] == 0 && results[i] == null) {
+                    ready.add(i);
+                }
+            }
+        }
+        dispatch();
+        return completion;
+    }
+
+    private void dispatch() {
+        while (true) {
+            List<Integer> inline = new ArrayList<>();
+            List<ExecutionSnapshot> inlineSnapshots = new ArrayList<>();
+            List<Integer> pooled = new ArrayList<>();
+            List<ExecutionSnapshot> pooledSnapshots = new ArrayList<>();
+            List<Integer> async = new ArrayList<>();
+            List<ExecutionSnapshot> asyncSnapshots = new ArrayList<>();
+
+            synchronized (this) {
+                if (completion.isDone()) {
+                    return;
+                }
+                while (!failed && running < maxParallel && !ready.isEmpty()) {
+                    int index = ready.poll();
+                    if (!shouldExecuteNode(index)) {
+                        record(index, new NodeRunResult(
+                            plan.getNode(index).getId(),
+                            new HashMap<>(),
+                            "skipped",
+                            null,
+                            Instant.now().toString()
+                        ));
+                        continue;
+                    }
+                    running++;
+                    if (plan.getRunner(index) instanceof AsyncNodeRunner) {
+                        async.add(index);
+                        asyncSnapshots.add(context.snapshot());
+                    } else if (executionClass(index) == ExecutionClass.INLINE) {
+                        inline.add(index);
+                        inlineSnapshots.add(context.snapshot());
+                    } else {
+                        pooled.add(index);
+                        pooledSnapshots.add(context.snapshot());
+                    }
+                }
+                if (running == 0) {
+                    completion.complete(buildResult());
+                    return;
+                }
+            }
+
+            for (int i = 0; i < pooled.size(); i++) {
+                int index = pooled.get(i);
+                ExecutionSnapshot snapshot = pooledSnapshots.get(i);
+                executorFor(index).execute(() -> {
+                    try {
+                        onNodeFinished(index, runNode(index, snapshot));
+                    } catch (Throwable t) {
+                        // Whatever escapes a pooled task must still complete the run
+                        abort(plan.getNode(index), t);
+                        rethrowIfFatal(t);
+                    }
+                });
+            }
+            for (int i = 0; i < async.size(); i++) {
+                startAsync(async.get(i), asyncSnapshots.get(i));
+            }
+
+            if (inline.isEmpty()) {
+                return;
+            }
+            for (int i = 0; i < inline.size(); i++) {
+                int index = inline.get(i);
+                NodeRunResult result = runNode(index, inlineSnapshots.get(i));
+                if (result == null) {
+                    return;
+                }
+                try {
+                    synchronized (this) {
+                        running--;
+                        record(index, result);
+                    }
+                } catch (Throwable t) {
+                    abort(plan.getNode(index), t);
+                    rethrowIfFatal(t);
+                    return;
+                }
+            }
+        }
+    }
+
+    private ExecutionClass executionClass(int index) {
+        return plan.getRunner(index).getMetadata().getExecutionClass();
+    }
+
+    private Executor executorFor(int index) {
+        return executionClass(index) == ExecutionClass.BLOCKING_IO ? ioExecutor : cpuExecutor;
+    }
+
+    private void onNodeFinished(int index, NodeRunResult result) {
+        if (result == null) {
+            return;
+        }
+        synchronized (this) {
+            running--;
+            record(index, result);
+        }
+        dispatch();
+    }
+
+    /**
+     * Runs a node, returning {@code null} if the runner threw. A throwing runner aborts
+     * the whole run with that exception, like the sequential engine did. Errors abort
+     * the run too, so its future always completes; VM-fatal ones are rethrown afterwards.
+     */
+    private NodeRunResult runNode(int index, ExecutionSnapshot snapshot) {
+        WorkflowNode node = plan.getNode(index);
+        try {
+            return plan.getRunner(index).run(node, snapshot);
+        } catch (Throwable t) {
+            abort(node, t);
+            rethrowIfFatal(t);
+            return null;
+        }
+    }
+
+    /**
+     * Rethrows errors the VM cannot be trusted to continue after. A stack overflow has
+     * unwound by the time it is caught, so it only fails the run.
+     */
+    private static void rethrowIfFatal(Throwable t) {
+        if (t instanceof VirtualMachineError && !(t instanceof StackOverflowError)) {
+            throw (VirtualMachineError) t;
+        }
+    }
+
+    /**
+     * Starts an asynchronous node; its result is recorded from whichever thread
+     * completes the future. A future that fails aborts the run like a throwing runner.
+     */
+    private void startAsync(int index, ExecutionSnapshot snapshot) {
+        WorkflowNode node = plan.getNode(index);
+        CompletableFuture<NodeRunResult> future;
+        try {
+            future = ((AsyncNodeRunner) plan.getRunner(index)).runAsync(node, snapshot);
+        } catch (Throwable t) {
+            abort(node, t);
+            rethrowIfFatal(t);
+            return;
+        }
+        future.whenComplete((result, error) -> {
+            if (error != null) {
+                abort(node, error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause()
+                    : error);
+            } else {
+                onNodeFinished(index, result);
+            }
+        });
+    }
+
+    private void abort(WorkflowNode node, Throwable error) {
+        log.error("Run {} aborted by node {}", runId, node.getId(), error);
+        synchronized (this) {
+            failed = true;
+        }
+        completion.completeExceptionally(error);
+    }
+
+    /**
+     * Must be called while holding the monitor.
+     */
+    private void record(int index, NodeRunResult result) {
+        results[index] = result;
+        context.addNodeResult(result);
+        listener.onNodeFinished(result);
+
+        if ("failed".equals(result.getStatus())) {
+            failed = true;
+            return;
+        }
+        for (int successor : plan.getOutgoingTargets(index)) {
+            if (--pendingUpstream[successor] == 0 && results[successor] == null) {
+                ready.add(successor);
+            }
+        }
+    }
+
+    private boolean shouldExecuteNode(int index) {
+        int[] sources = plan.getIncomingSources(index);
+        String[] expectedBranches = plan.getIncomingHandles(index);
+
+        for (int e = 0; e < sources.length; e++) {
+            NodeRunResult sourceResult = results[sources[e]];
+            if (sourceResult == null) {
+                return false;
+            }
+
+            // Check for conditional branching
+            Map<String, Object> sourceOutputs = sourceResult.getOutputs();
+            if (sourceOutputs != null && sourceOutputs.containsKey("branch")) {
+                Object actualBranch = sourceOutputs.get("branch");
+                if (!expectedBranches[e].equals(String.valueOf(actualBranch))) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Results are reported in topological order, independent of completion order.
+     */
+    private ExecutionResult buildResult() {
+        List<NodeRunResult> ordered = new ArrayList<>(results.length);
+        for (NodeRunResult result : results) {
+            if (result != null) {
+                ordered.add(result);
+            }
+        }
+        return new ExecutionResult(runId, ordered);
+    }
+}
@@ -0,0 +1,175 @@
+package com.workflow.api.service;
+
+import com.workflow.api.service.plan.WorkflowDefinitionCache;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Carries {@link WorkflowChangedEvent}s between api instances with Postgres
+ * {@code LISTEN/NOTIFY}. A local change is announced with {@code pg_notify} inside the
+ * transaction that makes it, so Postgres delivers it only if and when that transaction
+ * commits. Every instance listens on a dedicated connection and republishes changes
+ * made elsewhere as remote events, which keeps caches and indexes such as
+ * {@link WorkflowDefinitionCache} current across instances. The listening connection
+ * is opened with {@link DriverManager} rather than taken from the pool, since it is
+ * held for as long as the instance runs.
+ *
+ * <p>Notifications sent while the listening connection is down are lost, so after
+ * reconnecting all cached definitions are dropped. On other databases (H2 in
+ * development) this is a no-op; a single instance needs no notifications.
+ */
+@Slf4j
+@Component
+public class WorkflowChangeNotifier {
+
+    static final String CHANNEL = "workflow_changed";
+
+    private static final char PAYLOAD_SEPARATOR = ':';
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String url;
+    private final String username;
+    private final String password;
+    private final ApplicationEventPublisher eventPublisher;
+    private final WorkflowDefinitionCache definitionCache;
+    private final String instanceId;
+    private final boolean enabled;
+    private final int pollTimeoutMs;
+    private final long reconnectDelayMs;
+
+    private volatile Boolean postgres;
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    public WorkflowChangeNotifier(JdbcTemplate jdbcTemplate,
+                                  ApplicationEventPublisher eventPublisher,
+                                  WorkflowDefinitionCache definitionCache,
+                                  InstanceIdentity instanceIdentity,
+                                  @Value("${workflow.change-notifications.enabled:true}") boolean enabled,
+                                  @Value("${workflow.change-notifications.poll-timeout-ms:1000}") int pollTimeoutMs,
+                                  @Value("${workflow.change-notifications.reconnect-delay-ms:5000}") long reconnectDelayMs,
+                                  @Value("${spring.datasource.url}") String url,
+                                  @Value("${spring.datasource.username:}") String username,
+                                  @Value("${spring.datasource.password:}") String password) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.eventPublisher = eventPublisher;
+        this.definitionCache = definitionCache;
+        this.instanceId = instanceIdentity.getId();
+        this.enabled = enabled;
+        this.pollTimeoutMs = pollTimeoutMs;
+        this.reconnectDelayMs = reconnectDelayMs;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled || !isPostgres()) {
+            log.info("Workflow change notifications disabled");
+            return;
+        }
+        running = true;
+        listenerThread = new Thread(this::listenLoop, "wf-change-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+            listenerThread.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    /**
+     * Announces a local change. Runs within the change's transaction when there is one.
+     */
+    @EventListener
+    public void onWorkflowChanged(WorkflowChangedEvent event) {
+        if (event.remote() || !enabled || !isPostgres()) {
+            return;
+        }
+        jdbcTemplate.query("SELECT pg_notify(?, ?)", (RowCallbackHandler) rs -> { },
+            CHANNEL, instanceId + PAYLOAD_SEPARATOR + event.workflowId());
+    }
+
+    private void listenLoop() {
+        boolean reconnected = false;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                if (reconnected) {
+                    definitionCache.invalidateAll();
+                    log.info("Resumed workflow change notifications; dropped cached definitions");
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollTimeoutMs);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            handle(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    break;
+                }
+                log.warn("Lost workflow change notifications, reconnecting in {} ms", reconnectDelayMs, e);
+                try {
+                    TimeUnit.MILLISECONDS.sleep(reconnectDelayMs);
+                } catch (InterruptedException interrupted) {
+                    break;
+                }
+            }
+            reconnected = true;
+        }
+    }
+
+    private void handle(String payload) {
+        int separator = payload.lastIndexOf(PAYLOAD_SEPARATOR);
+        if (separator < 0) {
+            log.warn("Ignoring malformed workflow change notification: {}", payload);
+            return;
+        }
+        if (payload.substring(0, separator).equals(instanceId)) {
+            // Already applied when it was made
+            return;
+        }
+        try {
+            eventPublisher.publishEvent(new WorkflowChangedEvent(payload.substring(separator + 1), true));
+        } catch (RuntimeException e) {
+            log.error("Failed to apply workflow change notification {}", payload, e);
+        }
+    }
+
+    private boolean isPostgres() {
+        if (postgres == null) {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+            postgres = "PostgreSQL".equalsIgnoreCase(product);
+        }
+        return postgres;
+    }
+}
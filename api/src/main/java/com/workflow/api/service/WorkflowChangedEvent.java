@@ -0,0 +1,13 @@
+package com.workflow.api.service;
+
+/**
+ * Published after a workflow was created, updated or deleted, so components that keep
+ * per-workflow state (such as the scheduler) can reload it. {@code remote} events
+ * describe a change made through another api instance.
+ */
+public record WorkflowChangedEvent(String workflowId, boolean remote) {
+
+    public WorkflowChangedEvent(String workflowId) {
+        this(workflowId, false);
+    }
+}
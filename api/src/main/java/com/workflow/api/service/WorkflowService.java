@@ -1,19 +1,32 @@
 package com.workflow.api.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.workflow.api.dto.WorkflowDefinition;
+import com.workflow.api.dto.WorkflowDefinitionJson;
+import com.workflow.api.dto.WorkflowSummary;
 import com.workflow.api.entity.Workflow;
 import com.workflow.api.exception.*;
 import com.workflow.api.repository.WorkflowRepository;
+import com.workflow.model.CursorPage;
+import com.workflow.util.CursorToken;
+import com.workflow.util.PlannerEstimates;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -22,8 +35,16 @@ import java.util.UUID;
 @Slf4j
 public class WorkflowService {
     
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+    
+    /** Rows matched by the cursor listing, for the planner's estimate */
+    private static final String OWNER_WORKFLOWS = "SELECT 1 FROM workflows WHERE owner_id = ? AND lower(name) LIKE ? ESCAPE '\\'";
+    
     private final WorkflowRepository workflowRepository;
-    public final ObjectMapper objectMapper = new ObjectMapper();
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final ObjectReader workflowDefinitionReader;
     
     /**
      * Validate workflow name is not empty
@@ -57,7 +78,9 @@ public class WorkflowService {
         workflow.setCreatedAt(LocalDateTime.now());
         workflow.setUpdatedAt(LocalDateTime.now());
         
-        return workflowRepository.save(workflow);
+        Workflow saved = workflowRepository.save(workflow);
+        eventPublisher.publishEvent(new WorkflowChangedEvent(saved.getId()));
+        return saved;
     }
     
     /**
@@ -79,10 +102,17 @@ public class WorkflowService {
     }
     
     /**
-     * Get all workflows for owner
+     * Get the stored definition of a workflow, as JSON text
+     */
+    public Optional<WorkflowDefinitionJson> getWorkflowDefinitionById(String id) {
+        return workflowRepository.findDefinitionById(id);
+    }
+    
+    /**
+     * Get all workflows for owner, without their definitions
      */
-    public Page<Workflow> getAllWorkflowsByOwner(String ownerId, Pageable pageable) {
-        return workflowRepository.findByOwnerId(ownerId, pageable);
+    public Page<WorkflowSummary> getAllWorkflowsByOwner(String ownerId, Pageable pageable) {
+        return workflowRepository.findSummariesByOwnerId(ownerId, pageable);
     }
     
     /**
@@ -93,10 +123,66 @@ public class WorkflowService {
     }
     
     /**
-     * Search workflows by name for owner
+     * Search workflows by name for owner, without their definitions
+     */
+    public Page<WorkflowSummary> searchWorkflowsByOwner(String ownerId, String search, Pageable pageable) {
+        return workflowRepository.findSummariesByOwnerIdAndNameContainingIgnoreCase(ownerId, search, pageable);
+    }
+    
+    /**
+     * Get a page of workflows for owner, most recently updated first, without their definitions.
+     * Pages are read by keyset: each continues after the (updatedAt, id) of the previous page's
+     * last row, carried in the cursor, so deep pages cost the same as the first one and no
+     * count query runs. The total, if asked for, is the planner's estimate.
+     */
+    public CursorPage<WorkflowSummary> getWorkflowSummariesByOwner(String ownerId, String search, String cursor,
+                                                                   int size, boolean includeTotal) {
+        int limit = Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+        String namePattern = toNamePattern(search);
+        // One row more than the page tells whether another page follows
+        Pageable rowsToRead = PageRequest.of(0, limit + 1);
+        
+        List<WorkflowSummary> rows;
+        if (cursor == null || cursor.isEmpty()) {
+            rows = workflowRepository.seekSummariesByOwnerId(ownerId, namePattern, rowsToRead);
+        } else {
+            String[] keys = CursorToken.decode(cursor, 2);
+            rows = workflowRepository.seekSummariesByOwnerIdAfter(ownerId, namePattern, toCursorTime(keys[0]), keys[1], rowsToRead);
+        }
+        
+        String nextCursor = null;
+        if (rows.size() > limit) {
+            rows = rows.subList(0, limit);
+            WorkflowSummary last = rows.get(limit - 1);
+            nextCursor = CursorToken.encode(last.updatedAt().toString(), last.id());
+        }
+        
+        Long approximateTotal = includeTotal
+                ? jdbcTemplate.execute((ConnectionCallback<Long>) c -> PlannerEstimates.estimateRows(c, OWNER_WORKFLOWS, ownerId, namePattern))
+                : null;
+        return new CursorPage<>(rows, nextCursor, approximateTotal);
+    }
+    
+    /**
+     * Case-insensitive "contains" LIKE pattern, with LIKE wildcards in the search escaped
      */
-    public Page<Workflow> searchWorkflowsByOwner(String ownerId, String search, Pageable pageable) {
-        return workflowRepository.findByOwnerIdAndNameContainingIgnoreCase(ownerId, search, pageable);
+    private String toNamePattern(String search) {
+        if (search == null || search.trim().isEmpty()) {
+            return "%";
+        }
+        String escaped = search.trim().toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+    
+    private LocalDateTime toCursorTime(String value) {
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
     }
     
     /**
@@ -140,7 +226,9 @@ public class WorkflowService {
         
         workflow.setUpdatedAt(LocalDateTime.now());
         
-        return workflowRepository.save(workflow);
+        Workflow saved = workflowRepository.save(workflow);
+        eventPublisher.publishEvent(new WorkflowChangedEvent(id));
+        return saved;
     }
     
     /**
@@ -156,6 +244,7 @@ public class WorkflowService {
         }
         
         workflowRepository.delete(workflow);
+        eventPublisher.publishEvent(new WorkflowChangedEvent(id));
     }
     
     /**
@@ -164,7 +253,7 @@ public class WorkflowService {
     public WorkflowDefinition toWorkflowDefinition(Workflow workflow) {
         try {
             if (workflow.getWorkflowDefinition() != null && !workflow.getWorkflowDefinition().isEmpty()) {
-                return objectMapper.readValue(workflow.getWorkflowDefinition(), WorkflowDefinition.class);
+                return workflowDefinitionReader.readValue(workflow.getWorkflowDefinition());
             }
             // Return empty workflow definition if not stored
             WorkflowDefinition def = new WorkflowDefinition();
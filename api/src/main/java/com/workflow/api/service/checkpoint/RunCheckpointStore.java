@@ -0,0 +1,238 @@
+package com.workflow.api.service.checkpoint;
+
+import com.workflow.api.dto.NodeRunResult;
+import com.workflow.api.service.RunListener;
+import com.workflow.api.service.history.OutputCodec;
+import com.workflow.api.service.plan.ExecutionPlan;
+import com.workflow.api.service.runners.NodeRunnerMetadata.ExecutionClass;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Per-node checkpoints of queued runs in {@code run_checkpoints}, used to resume a run
+ * without repeating nodes that already succeeded.
+ *
+ * <p>Only successful results are checkpointed, with outputs in the compact
+ * {@link OutputCodec} encoding. In the default {@code side-effects} mode only nodes
+ * that call out of the process (blocking-IO and non-blocking runners such as
+ * HTTP_REQUEST) are checkpointed; pure nodes are cheap and deterministic, so a resumed
+ * run simply re-evaluates them. Mode {@code all} checkpoints every node.
+ *
+ * <p>Writes are group-committed by a single writer thread so node completion never
+ * waits on the database. {@link #flush()} lets a caller wait until everything queued
+ * so far is durable. Checkpoints are removed together with their run from the run
+ * queue, so they cost no extra delete per run.
+ */
+@Slf4j
+@Component
+public class RunCheckpointStore {
+
+    private static final String INSERT =
+        "INSERT INTO run_checkpoints (run_id, node_id, sequence, outputs, finished_at) VALUES (?, ?, ?, ?, ?)";
+
+    private static final String SELECT =
+        "SELECT node_id, outputs, finished_at FROM run_checkpoints WHERE run_id = ? ORDER BY sequence";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final OutputCodec outputCodec;
+    private final BlockingQueue<Object> queue;
+    private final boolean checkpointAll;
+    private final int batchSize;
+
+    private final Counter writtenCounter;
+    private final Counter droppedCounter;
+
+    private volatile boolean running;
+    private Thread writerThread;
+
+    public RunCheckpointStore(JdbcTemplate jdbcTemplate,
+                              OutputCodec outputCodec,
+                              MeterRegistry meterRegistry,
+                              @Value("${workflow.checkpoint.mode:side-effects}") String mode,
+                              @Value("${workflow.checkpoint.queue-capacity:10000}") int queueCapacity,
+                              @Value("${workflow.checkpoint.batch-size:200}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.outputCodec = outputCodec;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.checkpointAll = "all".equalsIgnoreCase(mode);
+        this.batchSize = Math.max(1, batchSize);
+
+        this.writtenCounter = meterRegistry.counter("workflow.checkpoint.written");
+        this.droppedCounter = meterRegistry.counter("workflow.checkpoint.dropped");
+        meterRegistry.gauge("workflow.checkpoint.queue.size", queue, BlockingQueue::size);
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        writerThread = new Thread(this::writeLoop, "wf-checkpoint-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        writerThread.interrupt();
+        writerThread.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    /**
+     * Listener that checkpoints the nodes of one run as they finish. Nodes restored
+     * from earlier checkpoints are not reported to listeners, so sequence numbers
+     * continue after them.
+     */
+    public RunListener listener(String runId, ExecutionPlan plan, int restoredCount) {
+        AtomicInteger sequence = new AtomicInteger(restoredCount);
+        return new RunListener() {
+            @Override
+            public void onNodeFinished(NodeRunResult result) {
+                if ("success".equals(result.getStatus()) && shouldCheckpoint(plan, result.getNodeId())) {
+                    offer(new Checkpoint(runId, result, sequence.getAndIncrement()));
+                }
+            }
+        };
+    }
+
+    /**
+     * Checkpointed results of a run, in the order they finished. A node can appear
+     * twice if two workers briefly ran the same run; the first result wins on restore.
+     */
+    public List<NodeRunResult> load(String runId) {
+        return jdbcTemplate.query(SELECT, (rs, rowNum) -> new NodeRunResult(
+            rs.getString("node_id"),
+            outputCodec.decode(rs.getBytes("outputs")),
+            "success",
+            null,
+            rs.getTimestamp("finished_at").toInstant().toString()
+        ), runId);
+    }
+
+    /**
+     * Completes once every checkpoint queued before the call has been written (or
+     * failed to be written).
+     */
+    public CompletableFuture<Void> flush() {
+        CompletableFuture<Void> barrier = new CompletableFuture<>();
+        if (!queue.offer(barrier)) {
+            // Queue is full; the writer is behind anyway, don't hold the caller up
+            barrier.complete(null);
+        }
+        return barrier;
+    }
+
+    private boolean shouldCheckpoint(ExecutionPlan plan, String nodeId) {
+        if (checkpointAll) {
+            return true;
+        }
+        int index = plan.indexOf(nodeId);
+        if (index < 0) {
+            return false;
+        }
+        ExecutionClass executionClass = plan.getRunner(index).getMetadata().getExecutionClass();
+        return executionClass == ExecutionClass.BLOCKING_IO || executionClass == ExecutionClass.NON_BLOCKING;
+    }
+
+    /**
+     * Never waits: listeners are called while the run's scheduler holds its lock, so a
+     * backed-up writer must not stall the run.
+     */
+    private void offer(Checkpoint checkpoint) {
+        if (queue.offer(checkpoint)) {
+            return;
+        }
+        // A resumed run will re-execute this node
+        droppedCounter.increment();
+        log.warn("Checkpoint queue is full, dropping checkpoint of node {} in run {}",
+            checkpoint.result().getNodeId(), checkpoint.runId());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void writeLoop() {
+        List<Object> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Object first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                // Shutting down; the loop drains what is left
+                running = false;
+            } catch (RuntimeException e) {
+                log.error("Failed to write {} run checkpoints", batch.size(), e);
+            } finally {
+                for (Object entry : batch) {
+                    if (entry instanceof CompletableFuture<?> barrier) {
+                        ((CompletableFuture<Void>) barrier).complete(null);
+                    }
+                }
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<Object> batch) {
+        List<Object[]> rows = new ArrayList<>(batch.size());
+        for (Object entry : batch) {
+            if (entry instanceof Checkpoint checkpoint) {
+                NodeRunResult result = checkpoint.result();
+                byte[] outputs = encodeOutputs(checkpoint);
+                if (outputs == null || OutputCodec.isTruncated(outputs)) {
+                    // Without real outputs a resumed run has to execute the node again
+                    continue;
+                }
+                rows.add(new Object[] {
+                    checkpoint.runId(),
+                    result.getNodeId(),
+                    checkpoint.sequence(),
+                    outputs,
+                    Timestamp.from(Instant.now())
+                });
+            }
+        }
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT, rows);
+            writtenCounter.increment(rows.size());
+        }
+    }
+
+    /**
+     * Returns null for outputs that cannot be encoded, so one bad node does not cost the
+     * rest of the batch its checkpoints.
+     */
+    private byte[] encodeOutputs(Checkpoint checkpoint) {
+        NodeRunResult result = checkpoint.result();
+        try {
+            return outputCodec.encode(result.getOutputs() != null ? result.getOutputs() : Map.of());
+        } catch (RuntimeException e) {
+            droppedCounter.increment();
+            log.warn("Outputs of node {} in run {} are not serializable, not checkpointing it",
+                result.getNodeId(), checkpoint.runId(), e);
+            return null;
+        }
+    }
+
+    private record Checkpoint(String runId, NodeRunResult result, int sequence) {
+    }
+}
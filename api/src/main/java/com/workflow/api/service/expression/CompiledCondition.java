@@ -0,0 +1,78 @@
+package com.workflow.api.service.expression;
+
+import org.mozilla.javascript.ScriptRuntime;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A condition expression compiled to a tree of Java nodes that evaluate directly
+ * against the {@code $json} output map. Instances are immutable and shared between
+ * runs. Evaluation follows JavaScript semantics; where that would need an object
+ * conversion or would throw, it raises {@link UnsupportedExpressionException} so the
+ * caller can defer to the script engine instead.
+ */
+public final class CompiledCondition {
+
+    private final String source;
+    private final Node root;
+
+    CompiledCondition(String source, Node root) {
+        this.source = source;
+        this.root = root;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * Evaluates the expression and converts the result with JavaScript truthiness.
+     */
+    public boolean test(Map<String, Object> json) {
+        return Values.truthy(root.eval(json));
+    }
+
+    interface Node {
+        Object eval(Map<String, Object> json);
+    }
+
+    /**
+     * Value helpers. Numbers are always doubles, undefined is Rhino's
+     * {@code Undefined.instance}, and maps and lists act as JavaScript objects and arrays.
+     */
+    static final class Values {
+
+        private Values() {
+        }
+
+        static Object normalize(Object value) {
+            if (value == null || value instanceof String || value instanceof Boolean
+                    || value instanceof Double || value instanceof Map || value instanceof List) {
+                return value;
+            }
+            if (value instanceof Number number) {
+                return number.doubleValue();
+            }
+            if (value instanceof Character) {
+                return value.toString();
+            }
+            throw new UnsupportedExpressionException("Unsupported value type " + value.getClass().getName());
+        }
+
+        static boolean isObject(Object value) {
+            return value instanceof Map || value instanceof List;
+        }
+
+        static boolean truthy(Object value) {
+            return isObject(value) || ScriptRuntime.toBoolean(value);
+        }
+
+        static double toNumber(Object value) {
+            if (isObject(value)) {
+                throw new UnsupportedExpressionException("Object to number conversion");
+            }
+            return ScriptRuntime.toNumber(value);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.workflow.api.service.expression;
+
+import com.workflow.api.util.LruCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Compiles condition expressions for native evaluation and caches the outcome,
+ * including expressions that are outside the supported subset so they are not
+ * re-parsed on every run.
+ */
+@Slf4j
+@Component
+public class ConditionExpressionCompiler {
+
+    private final LruCache<String, Optional<CompiledCondition>> compiled;
+
+    public ConditionExpressionCompiler(@Value("${workflow.expression.cache-size:1000}") int cacheSize) {
+        this.compiled = new LruCache<>(cacheSize);
+    }
+
+    /**
+     * Returns the compiled form of the raw node expression, or empty when it needs the
+     * script engine. Cleaning happens only on a cache miss.
+     */
+    public Optional<CompiledCondition> compile(String expression) {
+        return compiled.computeIfAbsent(expression, this::tryParse);
+    }
+
+    private Optional<CompiledCondition> tryParse(String expression) {
+        try {
+            return Optional.of(ConditionExpressionParser.parse(cleanExpression(expression)));
+        } catch (UnsupportedExpressionException e) {
+            log.debug("Condition will be evaluated by the script engine: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Cleans the expression by removing n8n-style {{ }} wrappers if present.
+     * Also replaces $json with json since $ at the start of identifiers can cause parsing issues in some JS engines.
+     */
+    public static String cleanExpression(String expression) {
+        if (expression == null) return "";
+        String trimmed = expression.trim();
+
+        // Remove all occurrences of {{ and }} (not just at start/end)
+        // This handles cases like: {{ $json.response.status }} == 200
+        trimmed = trimmed.replace("{{", "").replace("}}", "").trim();
+
+        // Replace $json with json (Rhino has issues with $ at start of identifier)
+        trimmed = trimmed.replace("$json", "json");
+
+        return trimmed;
+    }
+}
@@ -0,0 +1,369 @@
+package com.workflow.api.service.expression;
+
+import com.workflow.api.service.expression.CompiledCondition.Node;
+import com.workflow.api.service.expression.CompiledCondition.Values;
+import org.mozilla.javascript.ScriptRuntime;
+import org.mozilla.javascript.Token;
+import org.mozilla.javascript.Undefined;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Recursive-descent parser for the subset of JavaScript that conditions are usually
+ * written in:
+ * <pre>
+ * or         := and ( '||' and )*
+ * and        := equality ( '&amp;&amp;' equality )*
+ * equality   := relational ( ( '==' | '!=' | '===' | '!==' ) relational )*
+ * relational := unary ( ( '&lt;' | '&lt;=' | '&gt;' | '&gt;=' ) unary )*
+ * unary      := ( '!' | '-' ) unary | primary
+ * primary    := number | string | true | false | null | undefined | '(' or ')' | path
+ * path       := ( 'json' | '$json' ) ( '.' name | '[' ( string | number ) ']' )*
+ * </pre>
+ * Anything else, such as function calls or other variables, raises
+ * {@link UnsupportedExpressionException}.
+ */
+final class ConditionExpressionParser {
+
+    private final String source;
+    private final List<String> tokens;
+    private int position;
+
+    private ConditionExpressionParser(String source) {
+        this.source = source;
+        this.tokens = tokenize(source);
+    }
+
+    static CompiledCondition parse(String source) {
+        ConditionExpressionParser parser = new ConditionExpressionParser(source);
+        Node root = parser.parseOr();
+        if (parser.position != parser.tokens.size()) {
+            throw parser.unsupported("unexpected token '" + parser.peek() + "'");
+        }
+        return new CompiledCondition(source, root);
+    }
+
+    private Node parseOr() {
+        Node left = parseAnd();
+        while (accept("||")) {
+            Node l = left;
+            Node r = parseAnd();
+            left = json -> {
+                Object value = l.eval(json);
+                return Values.truthy(value) ? value : r.eval(json);
+            };
+        }
+        return left;
+    }
+
+    private Node parseAnd() {
+        Node left = parseEquality();
+        while (accept("&&")) {
+            Node l = left;
+            Node r = parseEquality();
+            left = json -> {
+                Object value = l.eval(json);
+                return Values.truthy(value) ? r.eval(json) : value;
+            };
+        }
+        return left;
+    }
+
+    private Node parseEquality() {
+        Node left = parseRelational();
+        while (true) {
+            String operator = peek();
+            if (!"==".equals(operator) && !"!=".equals(operator)
+                    && !"===".equals(operator) && !"!==".equals(operator)) {
+                return left;
+            }
+            position++;
+            Node l = left;
+            Node r = parseRelational();
+            boolean strict = operator.length() == 3;
+            boolean negate = operator.startsWith("!");
+            left = json -> negate != equal(l.eval(json), r.eval(json), strict);
+        }
+    }
+
+    private Node parseRelational() {
+        Node left = parseUnary();
+        while (true) {
+            int op = switch (String.valueOf(peek())) {
+                case "<" -> Token.LT;
+                case "<=" -> Token.LE;
+                case ">" -> Token.GT;
+                case ">=" -> Token.GE;
+                default -> -1;
+            };
+            if (op < 0) {
+                return left;
+            }
+            position++;
+            Node l = left;
+            Node r = parseUnary();
+            left = json -> {
+                Object a = l.eval(json);
+                Object b = r.eval(json);
+                if (Values.isObject(a) || Values.isObject(b)) {
+                    throw new UnsupportedExpressionException("Relational comparison of objects");
+                }
+                return ScriptRuntime.compare(a, b, op);
+            };
+        }
+    }
+
+    private Node parseUnary() {
+        if (accept("!")) {
+            Node operand = parseUnary();
+            return json -> !Values.truthy(operand.eval(json));
+        }
+        if (accept("-")) {
+            Node operand = parseUnary();
+            return json -> -Values.toNumber(operand.eval(json));
+        }
+        return parsePrimary();
+    }
+
+    private Node parsePrimary() {
+        String token = next();
+        if (token == null) {
+            throw unsupported("unexpected end of expression");
+        }
+        if ("(".equals(token)) {
+            Node inner = parseOr();
+            expect(")");
+            return inner;
+        }
+        if (isNumber(token)) {
+            Double value = Double.valueOf(token);
+            return json -> value;
+        }
+        if (isString(token)) {
+            String value = unquote(token);
+            return json -> value;
+        }
+        switch (token) {
+            case "true":
+                return json -> Boolean.TRUE;
+            case "false":
+                return json -> Boolean.FALSE;
+            case "null":
+                return json -> null;
+            case "undefined":
+                return json -> Undefined.instance;
+            case "json":
+            case "$json":
+                return parsePath();
+            default:
+                throw unsupported("unsupported identifier '" + token + "'");
+        }
+    }
+
+    private Node parsePath() {
+        List<String> names = new ArrayList<>();
+        while (true) {
+            if (accept(".")) {
+                String name = next();
+                if (name == null || !isIdentifier(name)) {
+                    throw unsupported("expected a property name");
+                }
+                names.add(name);
+            } else if (accept("[")) {
+                String key = next();
+                if (key == null || !(isString(key) || isNumber(key))) {
+                    throw unsupported("only literal property keys are supported");
+                }
+                names.add(isString(key) ? unquote(key) : ScriptRuntime.toString(Double.parseDouble(key)));
+                expect("]");
+            } else {
+                break;
+            }
+        }
+        String[] path = names.toArray(new String[0]);
+        return json -> resolve(json, path);
+    }
+
+    private static Object resolve(Map<String, Object> json, String[] path) {
+        Object current = json;
+        for (String name : path) {
+            current = property(current, name);
+        }
+        return current;
+    }
+
+    private static Object property(Object target, String name) {
+        if (target instanceof Map<?, ?> map) {
+            return map.containsKey(name) ? Values.normalize(map.get(name)) : Undefined.instance;
+        }
+        if (target instanceof List<?> list) {
+            if ("length".equals(name)) {
+                return (double) list.size();
+            }
+            int index = arrayIndex(name);
+            if (index < 0) {
+                throw new UnsupportedExpressionException("Array property '" + name + "'");
+            }
+            return index < list.size() ? Values.normalize(list.get(index)) : Undefined.instance;
+        }
+        if (target instanceof String text) {
+            if ("length".equals(name)) {
+                return (double) text.length();
+            }
+            int index = arrayIndex(name);
+            if (index < 0) {
+                throw new UnsupportedExpressionException("String property '" + name + "'");
+            }
+            return index < text.length() ? String.valueOf(text.charAt(index)) : Undefined.instance;
+        }
+        // Property access on null/undefined is a TypeError, and primitives have
+        // prototype members; let the script engine report or resolve those
+        throw new UnsupportedExpressionException("Property '" + name + "' of " + target);
+    }
+
+    private static boolean equal(Object a, Object b, boolean strict) {
+        if (Values.isObject(a) || Values.isObject(b)) {
+            if (Values.isObject(a) && Values.isObject(b)) {
+                return a == b;
+            }
+            if (strict) {
+                return false;
+            }
+            throw new UnsupportedExpressionException("Loose comparison of object and primitive");
+        }
+        return strict ? ScriptRuntime.shallowEq(a, b) : ScriptRuntime.eq(a, b);
+    }
+
+    private static int arrayIndex(String name) {
+        if (name.isEmpty() || name.length() > 9) {
+            return -1;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            if (!Character.isDigit(name.charAt(i))) {
+                return -1;
+            }
+        }
+        if (name.length() > 1 && name.charAt(0) == '0') {
+            return -1;
+        }
+        return Integer.parseInt(name);
+    }
+
+    private static List<String> tokenize(String source) {
+        List<String> tokens = new ArrayList<>();
+        int i = 0;
+        int length = source.length();
+        while (i < length) {
+            char c = source.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (Character.isDigit(c) || (c == '.' && i + 1 < length && Character.isDigit(source.charAt(i + 1)))) {
+                int start = i;
+                while (i < length && (Character.isDigit(source.charAt(i)) || source.charAt(i) == '.')) {
+                    i++;
+                }
+                if (i < length && (source.charAt(i) == 'e' || source.charAt(i) == 'E')) {
+                    i++;
+                    if (i < length && (source.charAt(i) == '+' || source.charAt(i) == '-')) {
+                        i++;
+                    }
+                    while (i < length && Character.isDigit(source.charAt(i))) {
+                        i++;
+                    }
+                }
+                tokens.add(source.substring(start, i));
+            } else if (c == '\'' || c == '"') {
+                int start = i++;
+                while (i < length && source.charAt(i) != c) {
+                    if (source.charAt(i) == '\\' || source.charAt(i) == '\n') {
+                        throw new UnsupportedExpressionException("Escapes in string literals");
+                    }
+                    i++;
+                }
+                if (i >= length) {
+                    throw new UnsupportedExpressionException("Unterminated string literal");
+                }
+                tokens.add(source.substring(start, ++i));
+            } else if (Character.isJavaIdentifierStart(c)) {
+                int start = i;
+                while (i < length && Character.isJavaIdentifierPart(source.charAt(i))) {
+                    i++;
+                }
+                tokens.add(source.substring(start, i));
+            } else {
+                String operator = operatorAt(source, i);
+                if (operator == null) {
+                    throw new UnsupportedExpressionException("Unsupported character '" + c + "'");
+                }
+                tokens.add(operator);
+                i += operator.length();
+            }
+        }
+        return tokens;
+    }
+
+    private static String operatorAt(String source, int i) {
+        for (String operator : new String[] {"===", "!==", "==", "!=", "<=", ">=", "&&", "||",
+                "<", ">", "!", "-", "(", ")", "[", "]", "."}) {
+            if (source.startsWith(operator, i)) {
+                return operator;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isNumber(String token) {
+        char c = token.charAt(0);
+        if (!Character.isDigit(c) && c != '.') {
+            return false;
+        }
+        try {
+            Double.parseDouble(token);
+        } catch (NumberFormatException e) {
+            throw new UnsupportedExpressionException("Malformed number '" + token + "'");
+        }
+        // Leading zeros mean octal in sloppy-mode JavaScript
+        return !(token.length() > 1 && c == '0' && Character.isDigit(token.charAt(1)));
+    }
+
+    private static boolean isString(String token) {
+        char c = token.charAt(0);
+        return c == '\'' || c == '"';
+    }
+
+    private static boolean isIdentifier(String token) {
+        return Character.isJavaIdentifierStart(token.charAt(0));
+    }
+
+    private static String unquote(String token) {
+        return token.substring(1, token.length() - 1);
+    }
+
+    private String peek() {
+        return position < tokens.size() ? tokens.get(position) : null;
+    }
+
+    private String next() {
+        return position < tokens.size() ? tokens.get(position++) : null;
+    }
+
+    private boolean accept(String token) {
+        if (token.equals(peek())) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(String token) {
+        if (!accept(token)) {
+            throw unsupported("expected '" + token + "'");
+        }
+    }
+
+    private UnsupportedExpressionException unsupported(String reason) {
+        return new UnsupportedExpressionException("Cannot compile '" + source + "': " + reason);
+    }
+}
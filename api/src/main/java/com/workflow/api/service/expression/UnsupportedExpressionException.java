@@ -0,0 +1,12 @@
+package com.workflow.api.service.expression;
+
+/**
+ * Signals that an expression, or one evaluation of it, is outside what the native
+ * evaluator handles. Callers fall back to the script engine.
+ */
+public class UnsupportedExpressionException extends RuntimeException {
+
+    public UnsupportedExpressionException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,141 @@
+package com.workflow.api.service.history;
+
+import com.workflow.api.config.HistoryRetentionProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+/**
+ * Keeps the execution history within its retention windows. Every row carries an
+ * {@code expires_at} computed from its client's retention when it is written, so
+ * expiry does not depend on which client a row belongs to.
+ *
+ * <p>On Postgres both history tables are range-partitioned by day on {@code expires_at}.
+ * The job creates partitions ahead of the longest retention window and drops every
+ * partition whose day has passed, which removes expired rows without touching them
+ * one by one. On other databases (H2 in the dev profile) it falls back to deleting
+ * expired rows in bounded batches.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ExecutionHistoryRetention {
+
+    private static final String[] TABLES = {"node_executions", "executions"};
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private static final String CHILD_PARTITIONS =
+        "SELECT c.relname FROM pg_inherits i "
+            + "JOIN pg_class c ON c.oid = i.inhrelid "
+            + "JOIN pg_class p ON p.oid = i.inhparent "
+            + "WHERE p.relname = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final HistoryRetentionProperties retention;
+
+    private Boolean partitioned;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        maintain();
+    }
+
+    @Scheduled(cron = "${workflow.history.retention.cron:0 15 0 * * *}")
+    public synchronized void maintain() {
+        try {
+            if (isPartitioned()) {
+                LocalDate today = LocalDate.now();
+                for (String table : TABLES) {
+                    createPartitions(table, today);
+                    dropExpiredPartitions(table, today);
+                }
+            } else {
+                deleteExpiredRows();
+            }
+        } catch (RuntimeException e) {
+            log.error("Execution history retention run failed", e);
+        }
+    }
+
+    private boolean isPartitioned() {
+        if (partitioned == null) {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+            partitioned = "PostgreSQL".equalsIgnoreCase(product);
+        }
+        return partitioned;
+    }
+
+    private void createPartitions(String table, LocalDate today) {
+        long horizon = retention.longestRetention().toDays() + 1 + retention.getPrecreateDays();
+        for (long i = 0; i <= horizon; i++) {
+            LocalDate day = today.plusDays(i);
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partitionName(table, day)
+                + " PARTITION OF " + table
+                + " FOR VALUES FROM ('" + day + "') TO ('" + day.plusDays(1) + "')");
+        }
+    }
+
+    private void dropExpiredPartitions(String table, LocalDate today) {
+        List<String> partitions = jdbcTemplate.queryForList(CHILD_PARTITIONS, String.class, table);
+        String prefix = table + "_p";
+        int dropped = 0;
+        for (String partition : partitions) {
+            if (!partition.startsWith(prefix)) {
+                continue;
+            }
+            LocalDate day;
+            try {
+                day = LocalDate.parse(partition.substring(prefix.length()), PARTITION_SUFFIX);
+            } catch (DateTimeParseException e) {
+                continue;
+            }
+            // Holds rows expiring on that day, all of which have expired once it is over
+            if (day.isBefore(today)) {
+                jdbcTemplate.execute("DROP TABLE IF EXISTS " + partition);
+                dropped++;
+            }
+        }
+
+        // Anything that missed its partition ends up in the default one
+        int stray = jdbcTemplate.update("DELETE FROM " + table + "_default WHERE expires_at < ?",
+            Timestamp.valueOf(today.atStartOfDay()));
+        if (dropped > 0 || stray > 0) {
+            log.info("Dropped {} expired partitions of {} ({} rows removed from its default partition)",
+                dropped, table, stray);
+        }
+    }
+
+    private void deleteExpiredRows() {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (String table : TABLES) {
+            long total = 0;
+            int deleted;
+            do {
+                deleted = jdbcTemplate.update("DELETE FROM " + table
+                    + " WHERE expires_at < ? FETCH FIRST " + retention.getDeleteBatchSize() + " ROWS ONLY", now);
+                total += deleted;
+            } while (deleted > 0);
+            if (total > 0) {
+                log.info("Deleted {} expired rows from {}", total, table);
+            }
+        }
+    }
+
+    private static String partitionName(String table, LocalDate day) {
+        return table + "_p" + PARTITION_SUFFIX.format(day);
+    }
+}
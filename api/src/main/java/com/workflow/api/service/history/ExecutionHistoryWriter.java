@@ -0,0 +1,271 @@
+package com.workflow.api.service.history;
+
+import com.workflow.api.config.HistoryRetentionProperties;
+import com.workflow.api.dto.NodeRunResult;
+import com.workflow.api.dto.WorkflowNode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Persists finished runs to {@code executions} and {@code node_executions} off the
+ * execution path. Runs are handed over through a bounded queue; a single writer thread
+ * drains it and inserts whole batches with JDBC batching in one transaction.
+ *
+ * <p>When the queue is full, {@link #record} waits up to the configured offer timeout
+ * (backpressure) and then drops the run. Both are counted in
+ * {@code workflow.history.backpressure} and {@code workflow.history.dropped}.
+ */
+@Slf4j
+@Component
+public class ExecutionHistoryWriter {
+
+    private static final String INSERT_EXECUTION =
+        "INSERT INTO executions (id, workflow_id, client_id, requested_by, status, node_count, "
+            + "started_at, finished_at, duration_ms, error_message, expires_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_NODE_EXECUTION =
+        "INSERT INTO node_executions (execution_id, node_id, node_type, sequence, status, error_message, "
+            + "outputs, finished_at, expires_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String DELETE_NODE_EXECUTIONS = "DELETE FROM node_executions WHERE execution_id = ?";
+
+    private static final String DELETE_EXECUTION = "DELETE FROM executions WHERE id = ?";
+
+    private static final long DROP_WARNING_INTERVAL_MS = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final OutputCodec outputCodec;
+    private final HistoryRetentionProperties retention;
+    private final BlockingQueue<ExecutionRecord> queue;
+    private final int batchSize;
+    private final long offerTimeoutMs;
+
+    private final Counter writtenCounter;
+    private final Counter droppedCounter;
+    private final Counter backpressureCounter;
+    private final Counter failedCounter;
+    private final AtomicLong lastDropWarning = new AtomicLong();
+
+    private volatile boolean running;
+    private Thread writerThread;
+
+    public ExecutionHistoryWriter(JdbcTemplate jdbcTemplate,
+                                  TransactionTemplate transactionTemplate,
+                                  OutputCodec outputCodec,
+                                  HistoryRetentionProperties retention,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${workflow.history.queue-capacity:10000}") int queueCapacity,
+                                  @Value("${workflow.history.batch-size:200}") int batchSize,
+                                  @Value("${workflow.history.offer-timeout-ms:0}") long offerTimeoutMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.outputCodec = outputCodec;
+        this.retention = retention;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = Math.max(1, batchSize);
+        this.offerTimeoutMs = offerTimeoutMs;
+
+        this.writtenCounter = meterRegistry.counter("workflow.history.written");
+        this.droppedCounter = meterRegistry.counter("workflow.history.dropped");
+        this.backpressureCounter = meterRegistry.counter("workflow.history.backpressure");
+        this.failedCounter = meterRegistry.counter("workflow.history.failed");
+        meterRegistry.gauge("workflow.history.queue.size", queue, BlockingQueue::size);
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        writerThread = new Thread(this::writeLoop, "wf-history-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        writerThread.interrupt();
+        writerThread.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    /**
+     * Queues a finished run for persistence. With the default offer timeout of zero a
+     * full queue drops the run at once (counted in {@code workflow.history.dropped}), so
+     * completing a run never waits on the history.
+     */
+    public void record(ExecutionRecord record) {
+        if (queue.offer(record)) {
+            return;
+        }
+        backpressureCounter.increment();
+        try {
+            if (offerTimeoutMs > 0 && queue.offer(record, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        droppedCounter.increment();
+
+        long now = System.currentTimeMillis();
+        long last = lastDropWarning.get();
+        if (now - last >= DROP_WARNING_INTERVAL_MS && lastDropWarning.compareAndSet(last, now)) {
+            log.warn("Execution history queue is full, dropping runs ({} dropped so far)",
+                (long) droppedCounter.count());
+        }
+    }
+
+    private void writeLoop() {
+        List<ExecutionRecord> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                ExecutionRecord first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                // Shutting down; the loop drains what is left
+                running = false;
+            } catch (RuntimeException e) {
+                failedCounter.increment(batch.size());
+                log.error("Failed to write {} runs to the execution history", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Writes a batch in one transaction. A run that executes again under the same id
+     * (resumed, or re-claimed after its lease lapsed) replaces the rows of its earlier
+     * attempt, so history keeps one row per run. If the batch still fails, its runs are
+     * written one by one so a single bad run cannot cost the others their history.
+     */
+    private void write(List<ExecutionRecord> batch) {
+        // Latest attempt wins if both attempts of a run are in the same batch
+        Map<String, ExecutionRecord> byRunId = new LinkedHashMap<>();
+        for (ExecutionRecord record : batch) {
+            byRunId.put(record.runId(), record);
+        }
+        List<ExecutionRecord> records = new ArrayList<>(byRunId.values());
+        try {
+            insert(records);
+            writtenCounter.increment(records.size());
+        } catch (RuntimeException e) {
+            if (records.size() == 1) {
+                throw e;
+            }
+            log.warn("Failed to write {} runs to the execution history as a batch, writing them one by one",
+                records.size(), e);
+            for (ExecutionRecord record : records) {
+                try {
+                    insert(List.of(record));
+                    writtenCounter.increment();
+                } catch (RuntimeException single) {
+                    failedCounter.increment();
+                    log.error("Failed to write run {} to the execution history", record.runId(), single);
+                }
+            }
+        }
+    }
+
+    private void insert(List<ExecutionRecord> records) {
+        List<Object[]> runIds = new ArrayList<>(records.size());
+        List<Object[]> executionRows = new ArrayList<>(records.size());
+        List<Object[]> nodeRows = new ArrayList<>();
+        for (ExecutionRecord record : records) {
+            runIds.add(new Object[] {record.runId()});
+            // Expiry is fixed at write time so retention only has to look at expires_at
+            Timestamp expiresAt = Timestamp.from(
+                record.startedAt().plus(retention.retentionFor(record.plan().getClientId())));
+            executionRows.add(executionRow(record, expiresAt));
+            List<NodeRunResult> results = record.nodeResults();
+            for (int i = 0; i < results.size(); i++) {
+                nodeRows.add(nodeRow(record, results.get(i), i, expiresAt));
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(DELETE_NODE_EXECUTIONS, runIds);
+            jdbcTemplate.batchUpdate(DELETE_EXECUTION, runIds);
+            jdbcTemplate.batchUpdate(INSERT_EXECUTION, executionRows);
+            if (!nodeRows.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_NODE_EXECUTION, nodeRows);
+            }
+        });
+    }
+
+    private Object[] executionRow(ExecutionRecord record, Timestamp expiresAt) {
+        return new Object[] {
+            record.runId(),
+            record.plan().getWorkflowId(),
+            record.plan().getClientId(),
+            record.requestedBy(),
+            record.status(),
+            record.plan().size(),
+            Timestamp.from(record.startedAt()),
+            Timestamp.from(record.finishedAt()),
+            record.finishedAt().toEpochMilli() - record.startedAt().toEpochMilli(),
+            record.errorMessage(),
+            expiresAt
+        };
+    }
+
+    private Object[] nodeRow(ExecutionRecord record, NodeRunResult result, int sequence, Timestamp expiresAt) {
+        int index = record.plan().indexOf(result.getNodeId());
+        WorkflowNode node = index >= 0 ? record.plan().getNode(index) : null;
+        return new Object[] {
+            record.runId(),
+            result.getNodeId(),
+            node != null ? node.getType() : null,
+            sequence,
+            result.getStatus(),
+            result.getError(),
+            encodeOutputs(result),
+            Timestamp.from(finishedAt(result, record)),
+            expiresAt
+        };
+    }
+
+    private byte[] encodeOutputs(NodeRunResult result) {
+        if (result.getOutputs() == null) {
+            return null;
+        }
+        try {
+            return outputCodec.encode(result.getOutputs());
+        } catch (RuntimeException e) {
+            log.debug("Outputs of node {} are not serializable, storing none", result.getNodeId(), e);
+            return null;
+        }
+    }
+
+    private static Instant finishedAt(NodeRunResult result, ExecutionRecord record) {
+        try {
+            return result.getTimestamp() != null ? Instant.parse(result.getTimestamp()) : record.finishedAt();
+        } catch (DateTimeParseException e) {
+            return record.finishedAt();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.workflow.api.service.history;
+
+import com.workflow.api.dto.ExecutionResult;
+import com.workflow.api.dto.NodeRunResult;
+import com.workflow.api.service.plan.ExecutionPlan;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Everything the history writer needs about a finished run. Built on the thread that
+ * completes the run, so it only captures references; conversion to rows happens on
+ * the writer thread.
+ */
+public record ExecutionRecord(
+    String runId,
+    ExecutionPlan plan,
+    String requestedBy,
+    String status,
+    Instant startedAt,
+    Instant finishedAt,
+    String errorMessage,
+    List<NodeRunResult> nodeResults
+) {
+
+    public static final String SUCCEEDED = "SUCCEEDED";
+    public static final String FAILED = "FAILED";
+
+    public static ExecutionRecord of(String runId, ExecutionPlan plan, String requestedBy, Instant startedAt,
+                                     ExecutionResult result, Throwable error) {
+        Instant finishedAt = Instant.now();
+        if (error != null) {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null
+                ? error.getCause()
+                : error;
+            return new ExecutionRecord(runId, plan, requestedBy, FAILED, startedAt, finishedAt,
+                cause.getMessage(), Collections.emptyList());
+        }
+        boolean anyFailed = result.getResults().stream()
+            .anyMatch(r -> "failed".equals(r.getStatus()));
+        return new ExecutionRecord(runId, plan, requestedBy, anyFailed ? FAILED : SUCCEEDED, startedAt,
+            finishedAt, null, result.getResults());
+    }
+}
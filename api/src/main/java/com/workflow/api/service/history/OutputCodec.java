@@ -0,0 +1,149 @@
+package com.workflow.api.service.history;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Binary encoding of node outputs for {@code node_executions.outputs}. Layout:
+ * <pre>
+ *   byte 0   encoding version ({@link #VERSION_SMILE})
+ *   byte 1   flags ({@link #FLAG_DEFLATED}, {@link #FLAG_TRUNCATED})
+ *   byte 2.. Smile document, deflated when {@link #FLAG_DEFLATED} is set
+ * </pre>
+ * Small documents are stored uncompressed since deflate would only add overhead.
+ * Outputs whose encoded form exceeds the size limit are replaced with a stub holding
+ * the top-level keys and the original size, and flagged as truncated.
+ */
+@Component
+public class OutputCodec {
+
+    public static final byte VERSION_SMILE = 1;
+
+    public static final byte FLAG_DEFLATED = 1;
+    public static final byte FLAG_TRUNCATED = 1 << 1;
+
+    private static final int HEADER_SIZE = 2;
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {};
+
+    private final ObjectMapper smileMapper;
+    private final int compressThreshold;
+    private final int maxStoredBytes;
+
+    public OutputCodec(ObjectMapper objectMapper,
+                       @Value("${workflow.history.outputs.compress-threshold-bytes:512}") int compressThreshold,
+                       @Value("${workflow.history.outputs.max-stored-bytes:262144}") int maxStoredBytes) {
+        // Same modules and settings as the JSON mapper, Smile on the wire
+        this.smileMapper = objectMapper.copyWith(new SmileFactory());
+        this.compressThreshold = compressThreshold;
+        this.maxStoredBytes = maxStoredBytes;
+    }
+
+    public byte[] encode(Map<String, Object> outputs) {
+        byte[] smile = toSmile(outputs);
+        byte[] encoded = pack(smile, (byte) 0);
+        if (encoded.length - HEADER_SIZE <= maxStoredBytes) {
+            return encoded;
+        }
+
+        Map<String, Object> stub = new LinkedHashMap<>();
+        stub.put("truncated", true);
+        stub.put("originalSize", smile.length);
+        stub.put("keys", new ArrayList<>(outputs.keySet()));
+        return pack(toSmile(stub), FLAG_TRUNCATED);
+    }
+
+    public Map<String, Object> decode(byte[] encoded) {
+        if (encoded.length < HEADER_SIZE || encoded[0] != VERSION_SMILE) {
+            throw new IllegalArgumentException("Unsupported output encoding version "
+                + (encoded.length > 0 ? encoded[0] : -1));
+        }
+        byte flags = encoded[1];
+        byte[] smile = (flags & FLAG_DEFLATED) != 0
+            ? inflate(encoded, HEADER_SIZE)
+            : Arrays.copyOfRange(encoded, HEADER_SIZE, encoded.length);
+        try {
+            return smileMapper.readValue(smile, MAP_TYPE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static boolean isTruncated(byte[] encoded) {
+        return encoded.length >= HEADER_SIZE && (encoded[1] & FLAG_TRUNCATED) != 0;
+    }
+
+    private byte[] toSmile(Map<String, Object> value) {
+        try {
+            return smileMapper.writeValueAsBytes(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private byte[] pack(byte[] smile, byte flags) {
+        byte[] payload = smile;
+        if (smile.length >= compressThreshold) {
+            byte[] deflated = deflate(smile);
+            if (deflated.length < smile.length) {
+                payload = deflated;
+                flags |= FLAG_DEFLATED;
+            }
+        }
+        byte[] encoded = new byte[HEADER_SIZE + payload.length];
+        encoded[0] = VERSION_SMILE;
+        encoded[1] = flags;
+        System.arraycopy(payload, 0, encoded, HEADER_SIZE, payload.length);
+        return encoded;
+    }
+
+    private static byte[] deflate(byte[] input) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, input.length / 2));
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] input, int offset) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(input, offset, input.length - offset);
+            ByteArrayOutputStream out = new ByteArrayOutputStream((input.length - offset) * 3);
+            byte[] buffer = new byte[8192];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(buffer);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalArgumentException("Truncated deflate stream in stored outputs");
+                }
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Corrupt deflate stream in stored outputs", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.workflow.api.service.http;
+
+import java.nio.file.Path;
+
+/**
+ * Response body as captured by {@link ResponseBodyCapture}: either held in memory or,
+ * above the in-memory threshold, written to a run file.
+ */
+public record CapturedBody(byte[] bytes, Path file, long size) {
+
+    static CapturedBody inMemory(byte[] bytes) {
+        return new CapturedBody(bytes, null, bytes.length);
+    }
+
+    static CapturedBody spilled(Path file, long size) {
+        return new CapturedBody(null, file, size);
+    }
+
+    public boolean isSpilled() {
+        return file != null;
+    }
+}
@@ -0,0 +1,185 @@
+package com.workflow.api.service.http;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Per-host circuit breaker shared by all HTTP_REQUEST nodes. After
+ * {@code failure-threshold} consecutive failures (connection errors, timeouts and
+ * 5xx/429 responses) the host's circuit opens and calls fail fast without touching
+ * the network. Once {@code open-ms} has passed a single probe call is let through;
+ * its outcome alone closes the circuit or opens it again. Outcomes of calls that were
+ * admitted while the circuit was still closed only count while it is closed, so a
+ * slow success cannot close a circuit that has opened in the meantime.
+ *
+ * <p>State per host is exposed as the gauge {@code workflow.http.circuit.state}
+ * (0 closed, 1 half-open, 2 open) and rejected calls as
+ * {@code workflow.http.circuit.rejected}, both tagged with the host. Only the first
+ * {@code max-tagged-hosts} hosts get their own tags; calls to any further host are
+ * counted under {@code host=other}, and {@code workflow.http.circuit.open} counts open
+ * circuits across all hosts.
+ */
+@Component
+public class HostCircuitBreaker {
+
+    public enum State { CLOSED, HALF_OPEN, OPEN }
+
+    private static final String OTHER_HOSTS = "other";
+
+    private final MeterRegistry meterRegistry;
+    private final int failureThreshold;
+    private final long openMs;
+    private final int maxTaggedHosts;
+    private final Map<String, Circuit> circuits = new ConcurrentHashMap<>();
+    private final AtomicInteger taggedHosts = new AtomicInteger();
+    private final Counter otherHostsRejected;
+
+    public HostCircuitBreaker(MeterRegistry meterRegistry,
+                              @Value("${workflow.http.circuit-breaker.failure-threshold:5}") int failureThreshold,
+                              @Value("${workflow.http.circuit-breaker.open-ms:30000}") long openMs,
+                              @Value("${workflow.http.circuit-breaker.max-tagged-hosts:100}") int maxTaggedHosts) {
+        this.meterRegistry = meterRegistry;
+        this.failureThreshold = failureThreshold;
+        this.openMs = openMs;
+        this.maxTaggedHosts = maxTaggedHosts;
+        this.otherHostsRejected = meterRegistry.counter("workflow.http.circuit.rejected", Tags.of("host", OTHER_HOSTS));
+        meterRegistry.gauge("workflow.http.circuit.open", circuits, c -> c.values().stream()
+            .filter(circuit -> circuit.stateOrdinal() == State.OPEN.ordinal())
+            .count());
+    }
+
+    /**
+     * Returns a permit if a call to the host of {@code uri} may proceed, or empty if
+     * its circuit is open. Every permit must be handed back to exactly one of
+     * {@link #onSuccess}, {@link #onFailure} or {@link #onIgnored}.
+     */
+    public Optional<Permit> tryAcquire(URI uri) {
+        Circuit circuit = circuitFor(uri);
+        synchronized (circuit) {
+            switch (circuit.state) {
+                case CLOSED:
+                    return Optional.of(new Permit(circuit, false));
+                case OPEN:
+                    if (System.currentTimeMillis() - circuit.openedAt < openMs) {
+                        break;
+                    }
+                    circuit.state = State.HALF_OPEN;
+                    circuit.probeInFlight = true;
+                    return Optional.of(new Permit(circuit, true));
+                case HALF_OPEN:
+                    if (!circuit.probeInFlight) {
+                        circuit.probeInFlight = true;
+                        return Optional.of(new Permit(circuit, true));
+                    }
+                    break;
+            }
+        }
+        circuit.rejected.increment();
+        return Optional.empty();
+    }
+
+    public void onSuccess(Permit permit) {
+        Circuit circuit = permit.circuit;
+        synchronized (circuit) {
+            if (permit.probe) {
+                circuit.probeInFlight = false;
+                circuit.state = State.CLOSED;
+                circuit.consecutiveFailures = 0;
+            } else if (circuit.state == State.CLOSED) {
+                circuit.consecutiveFailures = 0;
+            }
+        }
+    }
+
+    public void onFailure(Permit permit) {
+        Circuit circuit = permit.circuit;
+        synchronized (circuit) {
+            if (permit.probe) {
+                circuit.probeInFlight = false;
+                open(circuit);
+            } else if (circuit.state == State.CLOSED && ++circuit.consecutiveFailures >= failureThreshold) {
+                open(circuit);
+            }
+        }
+    }
+
+    /**
+     * The call ended without saying anything about the host's health, for example
+     * because it never got a connection slot.
+     */
+    public void onIgnored(Permit permit) {
+        Circuit circuit = permit.circuit;
+        synchronized (circuit) {
+            if (permit.probe) {
+                circuit.probeInFlight = false;
+            }
+        }
+    }
+
+    public State getState(URI uri) {
+        Circuit circuit = circuitFor(uri);
+        synchronized (circuit) {
+            return circuit.state;
+        }
+    }
+
+    private static void open(Circuit circuit) {
+        circuit.state = State.OPEN;
+        circuit.openedAt = System.currentTimeMillis();
+        circuit.consecutiveFailures = 0;
+    }
+
+    private Circuit circuitFor(URI uri) {
+        String host = uri.getHost() + ":" + uri.getPort();
+        return circuits.computeIfAbsent(host, this::newCircuit);
+    }
+
+    private Circuit newCircuit(String host) {
+        if (taggedHosts.getAndIncrement() >= maxTaggedHosts) {
+            // Host names come from workflow configs; tagging every one would grow meters without bound
+            return new Circuit(otherHostsRejected);
+        }
+        Tags tags = Tags.of("host", host);
+        Circuit circuit = new Circuit(meterRegistry.counter("workflow.http.circuit.rejected", tags));
+        meterRegistry.gauge("workflow.http.circuit.state", tags, circuit, Circuit::stateOrdinal);
+        return circuit;
+    }
+
+    /**
+     * Admission of one call, remembering whether it is the probe of a half-open circuit.
+     */
+    public static final class Permit {
+        private final Circuit circuit;
+        private final boolean probe;
+
+        private Permit(Circuit circuit, boolean probe) {
+            this.circuit = circuit;
+            this.probe = probe;
+        }
+    }
+
+    private static final class Circuit {
+        private final Counter rejected;
+        private State state = State.CLOSED;
+        private int consecutiveFailures;
+        private long openedAt;
+        private boolean probeInFlight;
+
+        private Circuit(Counter rejected) {
+            this.rejected = rejected;
+        }
+
+        private synchronized int stateOrdinal() {
+            return state.ordinal();
+        }
+    }
+}
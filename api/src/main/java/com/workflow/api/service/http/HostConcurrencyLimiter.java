@@ -0,0 +1,81 @@
+package com.workflow.api.service.http;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caps the number of in-flight HTTP_REQUEST calls per host. The JDK client pools
+ * connections but does not limit them per host, so a wide fan-out to one API would
+ * otherwise open as many connections as there are concurrent nodes. Waiting for a slot
+ * does not block: callers get a future that completes once a slot is handed to them.
+ */
+@Component
+public class HostConcurrencyLimiter {
+
+    private final int maxPerHost;
+    private final Map<String, Host> hosts = new ConcurrentHashMap<>();
+
+    public HostConcurrencyLimiter(@Value("${workflow.http.max-connections-per-host:50}") int maxPerHost) {
+        this.maxPerHost = maxPerHost;
+    }
+
+    /**
+     * Returns a future that completes when a slot on the host of {@code uri} is held.
+     * Every completed acquisition must be paired with {@link #release}. A caller that
+     * gives up waiting should complete or cancel the future; its slot is then skipped.
+     */
+    public CompletableFuture<Void> acquire(URI uri) {
+        Host host = hostFor(uri);
+        synchronized (host) {
+            if (host.available > 0) {
+                host.available--;
+                return CompletableFuture.completedFuture(null);
+            }
+            CompletableFuture<Void> waiter = new CompletableFuture<>();
+            host.waiters.add(waiter);
+            return waiter;
+        }
+    }
+
+    public void release(URI uri) {
+        Host host = hostFor(uri);
+        while (true) {
+            CompletableFuture<Void> next;
+            synchronized (host) {
+                do {
+                    next = host.waiters.poll();
+                } while (next != null && next.isDone());
+                if (next == null) {
+                    host.available++;
+                    return;
+                }
+            }
+            // Completed outside the lock since it runs the waiter's continuation; if the
+            // waiter timed out in between, pass the slot on to the next one
+            if (next.complete(null)) {
+                return;
+            }
+        }
+    }
+
+    private Host hostFor(URI uri) {
+        String key = uri.getScheme() + "://" + uri.getHost() + ":" + uri.getPort();
+        return hosts.computeIfAbsent(key, k -> new Host(maxPerHost));
+    }
+
+    private static final class Host {
+        private int available;
+        private final Deque<CompletableFuture<Void>> waiters = new ArrayDeque<>();
+
+        private Host(int available) {
+            this.available = available;
+        }
+    }
+}
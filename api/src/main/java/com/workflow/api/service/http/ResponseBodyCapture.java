@@ -0,0 +1,37 @@
+package com.workflow.api.service.http;
+
+import com.workflow.api.service.RunFileStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.http.HttpResponse;
+
+/**
+ * Builds body handlers for HTTP_REQUEST nodes. Bodies up to the in-memory threshold
+ * are kept as bytes; larger ones are streamed to a file of the run, and bodies beyond
+ * the hard limit fail the request with {@link ResponseTooLargeException}.
+ */
+@Component
+@RequiredArgsConstructor
+public class ResponseBodyCapture {
+
+    private final RunFileStore runFileStore;
+
+    @Value("${workflow.http.max-in-memory-bytes:1048576}")
+    private long maxInMemoryBytes;
+
+    @Value("${workflow.http.max-response-bytes:104857600}")
+    private long maxResponseBytes;
+
+    public HttpResponse.BodyHandler<CapturedBody> handler(String runId, String nodeId) {
+        return responseInfo -> new SpillingBodySubscriber(
+            runFileStore,
+            runId,
+            nodeId + ".body",
+            maxInMemoryBytes,
+            maxResponseBytes,
+            responseInfo.headers().firstValueAsLong("Content-Length").orElse(-1L)
+        );
+    }
+}
@@ -0,0 +1,13 @@
+package com.workflow.api.service.http;
+
+import java.io.IOException;
+
+/**
+ * The response body exceeded the configured hard limit and was discarded.
+ */
+public class ResponseTooLargeException extends IOException {
+
+    public ResponseTooLargeException(long maxBytes) {
+        super("Response body exceeds the limit of " + maxBytes + " bytes");
+    }
+}
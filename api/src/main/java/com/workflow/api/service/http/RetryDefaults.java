@@ -0,0 +1,29 @@
+package com.workflow.api.service.http;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Application-wide defaults for {@link RetryPolicy}, from {@code workflow.http.retry}.
+ */
+@Component
+public class RetryDefaults {
+
+    private final RetryPolicy policy;
+
+    public RetryDefaults(@Value("${workflow.http.retry.max-attempts:3}") int maxAttempts,
+                         @Value("${workflow.http.retry.initial-backoff-ms:200}") long initialBackoffMs,
+                         @Value("${workflow.http.retry.max-backoff-ms:10000}") long maxBackoffMs,
+                         @Value("${workflow.http.retry.multiplier:2.0}") double multiplier,
+                         @Value("${workflow.http.retry.retry-on-status:429,502,503,504}") List<Integer> retryOnStatus) {
+        this.policy = new RetryPolicy(Math.max(1, maxAttempts), initialBackoffMs, maxBackoffMs, multiplier,
+            Set.copyOf(retryOnStatus));
+    }
+
+    public RetryPolicy policy() {
+        return policy;
+    }
+}
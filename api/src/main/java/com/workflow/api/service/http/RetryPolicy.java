@@ -0,0 +1,89 @@
+package com.workflow.api.service.http;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Retry settings of one HTTP_REQUEST node, read from the {@code retry} block of its
+ * config:
+ * <pre>
+ *   "retry": {
+ *     "maxAttempts": 3,          // total attempts including the first, 1 = no retry
+ *     "initialBackoffMs": 200,
+ *     "maxBackoffMs": 10000,
+ *     "multiplier": 2.0,
+ *     "retryOnStatus": [429, 502, 503, 504]
+ *   }
+ * </pre>
+ * Missing settings come from {@link RetryDefaults}. Without a {@code retry} block only
+ * idempotent methods are retried, since repeating a POST or PATCH may duplicate its
+ * effect.
+ */
+public record RetryPolicy(
+    int maxAttempts,
+    long initialBackoffMs,
+    long maxBackoffMs,
+    double multiplier,
+    Set<Integer> retryOnStatus
+) {
+
+    public static final RetryPolicy NONE = new RetryPolicy(1, 0, 0, 1, Set.of());
+
+    private static final Set<String> IDEMPOTENT_METHODS = Set.of("GET", "HEAD", "PUT", "DELETE", "OPTIONS");
+
+    public static RetryPolicy forNode(Map<String, Object> config, String method, RetryDefaults defaults) {
+        Object retry = config.get("retry");
+        if (!(retry instanceof Map<?, ?> settings)) {
+            return IDEMPOTENT_METHODS.contains(method) ? defaults.policy() : NONE;
+        }
+        RetryPolicy base = defaults.policy();
+        return new RetryPolicy(
+            Math.max(1, intSetting(settings, "maxAttempts", base.maxAttempts())),
+            longSetting(settings, "initialBackoffMs", base.initialBackoffMs()),
+            longSetting(settings, "maxBackoffMs", base.maxBackoffMs()),
+            doubleSetting(settings, "multiplier", base.multiplier()),
+            settings.get("retryOnStatus") instanceof Collection<?> codes
+                ? codes.stream().filter(Number.class::isInstance).map(c -> ((Number) c).intValue())
+                    .collect(Collectors.toUnmodifiableSet())
+                : base.retryOnStatus()
+        );
+    }
+
+    public boolean canRetry(int attempt) {
+        return attempt < maxAttempts;
+    }
+
+    public boolean isRetryableStatus(int statusCode) {
+        return retryOnStatus.contains(statusCode);
+    }
+
+    /**
+     * Delay before the attempt after {@code attempt}: exponential backoff with full
+     * jitter, so clients that failed together don't retry together. A server-sent
+     * Retry-After is honoured as a lower bound, still capped at {@code maxBackoffMs}.
+     */
+    public Duration backoff(int attempt, Duration retryAfter) {
+        double ceiling = Math.min(maxBackoffMs, initialBackoffMs * Math.pow(multiplier, attempt - 1));
+        long delay = (long) (ThreadLocalRandom.current().nextDouble() * ceiling);
+        if (retryAfter != null) {
+            delay = Math.max(delay, Math.min(retryAfter.toMillis(), maxBackoffMs));
+        }
+        return Duration.ofMillis(delay);
+    }
+
+    private static int intSetting(Map<?, ?> settings, String key, int fallback) {
+        return settings.get(key) instanceof Number n ? n.intValue() : fallback;
+    }
+
+    private static long longSetting(Map<?, ?> settings, String key, long fallback) {
+        return settings.get(key) instanceof Number n ? n.longValue() : fallback;
+    }
+
+    private static double doubleSetting(Map<?, ?> settings, String key, double fallback) {
+        return settings.get(key) instanceof Number n ? n.doubleValue() : fallback;
+    }
+}
@@ -0,0 +1,154 @@
+package com.workflow.api.service.http;
+
+import com.workflow.api.service.RunFileStore;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+
+/**
+ * Collects a response body in memory until it grows past the threshold, then moves it
+ * to a run file and streams the rest straight to disk. Buffers are requested one at a
+ * time, so at most one chunk is in flight beyond what has been stored. Exceeding the
+ * hard limit cancels the response.
+ */
+final class SpillingBodySubscriber implements HttpResponse.BodySubscriber<CapturedBody> {
+
+    private final RunFileStore runFileStore;
+    private final String runId;
+    private final String fileName;
+    private final long memoryThreshold;
+    private final long maxBytes;
+    private final long declaredLength;
+
+    private final CompletableFuture<CapturedBody> result = new CompletableFuture<>();
+    private Flow.Subscription subscription;
+    private ByteArrayOutputStream memory = new ByteArrayOutputStream();
+    private Path file;
+    private FileChannel channel;
+    private long size;
+
+    SpillingBodySubscriber(RunFileStore runFileStore, String runId, String fileName,
+                           long memoryThreshold, long maxBytes, long declaredLength) {
+        this.runFileStore = runFileStore;
+        this.runId = runId;
+        this.fileName = fileName;
+        this.memoryThreshold = memoryThreshold;
+        this.maxBytes = maxBytes;
+        this.declaredLength = declaredLength;
+    }
+
+    @Override
+    public CompletionStage<CapturedBody> getBody() {
+        return result;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        if (declaredLength > maxBytes) {
+            // Content-Length already tells us it won't fit
+            subscription.cancel();
+            fail(new ResponseTooLargeException(maxBytes));
+            return;
+        }
+        try {
+            if (declaredLength > memoryThreshold) {
+                spill();
+            }
+        } catch (IOException e) {
+            subscription.cancel();
+            fail(e);
+            return;
+        }
+        subscription.request(1);
+    }
+
+    @Override
+    public void onNext(List<ByteBuffer> buffers) {
+        if (result.isDone()) {
+            return;
+        }
+        try {
+            for (ByteBuffer buffer : buffers) {
+                size += buffer.remaining();
+                if (size > maxBytes) {
+                    subscription.cancel();
+                    fail(new ResponseTooLargeException(maxBytes));
+                    return;
+                }
+                if (channel == null && size > memoryThreshold) {
+                    spill();
+                }
+                if (channel != null) {
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                } else {
+                    byte[] chunk = new byte[buffer.remaining()];
+                    buffer.get(chunk);
+                    memory.write(chunk, 0, chunk.length);
+                }
+            }
+        } catch (IOException e) {
+            subscription.cancel();
+            fail(e);
+            return;
+        }
+        subscription.request(1);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        fail(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        if (result.isDone()) {
+            return;
+        }
+        if (channel == null) {
+            result.complete(CapturedBody.inMemory(memory.toByteArray()));
+            return;
+        }
+        try {
+            channel.close();
+            result.complete(CapturedBody.spilled(file, size));
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    private void spill() throws IOException {
+        file = runFileStore.newFile(runId, fileName);
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING);
+        ByteBuffer buffered = ByteBuffer.wrap(memory.toByteArray());
+        while (buffered.hasRemaining()) {
+            channel.write(buffered);
+        }
+        memory = null;
+    }
+
+    private void fail(Throwable error) {
+        if (channel != null) {
+            try {
+                channel.close();
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                error.addSuppressed(e);
+            }
+        }
+        result.completeExceptionally(error);
+    }
+}
@@ -0,0 +1,100 @@
+package com.workflow.api.service.plan;
+
+import com.workflow.api.dto.WorkflowNode;
+import com.workflow.api.service.runners.NodeRunner;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Immutable, pre-analysed form of a workflow definition. Nodes are indexed in
+ * topological order and every edge is resolved to node indices up front, so a run
+ * never has to look at the raw edge list. Arrays handed out by the accessors are
+ * shared between runs and must not be modified.
+ */
+public class ExecutionPlan {
+
+    @Getter
+    private final String workflowId;
+    @Getter
+    private final String clientId;
+    @Getter
+    private final LocalDateTime version;
+    @Getter
+    private final int triggerIndex;
+
+    private final WorkflowNode[] nodes;
+    private final NodeRunner[] runners;
+    private final int[][] incomingSources;
+    private final String[][] incomingHandles;
+    private final int[][] outgoingTargets;
+    private final int[] inDegree;
+    private final Map<String, Integer> indexById;
+
+    ExecutionPlan(String workflowId, String clientId, LocalDateTime version, int triggerIndex,
+                  WorkflowNode[] nodes, NodeRunner[] runners,
+                  int[][] incomingSources, String[][] incomingHandles,
+                  int[][] outgoingTargets, int[] inDegree, Map<String, Integer> indexById) {
+        this.workflowId = workflowId;
+        this.clientId = clientId;
+        this.version = version;
+        this.triggerIndex = triggerIndex;
+        this.nodes = nodes;
+        this.runners = runners;
+        this.incomingSources = incomingSources;
+        this.incomingHandles = incomingHandles;
+        this.outgoingTargets = outgoingTargets;
+        this.inDegree = inDegree;
+        this.indexById = indexById;
+    }
+
+    public int size() {
+        return nodes.length;
+    }
+
+    public WorkflowNode getNode(int index) {
+        return nodes[index];
+    }
+
+    public NodeRunner getRunner(int index) {
+        return runners[index];
+    }
+
+    /**
+     * Indices of the source nodes of every incoming edge, one entry per edge.
+     */
+    public int[] getIncomingSources(int index) {
+        return incomingSources[index];
+    }
+
+    /**
+     * Branch each incoming edge expects from a branching source ({@code sourceHandle},
+     * or {@code "true"} when the edge has none), aligned with {@link #getIncomingSources}.
+     */
+    public String[] getIncomingHandles(int index) {
+        return incomingHandles[index];
+    }
+
+    /**
+     * Indices of the target nodes of every outgoing edge, one entry per edge.
+     */
+    public int[] getOutgoingTargets(int index) {
+        return outgoingTargets[index];
+    }
+
+    /**
+     * Number of incoming edges of a node.
+     */
+    public int getInDegree(int index) {
+        return inDegree[index];
+    }
+
+    /**
+     * Index of a node by id, or -1 if the plan has no such node.
+     */
+    public int indexOf(String nodeId) {
+        Integer index = indexById.get(nodeId);
+        return index != null ? index : -1;
+    }
+}
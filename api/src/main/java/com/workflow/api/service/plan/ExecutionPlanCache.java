@@ -0,0 +1,65 @@
+package com.workflow.api.service.plan;
+
+import com.workflow.api.dto.WorkflowDefinition;
+import com.workflow.api.entity.Workflow;
+import com.workflow.api.exception.WorkflowValidationException;
+import com.workflow.api.util.LruCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.Objects;
+
+/**
+ * Caches compiled plans per workflow. An entry is only reused while the workflow's
+ * {@code updatedAt} matches the version it was compiled from, so any saved change
+ * produces a fresh plan on the next run.
+ */
+@Slf4j
+@Component
+public class ExecutionPlanCache {
+
+    private final ExecutionPlanCompiler compiler;
+    private final WorkflowDefinitionCache definitionCache;
+    private final LruCache<String, ExecutionPlan> plans;
+
+    public ExecutionPlanCache(ExecutionPlanCompiler compiler,
+                              WorkflowDefinitionCache definitionCache,
+                              @Value("${workflow.execution.plan-cache-size:1000}") int maxSize) {
+        this.compiler = compiler;
+        this.definitionCache = definitionCache;
+        this.plans = new LruCache<>(maxSize);
+    }
+
+    public ExecutionPlan getPlan(Workflow workflow) {
+        ExecutionPlan cached = plans.get(workflow.getId());
+        if (cached != null && Objects.equals(cached.getVersion(), workflow.getUpdatedAt())) {
+            return cached;
+        }
+        return getPlan(definitionCache.get(workflow));
+    }
+
+    public ExecutionPlan getPlan(WorkflowDefinitionCache.CachedWorkflow workflow) {
+        ExecutionPlan cached = plans.get(workflow.id());
+        if (cached != null && Objects.equals(cached.getVersion(), workflow.version())) {
+            return cached;
+        }
+
+        WorkflowDefinition definition = workflow.definition();
+        if (definition.getNodes() == null || definition.getNodes().isEmpty()) {
+            throw new WorkflowValidationException("Workflow definition is empty or invalid");
+        }
+
+        ExecutionPlan plan = compiler.compile(
+            workflow.id(),
+            workflow.clientId(),
+            workflow.version(),
+            definition.getNodes(),
+            definition.getEdges() != null ? definition.getEdges() : Collections.emptyList()
+        );
+        plans.put(workflow.id(), plan);
+        log.debug("Compiled execution plan for workflow {} (version {})", workflow.id(), workflow.version());
+        return plan;
+    }
+}
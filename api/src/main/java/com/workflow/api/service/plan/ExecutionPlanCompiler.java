@@ -0,0 +1,144 @@
+package com.workflow.api.service.plan;
+
+import com.workflow.api.dto.WorkflowEdge;
+import com.workflow.api.dto.WorkflowNode;
+import com.workflow.api.exception.WorkflowExecutionException;
+import com.workflow.api.exception.WorkflowValidationException;
+import com.workflow.api.service.runners.NodeRunner;
+import com.workflow.api.service.runners.NodeRunnerRegistry;
+import com.workflow.api.util.TopologicalSort;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Validates a workflow definition and compiles it into an {@link ExecutionPlan}.
+ */
+@Component
+@RequiredArgsConstructor
+public class ExecutionPlanCompiler {
+
+    private final NodeRunnerRegistry nodeRunnerRegistry;
+
+    public ExecutionPlan compile(String workflowId, String clientId, LocalDateTime version,
+                                 List<WorkflowNode> nodes, List<WorkflowEdge> edges) {
+        // Validate workflow
+        String validationError = validateWorkflow(nodes);
+        if (validationError != null) {
+            throw new WorkflowExecutionException(validationError);
+        }
+        String edgeError = validateEdges(nodes, edges);
+        if (edgeError != null) {
+            throw new WorkflowValidationException(edgeError);
+        }
+
+        // Topological sort
+        TopologicalSort.Result sortResult = TopologicalSort.sort(nodes, edges);
+        if (sortResult.isHasCycle()) {
+            throw new WorkflowExecutionException("Cycle detected in workflow graph");
+        }
+
+        WorkflowNode[] sorted = sortResult.getSorted().toArray(new WorkflowNode[0]);
+        int size = sorted.length;
+
+        Map<String, Integer> indexById = new HashMap<>();
+        NodeRunner[] runners = new NodeRunner[size];
+        int triggerIndex = -1;
+        for (int i = 0; i < size; i++) {
+            indexById.put(sorted[i].getId(), i);
+            runners[i] = nodeRunnerRegistry.resolve(sorted[i].getType());
+            if (triggerIndex < 0 && "TRIGGER".equals(sorted[i].getType())) {
+                triggerIndex = i;
+            }
+        }
+        if (triggerIndex < 0) {
+            throw new WorkflowExecutionException("No trigger node found");
+        }
+
+        List<List<WorkflowEdge>> incoming = new ArrayList<>(size);
+        List<List<Integer>> outgoing = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            incoming.add(new ArrayList<>());
+            outgoing.add(new ArrayList<>());
+        }
+        for (WorkflowEdge edge : edges) {
+            Integer source = indexById.get(edge.getSource());
+            Integer target = indexById.get(edge.getTarget());
+            incoming.get(target).add(edge);
+            outgoing.get(source).add(target);
+        }
+
+        int[][] incomingSources = new int[size][];
+        String[][] incomingHandles = new String[size][];
+        int[][] outgoingTargets = new int[size][];
+        int[] inDegree = new int[size];
+        for (int i = 0; i < size; i++) {
+            List<WorkflowEdge> in = incoming.get(i);
+            incomingSources[i] = new int[in.size()];
+            incomingHandles[i] = new String[in.size()];
+            for (int e = 0; e < in.size(); e++) {
+                WorkflowEdge edge = in.get(e);
+                incomingSources[i][e] = indexById.get(edge.getSource());
+                incomingHandles[i][e] = edge.getSourceHandle() != null ? edge.getSourceHandle() : "true";
+            }
+            inDegree[i] = in.size();
+            outgoingTargets[i] = outgoing.get(i).stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        return new ExecutionPlan(workflowId, clientId, version, triggerIndex, sorted, runners,
+            incomingSources, incomingHandles, outgoingTargets, inDegree, Map.copyOf(indexById));
+    }
+
+    private String validateWorkflow(List<WorkflowNode> nodes) {
+        long triggerCount = nodes.stream()
+            .filter(n -> "TRIGGER".equals(n.getType()))
+            .count();
+
+        if (triggerCount == 0) {
+            return "Workflow must have at least one Trigger node";
+        }
+
+        for (WorkflowNode node : nodes) {
+            String nodeType = node.getType();
+            if ("HTTP_REQUEST".equals(nodeType)) {
+                Map<String, Object> config = node.getData().getConfig();
+                String url = (String) config.get("url");
+                if (url == null || url.trim().isEmpty()) {
+                    return "HTTP_REQUEST node " + node.getId() + " must have a URL";
+                }
+            }
+
+            if ("CONDITION".equals(nodeType)) {
+                Map<String, Object> config = node.getData().getConfig();
+                String expression = (String) config.get("expression");
+                if (expression == null || expression.trim().isEmpty()) {
+                    return "Condition node " + node.getId() + " must have an expression";
+                }
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Every edge must connect two nodes of the workflow; a dangling edge would otherwise
+     * make the graph (and which nodes wait for what) different from what was drawn.
+     */
+    private String validateEdges(List<WorkflowNode> nodes, List<WorkflowEdge> edges) {
+        Set<String> nodeIds = new HashSet<>();
+        for (WorkflowNode node : nodes) {
+            nodeIds.add(node.getId());
+        }
+        for (WorkflowEdge edge : edges) {
+            if (!nodeIds.contains(edge.getSource())) {
+                return "Edge " + edge.getId() + " has unknown source node " + edge.getSource();
+            }
+            if (!nodeIds.contains(edge.getTarget())) {
+                return "Edge " + edge.getId() + " has unknown target node " + edge.getTarget();
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,166 @@
+package com.workflow.api.service.plan;
+
+import com.workflow.api.dto.WorkflowDefinition;
+import com.workflow.api.entity.Workflow;
+import com.workflow.api.repository.WorkflowRepository;
+import com.workflow.api.service.WorkflowChangedEvent;
+import com.workflow.api.service.WorkflowService;
+import com.workflow.api.util.LruCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Bounded cache of parsed workflow definitions, so starting a workflow neither loads
+ * the entity nor parses its definition JSON. Entries remember the version
+ * ({@code updatedAt}) they were parsed from and are dropped when the workflow changes:
+ * right after the change commits on this instance, and on notification for changes
+ * made on other instances (see {@link com.workflow.api.service.WorkflowChangeNotifier}).
+ * Entries are also reloaded after {@code max-age-ms}, which bounds staleness should a
+ * notification be lost.
+ *
+ * <p>A load that raced with an invalidation does not store its result: every
+ * invalidation bumps a generation, and a load only caches what it read if the
+ * generation is unchanged since before the read. A cached version is also never
+ * replaced by an older one.
+ *
+ * <p>Hits, misses, evictions and invalidations are counted in
+ * {@code workflow.definition.cache.*}.
+ */
+@Slf4j
+@Component
+public class WorkflowDefinitionCache {
+
+    private final WorkflowRepository workflowRepository;
+    private final WorkflowService workflowService;
+    private final LruCache<String, CachedWorkflow> entries;
+    private final long maxAgeNanos;
+    private final Object lock = new Object();
+    private long generation;
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Counter invalidationCounter;
+
+    public WorkflowDefinitionCache(WorkflowRepository workflowRepository,
+                                   WorkflowService workflowService,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${workflow.definition-cache.size:5000}") int maxSize,
+                                   @Value("${workflow.definition-cache.max-age-ms:300000}") long maxAgeMs) {
+        this.workflowRepository = workflowRepository;
+        this.workflowService = workflowService;
+        this.maxAgeNanos = Duration.ofMillis(maxAgeMs).toNanos();
+
+        this.hitCounter = meterRegistry.counter("workflow.definition.cache.hits");
+        this.missCounter = meterRegistry.counter("workflow.definition.cache.misses");
+        this.invalidationCounter = meterRegistry.counter("workflow.definition.cache.invalidations");
+        Counter evictionCounter = meterRegistry.counter("workflow.definition.cache.evictions");
+        this.entries = new LruCache<>(maxSize, evictionCounter::increment);
+        meterRegistry.gauge("workflow.definition.cache.size", entries, LruCache::size);
+    }
+
+    /**
+     * Returns the workflow with its parsed definition, loading it on a miss.
+     */
+    public Optional<CachedWorkflow> get(String workflowId) {
+        CachedWorkflow cached = entries.get(workflowId);
+        if (cached != null && System.nanoTime() - cached.loadedAt() < maxAgeNanos) {
+            hitCounter.increment();
+            return Optional.of(cached);
+        }
+        missCounter.increment();
+        long readGeneration = generation();
+        return workflowRepository.findById(workflowId).map(workflow -> load(workflow, readGeneration));
+    }
+
+    /**
+     * Returns the parsed definition of a workflow that has already been loaded, parsing
+     * it only if the cache does not hold this version.
+     */
+    public CachedWorkflow get(Workflow workflow) {
+        CachedWorkflow cached = entries.get(workflow.getId());
+        if (cached != null && Objects.equals(cached.version(), workflow.getUpdatedAt())) {
+            hitCounter.increment();
+            return cached;
+        }
+        missCounter.increment();
+        return load(workflow, generation());
+    }
+
+    public void invalidate(String workflowId) {
+        synchronized (lock) {
+            generation++;
+            entries.remove(workflowId);
+        }
+        invalidationCounter.increment();
+    }
+
+    public void invalidateAll() {
+        synchronized (lock) {
+            generation++;
+            entries.clear();
+        }
+        invalidationCounter.increment();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onWorkflowChanged(WorkflowChangedEvent event) {
+        invalidate(event.workflowId());
+    }
+
+    private long generation() {
+        synchronized (lock) {
+            return generation;
+        }
+    }
+
+    /**
+     * Parses a workflow and caches it unless the cache was invalidated since
+     * {@code readGeneration} or already holds a newer version.
+     */
+    private CachedWorkflow load(Workflow workflow, long readGeneration) {
+        CachedWorkflow loaded = new CachedWorkflow(
+            workflow.getId(),
+            workflow.getOwnerId(),
+            workflow.getClientId(),
+            workflow.getStatus(),
+            workflow.getUpdatedAt(),
+            workflowService.toWorkflowDefinition(workflow),
+            System.nanoTime()
+        );
+        synchronized (lock) {
+            if (generation != readGeneration) {
+                log.debug("Not caching workflow {} (version {}): invalidated while loading",
+                    workflow.getId(), workflow.getUpdatedAt());
+                return loaded;
+            }
+            CachedWorkflow current = entries.get(workflow.getId());
+            if (current != null && isNewer(current.version(), loaded.version())) {
+                return loaded;
+            }
+            entries.put(workflow.getId(), loaded);
+        }
+        log.debug("Cached definition of workflow {} (version {})", workflow.getId(), workflow.getUpdatedAt());
+        return loaded;
+    }
+
+    private static boolean isNewer(LocalDateTime version, LocalDateTime than) {
+        return version != null && than != null && version.isAfter(than);
+    }
+
+    /**
+     * A workflow's identifying fields and parsed definition as of {@code version}. The
+     * definition is shared between callers and must not be modified.
+     */
+    public record CachedWorkflow(String id, String ownerId, String clientId, String status,
+                                 LocalDateTime version, WorkflowDefinition definition, long loadedAt) {
+    }
+}
@@ -0,0 +1,16 @@
+package com.workflow.api.service.queue;
+
+/**
+ * A run claimed from the queue. Stored workflows are referenced by id and compiled from
+ * their current definition; ad-hoc runs carry their definition as JSON. {@code input}
+ * is the JSON payload the run was triggered with, or {@code null}.
+ */
+public record QueuedRun(
+    String runId,
+    String workflowId,
+    String definition,
+    String input,
+    String requestedBy,
+    int attempt
+) {
+}
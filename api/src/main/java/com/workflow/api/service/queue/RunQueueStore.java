@@ -0,0 +1,261 @@
+package com.workflow.api.service.queue;
+
+import com.workflow.api.dto.ExecutionStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Durable run queue in the {@code run_queue} table, shared by all api instances.
+ *
+ * <p>Workers claim rows with {@code SELECT ... FOR UPDATE SKIP LOCKED}, so concurrent
+ * claims never block on or double-claim each other's rows. A claim is a lease: the
+ * owner extends it with heartbeats, and once it lapses the row is claimable again,
+ * which is how runs of a dead instance get picked up. Completion only succeeds while
+ * the caller still holds the lease.
+ */
+@Component
+@RequiredArgsConstructor
+public class RunQueueStore {
+
+    public static final String QUEUED = "QUEUED";
+    public static final String RUNNING = "RUNNING";
+    public static final String SUCCEEDED = "SUCCEEDED";
+    public static final String FAILED = "FAILED";
+
+    private static final String INSERT =
+        "INSERT INTO run_queue (id, workflow_id, client_id, definition, input, requested_by, status, total_nodes, "
+            + "finished_nodes, attempts, enqueued_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0, 0, ?)";
+
+    private static final String SELECT_CLAIMABLE =
+        "SELECT id, workflow_id, definition, input, requested_by, attempts FROM run_queue "
+            + "WHERE status = 'QUEUED' OR (status = 'RUNNING' AND lease_expires_at < ?) "
+            + "ORDER BY enqueued_at LIMIT ? FOR UPDATE";
+
+    private static final String CLAIM =
+        "UPDATE run_queue SET status = 'RUNNING', lease_owner = ?, lease_expires_at = ?, attempts = attempts + 1, "
+            + "finished_nodes = 0, started_at = ? WHERE id = ?";
+
+    private static final String ABANDON =
+        "UPDATE run_queue SET status = 'FAILED', lease_owner = NULL, lease_expires_at = NULL, finished_at = ?, "
+            + "error_message = ? WHERE id = ?";
+
+    private static final String HEARTBEAT =
+        "UPDATE run_queue SET lease_expires_at = ?, finished_nodes = ? WHERE id = ? AND lease_owner = ?";
+
+    private static final String RELEASE =
+        "UPDATE run_queue SET status = 'QUEUED', lease_owner = NULL, lease_expires_at = NULL, "
+            + "attempts = attempts - 1 WHERE id = ? AND lease_owner = ?";
+
+    private static final String REQUEUE_FAILED =
+        "UPDATE run_queue SET status = 'QUEUED', attempts = 0, finished_nodes = 0, started_at = NULL, "
+            + "finished_at = NULL, error_message = NULL, result = NULL WHERE id = ? AND status = 'FAILED'";
+
+    private static final String COMPLETE =
+        "UPDATE run_queue SET status = ?, lease_owner = NULL, lease_expires_at = NULL, finished_nodes = ?, "
+            + "finished_at = ?, error_message = ?, result = ? WHERE id = ? AND lease_owner = ?";
+
+    private static final String SELECT_STATUS =
+        "SELECT id, workflow_id, requested_by, status, total_nodes, finished_nodes, enqueued_at, started_at, "
+            + "finished_at, error_message, result FROM run_queue WHERE id = ?";
+
+    private static final String DELETE_FINISHED_CHECKPOINTS =
+        "DELETE FROM run_checkpoints WHERE run_id IN "
+            + "(SELECT id FROM run_queue WHERE status IN ('SUCCEEDED', 'FAILED') AND finished_at < ?)";
+
+    private static final String DELETE_FINISHED =
+        "DELETE FROM run_queue WHERE status IN ('SUCCEEDED', 'FAILED') AND finished_at < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private volatile String claimQuery;
+
+    public void enqueue(NewRun run) {
+        jdbcTemplate.update(INSERT, insertRow(run, Timestamp.from(Instant.now())));
+    }
+
+    /**
+     * Enqueues several runs with one batched statement.
+     */
+    public void enqueueAll(List<NewRun> runs) {
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> rows = new ArrayList<>(runs.size());
+        for (NewRun run : runs) {
+            rows.add(insertRow(run, now));
+        }
+        jdbcTemplate.batchUpdate(INSERT, rows);
+    }
+
+    /**
+     * Claims up to {@code limit} runs for {@code owner}: queued ones in FIFO order and
+     * running ones whose lease has lapsed. Runs that already used {@code maxAttempts}
+     * are failed instead of claimed again.
+     */
+    public List<QueuedRun> claim(String owner, int limit, Duration lease, int maxAttempts) {
+        Instant now = Instant.now();
+        Timestamp nowTs = Timestamp.from(now);
+        Timestamp leaseExpiresAt = Timestamp.from(now.plus(lease));
+
+        return transactionTemplate.execute(status -> {
+            List<QueuedRun> candidates = jdbcTemplate.query(claimQuery(), this::mapQueuedRun, nowTs, limit);
+
+            List<QueuedRun> claimed = new ArrayList<>(candidates.size());
+            List<Object[]> claims = new ArrayList<>(candidates.size());
+            List<Object[]> abandoned = new ArrayList<>();
+            for (QueuedRun run : candidates) {
+                if (run.attempt() >= maxAttempts) {
+                    abandoned.add(new Object[] {nowTs,
+                        "Run abandoned after " + run.attempt() + " attempts without completing", run.runId()});
+                    continue;
+                }
+                claims.add(new Object[] {owner, leaseExpiresAt, nowTs, run.runId()});
+                claimed.add(new QueuedRun(run.runId(), run.workflowId(), run.definition(), run.input(),
+                    run.requestedBy(), run.attempt() + 1));
+            }
+            if (!claims.isEmpty()) {
+                jdbcTemplate.batchUpdate(CLAIM, claims);
+            }
+            if (!abandoned.isEmpty()) {
+                jdbcTemplate.batchUpdate(ABANDON, abandoned);
+            }
+            return claimed;
+        });
+    }
+
+    /**
+     * Extends the leases of the given runs and records their progress. Returns the ids
+     * whose lease is no longer held by {@code owner}.
+     */
+    public List<String> heartbeat(String owner, Map<String, Integer> finishedNodesByRun, Duration lease) {
+        if (finishedNodesByRun.isEmpty()) {
+            return List.of();
+        }
+        Timestamp leaseExpiresAt = Timestamp.from(Instant.now().plus(lease));
+        List<String> runIds = new ArrayList<>(finishedNodesByRun.keySet());
+        List<Object[]> rows = new ArrayList<>(runIds.size());
+        for (String runId : runIds) {
+            rows.add(new Object[] {leaseExpiresAt, finishedNodesByRun.get(runId), runId, owner});
+        }
+        int[] updated = jdbcTemplate.batchUpdate(HEARTBEAT, rows);
+
+        List<String> lost = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                lost.add(runIds.get(i));
+            }
+        }
+        return lost;
+    }
+
+    /**
+     * Puts a claimed run back in the queue without counting the attempt.
+     */
+    public void release(String runId, String owner) {
+        jdbcTemplate.update(RELEASE, runId, owner);
+    }
+
+    /**
+     * Moves a failed run back to the queue. Returns {@code false} if the run is not in
+     * the failed state.
+     */
+    public boolean requeueFailed(String runId) {
+        return jdbcTemplate.update(REQUEUE_FAILED, runId) > 0;
+    }
+
+    public boolean complete(String runId, String owner, String status, int finishedNodes,
+                            String errorMessage, String resultJson) {
+        return jdbcTemplate.update(COMPLETE, status, finishedNodes, Timestamp.from(Instant.now()), errorMessage,
+            resultJson, runId, owner) > 0;
+    }
+
+    /**
+     * Status of a run as last recorded in the queue, together with who requested it.
+     * The result is returned as raw JSON for the caller to decode.
+     */
+    public Optional<StoredStatus> findStatus(String runId) {
+        return jdbcTemplate.query(SELECT_STATUS, this::mapStoredStatus, runId).stream().findFirst();
+    }
+
+    /**
+     * Deletes finished runs, and whatever checkpoints they left, that finished before
+     * {@code cutoff}. Failed runs can no longer be resumed after that.
+     */
+    public int deleteFinishedBefore(Instant cutoff) {
+        Timestamp cutoffTs = Timestamp.from(cutoff);
+        return transactionTemplate.execute(status -> {
+            jdbcTemplate.update(DELETE_FINISHED_CHECKPOINTS, cutoffTs);
+            return jdbcTemplate.update(DELETE_FINISHED, cutoffTs);
+        });
+    }
+
+    public record StoredStatus(ExecutionStatus status, String resultJson) {
+    }
+
+    /**
+     * A run to enqueue. {@code definition} is set for ad-hoc runs only; {@code input} is
+     * the JSON payload the run was triggered with, if any.
+     */
+    public record NewRun(String runId, String workflowId, String clientId, String definition, String input,
+                         String requestedBy, int totalNodes) {
+    }
+
+    private String claimQuery() {
+        if (claimQuery == null) {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+            // Other workers' locked rows are skipped rather than waited on
+            claimQuery = "PostgreSQL".equalsIgnoreCase(product) ? SELECT_CLAIMABLE + " SKIP LOCKED" : SELECT_CLAIMABLE;
+        }
+        return claimQuery;
+    }
+
+    private QueuedRun mapQueuedRun(ResultSet rs, int rowNum) throws SQLException {
+        return new QueuedRun(
+            rs.getString("id"),
+            rs.getString("workflow_id"),
+            rs.getString("definition"),
+            rs.getString("input"),
+            rs.getString("requested_by"),
+            rs.getInt("attempts")
+        );
+    }
+
+    private Object[] insertRow(NewRun run, Timestamp enqueuedAt) {
+        return new Object[] {run.runId(), run.workflowId(), run.clientId(), run.definition(), run.input(),
+            run.requestedBy(), QUEUED, run.totalNodes(), enqueuedAt};
+    }
+
+    private StoredStatus mapStoredStatus(ResultSet rs, int rowNum) throws SQLException {
+        ExecutionStatus status = new ExecutionStatus(
+            rs.getString("id"),
+            rs.getString("workflow_id"),
+            rs.getString("requested_by"),
+            rs.getString("status"),
+            rs.getInt("total_nodes"),
+            rs.getInt("finished_nodes"),
+            toIsoString(rs.getTimestamp("enqueued_at")),
+            toIsoString(rs.getTimestamp("started_at")),
+            toIsoString(rs.getTimestamp("finished_at")),
+            rs.getString("error_message"),
+            null
+        );
+        return new StoredStatus(status, rs.getString("result"));
+    }
+
+    private static String toIsoString(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toInstant().toString() : null;
+    }
+}
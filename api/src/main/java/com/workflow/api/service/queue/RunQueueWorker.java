@@ -0,0 +1,215 @@
+package com.workflow.api.service.queue;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.workflow.api.dto.NodeRunResult;
+import com.workflow.api.dto.WorkflowDefinition;
+import com.workflow.api.exception.WorkflowNotFoundException;
+import com.workflow.api.exception.WorkflowRunRejectedException;
+import com.workflow.api.service.ExecutionEngineService;
+import com.workflow.api.service.ExecutionRun;
+import com.workflow.api.service.ExecutionRunService;
+import com.workflow.api.service.InstanceIdentity;
+import com.workflow.api.service.checkpoint.RunCheckpointStore;
+import com.workflow.api.service.plan.ExecutionPlan;
+import com.workflow.api.service.plan.ExecutionPlanCache;
+import com.workflow.api.service.plan.WorkflowDefinitionCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Claims runs from the durable run queue and executes them on this instance. Every
+ * instance runs a worker, so instances share one backlog and adding instances adds
+ * capacity. Leases of the runs in progress are renewed on every heartbeat; if this
+ * instance dies they lapse and another worker re-claims the runs.
+ */
+@Slf4j
+@Component
+public class RunQueueWorker {
+
+    private final RunQueueStore runQueueStore;
+    private final RunCheckpointStore runCheckpointStore;
+    private final ExecutionRunService executionRunService;
+    private final ExecutionEngineService executionEngineService;
+    private final WorkflowDefinitionCache definitionCache;
+    private final ExecutionPlanCache executionPlanCache;
+    private final ObjectMapper objectMapper;
+    private final ObjectReader workflowDefinitionReader;
+
+    private final String instanceId;
+    private final int maxConcurrentRuns;
+    private final Duration lease;
+    private final int maxAttempts;
+
+    private final Map<String, ExecutionRun> active = new ConcurrentHashMap<>();
+
+    public RunQueueWorker(RunQueueStore runQueueStore,
+                          RunCheckpointStore runCheckpointStore,
+                          ExecutionRunService executionRunService,
+                          ExecutionEngineService executionEngineService,
+                          WorkflowDefinitionCache definitionCache,
+                          ExecutionPlanCache executionPlanCache,
+                          ObjectMapper objectMapper,
+                          ObjectReader workflowDefinitionReader,
+                          InstanceIdentity instanceIdentity,
+                          @Value("${workflow.queue.max-concurrent-runs:8}") int maxConcurrentRuns,
+                          @Value("${workflow.queue.lease-ms:30000}") long leaseMs,
+                          @Value("${workflow.queue.max-attempts:3}") int maxAttempts) {
+        this.runQueueStore = runQueueStore;
+        this.runCheckpointStore = runCheckpointStore;
+        this.executionRunService = executionRunService;
+        this.executionEngineService = executionEngineService;
+        this.definitionCache = definitionCache;
+        this.executionPlanCache = executionPlanCache;
+        this.objectMapper = objectMapper;
+        this.workflowDefinitionReader = workflowDefinitionReader;
+        this.instanceId = instanceIdentity.getId();
+        this.maxConcurrentRuns = maxConcurrentRuns;
+        this.lease = Duration.ofMillis(leaseMs);
+        this.maxAttempts = maxAttempts;
+        log.info("Run queue worker {} started (max {} concurrent runs)", this.instanceId, maxConcurrentRuns);
+    }
+
+    @Scheduled(fixedDelayString = "${workflow.queue.poll-interval-ms:250}")
+    public void poll() {
+        int capacity = maxConcurrentRuns - active.size();
+        if (capacity <= 0) {
+            return;
+        }
+
+        List<QueuedRun> claimed;
+        try {
+            claimed = runQueueStore.claim(instanceId, capacity, lease, maxAttempts);
+        } catch (RuntimeException e) {
+            log.warn("Failed to claim runs from the run queue", e);
+            return;
+        }
+        for (QueuedRun run : claimed) {
+            start(run);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${workflow.queue.heartbeat-interval-ms:10000}")
+    public void heartbeat() {
+        Map<String, Integer> progress = new HashMap<>();
+        active.forEach((runId, run) -> progress.put(runId, run.getFinishedNodes().get()));
+        try {
+            for (String runId : runQueueStore.heartbeat(instanceId, progress, lease)) {
+                // Keeps running, but its completion will no longer be recorded by this instance
+                log.warn("Lost the lease on run {}; another worker may have re-claimed it", runId);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to renew run leases", e);
+        }
+    }
+
+    private void start(QueuedRun queued) {
+        String runId = queued.runId();
+        if (queued.attempt() > 1) {
+            log.info("Re-claimed run {} (attempt {})", runId, queued.attempt());
+        }
+
+        ExecutionPlan plan;
+        Object input;
+        List<NodeRunResult> restored;
+        try {
+            plan = loadPlan(queued);
+            input = readInput(queued.input());
+            restored = runCheckpointStore.load(runId);
+        } catch (RuntimeException e) {
+            log.error("Cannot start queued run {}", runId, e);
+            runQueueStore.complete(runId, instanceId, RunQueueStore.FAILED, 0, e.getMessage(), null);
+            return;
+        }
+
+        try {
+            if (!restored.isEmpty()) {
+                log.info("Run {} continues from {} checkpointed nodes", runId, restored.size());
+            }
+            executionRunService.start(runId, plan, queued.requestedBy(), input, restored)
+                .whenComplete((run, error) -> finish(runId, run));
+        } catch (WorkflowRunRejectedException e) {
+            // Run executor is saturated; leave the run for the next poll or another instance
+            runQueueStore.release(runId, instanceId);
+            return;
+        }
+        executionRunService.getLocalRun(runId).ifPresent(run -> {
+            active.put(runId, run);
+            // The run may have finished before it was registered
+            if (run.isFinished()) {
+                active.remove(runId);
+            }
+        });
+    }
+
+    private void finish(String runId, ExecutionRun run) {
+        // Checkpoints must be durable before the run shows as failed and can be resumed
+        runCheckpointStore.flush().whenComplete((ignored, error) -> recordCompletion(runId, run));
+    }
+
+    private void recordCompletion(String runId, ExecutionRun run) {
+        active.remove(runId);
+        try {
+            boolean recorded = runQueueStore.complete(runId, instanceId, run.getStatus().name(),
+                run.getFinishedNodes().get(), run.getError(), writeResult(run));
+            if (!recorded) {
+                log.warn("Run {} finished after its lease was lost; result not recorded", runId);
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to record completion of run {}", runId, e);
+        }
+    }
+
+    private ExecutionPlan loadPlan(QueuedRun queued) {
+        if (queued.definition() != null) {
+            WorkflowDefinition definition = readDefinition(queued.definition());
+            return executionEngineService.compile(definition.getNodes(),
+                definition.getEdges() != null ? definition.getEdges() : Collections.emptyList());
+        }
+        WorkflowDefinitionCache.CachedWorkflow workflow = definitionCache.get(queued.workflowId())
+            .orElseThrow(() -> new WorkflowNotFoundException("Workflow with id '" + queued.workflowId() + "' not found"));
+        return executionPlanCache.getPlan(workflow);
+    }
+
+    private WorkflowDefinition readDefinition(String json) {
+        try {
+            return workflowDefinitionReader.readValue(json);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored workflow definition is not readable", e);
+        }
+    }
+
+    private Object readInput(String json) {
+        if (json == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(json, Object.class);
+        } catch (JsonProcessingException e) {
+            // Payloads are stored verbatim; one that claimed to be JSON but isn't stays text
+            return json;
+        }
+    }
+
+    private String writeResult(ExecutionRun run) {
+        if (run.getResult() == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(run.getResult());
+        } catch (JsonProcessingException e) {
+            log.warn("Result of run {} is not serializable, storing none", run.getRunId(), e);
+            return null;
+        }
+    }
+}
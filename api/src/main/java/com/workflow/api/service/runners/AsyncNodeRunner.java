@@ -0,0 +1,25 @@
+package com.workflow.api.service.runners;
+
+import com.workflow.api.dto.ExecutionSnapshot;
+import com.workflow.api.dto.NodeRunResult;
+import com.workflow.api.dto.WorkflowNode;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Runner whose work completes asynchronously, e.g. on a non-blocking client. The
+ * engine calls {@link #runAsync} on the dispatching thread, so it must return
+ * promptly and leave the waiting to the returned future.
+ */
+public interface AsyncNodeRunner extends NodeRunner {
+
+    CompletableFuture<NodeRunResult> runAsync(WorkflowNode node, ExecutionSnapshot snapshot);
+
+    /**
+     * Blocking form for callers outside the engine, such as single-node test runs.
+     */
+    @Override
+    default NodeRunResult run(WorkflowNode node, ExecutionSnapshot snapshot) {
+        return runAsync(node, snapshot).join();
+    }
+}
@@ -3,21 +3,42 @@ package com.workflow.api.service.runners;
 import com.workflow.api.dto.ExecutionSnapshot;
 import com.workflow.api.dto.NodeRunResult;
 import com.workflow.api.dto.WorkflowNode;
+import com.workflow.api.service.script.RhinoScriptRuntime;
+import com.workflow.api.service.script.ScriptBudget;
+import com.workflow.api.service.script.ScriptBudgetExceededException;
+import com.workflow.api.service.script.ScriptValues;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import org.mozilla.javascript.Context;
+import org.mozilla.javascript.Script;
 import org.mozilla.javascript.Scriptable;
 import org.mozilla.javascript.ScriptableObject;
-import javax.script.ScriptException;
 import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
 
 @Slf4j
 @Component
+@RequiredArgsConstructor
 public class CodeNodeRunner implements NodeRunner {
     
+    private static final NodeRunnerMetadata METADATA = new NodeRunnerMetadata(
+        NodeRunnerMetadata.ExecutionClass.CPU_BOUND, true, NodeRunnerMetadata.LatencyClass.MILLISECONDS);
+    
+    private final RhinoScriptRuntime scriptRuntime;
+    
+    @Override
+    public String getType() {
+        return "CODE";
+    }
+    
+    @Override
+    public NodeRunnerMetadata getMetadata() {
+        return METADATA;
+    }
+    
     @Override
     public NodeRunResult run(WorkflowNode node, ExecutionSnapshot snapshot) {
         Map<String, Object> config = node.getData().getConfig();
@@ -34,10 +55,11 @@ public class CodeNodeRunner implements NodeRunner {
         }
         
         try {
-            // Use Rhino directly via Context API
-            Context rhinoContext = Context.enter();
+            // Shared runtime: cached compiled scripts, a sealed standard scope and a per-run budget
+            ScriptBudget budget = scriptRuntime.newBudget();
+            Context rhinoContext = scriptRuntime.enter(budget);
             try {
-                Scriptable scope = rhinoContext.initStandardObjects();
+                Scriptable scope = scriptRuntime.newScope(rhinoContext);
                 
                 // Create JavaScript-friendly snapshot
                 Map<String, Object> jsSnapshot = new HashMap<>();
@@ -46,19 +68,20 @@ public class CodeNodeRunner implements NodeRunner {
                 jsSnapshot.put("startTime", snapshot.getStartTime());
                 
                 // Put snapshot data into scope
-                ScriptableObject.putProperty(scope, "snapshot", Context.javaToJS(jsSnapshot, scope));
+                ScriptableObject.putProperty(scope, "snapshot", ScriptValues.toJs(jsSnapshot, scope));
                 
                 // Also provide $json for n8n-style expressions
                 Map<String, Object> jsonData = getLatestNodeOutput(snapshot);
-                ScriptableObject.putProperty(scope, "$json", Context.javaToJS(jsonData, scope));
-                ScriptableObject.putProperty(scope, "json", Context.javaToJS(jsonData, scope));
+                Object jsJsonData = ScriptValues.toJs(jsonData, scope);
+                ScriptableObject.putProperty(scope, "$json", jsJsonData);
+                ScriptableObject.putProperty(scope, "json", jsJsonData);
                 
                 // Execute the code
-                Object result = rhinoContext.evaluateString(scope, code, "code", 1, null);
+                Script script = scriptRuntime.compile(rhinoContext, code, "code");
+                Object result = script.exec(rhinoContext, scope);
             
                 Map<String, Object> outputs = new HashMap<>();
-                outputs.put("result", result);
-                outputs.put("inputSnapshot", snapshot);
+                outputs.put("result", ScriptValues.toJava(result));
                 outputs.put("executedAt", Instant.now().toString());
                 
                 return new NodeRunResult(
@@ -72,6 +95,27 @@ public class CodeNodeRunner implements NodeRunner {
                 Context.exit();
             }
             
+        } catch (ScriptBudgetExceededException e) {
+            log.warn("Code node {} exceeded its script budget: {}", node.getId(), e.getMessage());
+            Map<String, Object> outputs = new HashMap<>();
+            outputs.put("budget", e.getMetrics());
+            return new NodeRunResult(
+                node.getId(),
+                outputs,
+                "failed",
+                "Code execution aborted: " + e.getMessage(),
+                Instant.now().toString()
+            );
+        } catch (StackOverflowError e) {
+            // Deep recursion in the script; the stack has unwound by now
+            log.warn("Code node {} exceeded the maximum call stack depth", node.getId());
+            return new NodeRunResult(
+                node.getId(),
+                new HashMap<>(),
+                "failed",
+                "Code execution aborted: maximum call stack depth exceeded",
+                Instant.now().toString()
+            );
         } catch (org.mozilla.javascript.RhinoException e) {
             log.error("Error executing code in node: {}", node.getId(), e);
             return new NodeRunResult(
@@ -102,6 +146,7 @@ public class CodeNodeRunner implements NodeRunner {
             return new HashMap<>();
         }
         
+        // Snapshots iterate in plan order, so later nodes deterministically take precedence
         Map<String, Object> merged = new HashMap<>();
         for (Map<String, Object> outputs : nodeOutputs.values()) {
             if (outputs != null) {
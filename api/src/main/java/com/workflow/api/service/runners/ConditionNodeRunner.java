@@ -3,26 +3,46 @@ package com.workflow.api.service.runners;
 import com.workflow.api.dto.ExecutionSnapshot;
 import com.workflow.api.dto.NodeRunResult;
 import com.workflow.api.dto.WorkflowNode;
+import com.workflow.api.service.expression.CompiledCondition;
+import com.workflow.api.service.expression.ConditionExpressionCompiler;
+import com.workflow.api.service.expression.UnsupportedExpressionException;
+import com.workflow.api.service.script.RhinoScriptRuntime;
+import com.workflow.api.service.script.ScriptBudget;
+import com.workflow.api.service.script.ScriptBudgetExceededException;
+import com.workflow.api.service.script.ScriptValues;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import org.mozilla.javascript.Context;
+import org.mozilla.javascript.Script;
 import org.mozilla.javascript.Scriptable;
 import org.mozilla.javascript.ScriptableObject;
-import javax.script.ScriptEngine;
-import javax.script.ScriptEngineFactory;
-import javax.script.ScriptEngineManager;
-import javax.script.ScriptException;
 import java.time.Instant;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @Slf4j
 @Component
+@RequiredArgsConstructor
 public class ConditionNodeRunner implements NodeRunner {
     
-    private final ScriptEngineManager scriptEngineManager = new ScriptEngineManager();
+    private static final NodeRunnerMetadata METADATA = new NodeRunnerMetadata(
+        NodeRunnerMetadata.ExecutionClass.CPU_BOUND, true, NodeRunnerMetadata.LatencyClass.MICROSECONDS);
+    
+    private final RhinoScriptRuntime scriptRuntime;
+    private final ConditionExpressionCompiler conditionExpressionCompiler;
+    
+    @Override
+    public String getType() {
+        return "CONDITION";
+    }
+    
+    @Override
+    public NodeRunnerMetadata getMetadata() {
+        return METADATA;
+    }
     
     @Override
     public NodeRunResult run(WorkflowNode node, ExecutionSnapshot snapshot) {
@@ -40,33 +60,39 @@ public class ConditionNodeRunner implements NodeRunner {
         }
         
         try {
+            // Fast path: the common comparison subset is evaluated natively, without a script context
+            Optional<CompiledCondition> compiled = conditionExpressionCompiler.compile(expression);
+            if (compiled.isPresent()) {
+                try {
+                    return conditionResult(node, expression, compiled.get().test(getLatestNodeOutput(snapshot)));
+                } catch (UnsupportedExpressionException e) {
+                    log.debug("Evaluating condition of node {} with the script engine: {}", node.getId(), e.getMessage());
+                }
+            }
+            
             // Prepare expression - remove {{ }} if present and extract the inner expression
-            String cleanExpression = cleanExpression(expression);
+            String cleanExpression = ConditionExpressionCompiler.cleanExpression(expression);
             
-            // Use Rhino directly via Context API
-            Context rhinoContext = Context.enter();
+            // Shared runtime: cached compiled scripts, a sealed standard scope and a per-run budget
+            ScriptBudget budget = scriptRuntime.newBudget();
+            Context rhinoContext = scriptRuntime.enter(budget);
             try {
-                Scriptable scope = rhinoContext.initStandardObjects();
+                Scriptable scope = scriptRuntime.newScope(rhinoContext);
                 
                 // Create JavaScript-friendly snapshot
                 Map<String, Object> jsSnapshot = createJsSnapshot(snapshot);
                 
                 // Put snapshot data into scope
-                ScriptableObject.putProperty(scope, "snapshot", Context.javaToJS(jsSnapshot, scope));
+                ScriptableObject.putProperty(scope, "snapshot", ScriptValues.toJs(jsSnapshot, scope));
                 
                 // Also provide json variable (we replace $json with json in the expression)
                 Map<String, Object> jsonData = getLatestNodeOutput(snapshot);
                 
-                // Log the json data structure for debugging
-                log.debug("JSON data structure: {}", jsonData);
+                // Log the json data keys for debugging (not the values, which may be large response bodies)
                 log.debug("JSON data keys: {}", jsonData.keySet());
-                if (jsonData.containsKey("response")) {
-                    log.debug("Response object: {}", jsonData.get("response"));
-                }
                 
-                // Convert Java Map to JavaScript object recursively
-                // Context.javaToJS doesn't always handle nested Maps correctly, so we'll do it manually
-                Object jsJsonData = convertToJavaScriptObject(jsonData, rhinoContext, scope);
+                // Wrap lazily: properties are converted only when the expression reads them
+                Object jsJsonData = ScriptValues.toJs(jsonData, scope);
                 
                 // Set json variable (the expression will use 'json' instead of '$json')
                 ScriptableObject.putProperty(scope, "json", jsJsonData);
@@ -76,28 +102,36 @@ public class ConditionNodeRunner implements NodeRunner {
                 log.debug("Cleaned expression: {}", cleanExpression);
                 
                 // Evaluate the expression
-                Object result = rhinoContext.evaluateString(scope, cleanExpression, "condition", 1, null);
+                Script script = scriptRuntime.compile(rhinoContext, cleanExpression, "condition");
+                Object result = script.exec(rhinoContext, scope);
                 
                 // Convert result to boolean
-                boolean conditionMet = Context.toBoolean(result);
-            
-                Map<String, Object> outputs = new HashMap<>();
-                outputs.put("expression", expression);
-                outputs.put("result", conditionMet);
-                outputs.put("branch", conditionMet ? "true" : "false");
-                outputs.put("evaluatedAt", Instant.now().toString());
-                
-                return new NodeRunResult(
-                    node.getId(),
-                    outputs,
-                    "success",
-                    null,
-                    Instant.now().toString()
-                );
+                return conditionResult(node, expression, Context.toBoolean(result));
             } finally {
                 Context.exit();
             }
             
+        } catch (ScriptBudgetExceededException e) {
+            log.warn("Condition node {} exceeded its script budget: {}", node.getId(), e.getMessage());
+            Map<String, Object> outputs = new HashMap<>();
+            outputs.put("budget", e.getMetrics());
+            return new NodeRunResult(
+                node.getId(),
+                outputs,
+                "failed",
+                "Condition evaluation aborted: " + e.getMessage(),
+                Instant.now().toString()
+            );
+        } catch (StackOverflowError e) {
+            // Deep recursion in the script; the stack has unwound by now
+            log.warn("Condition node {} exceeded the maximum call stack depth", node.getId());
+            return new NodeRunResult(
+                node.getId(),
+                new HashMap<>(),
+                "failed",
+                "Condition evaluation aborted: maximum call stack depth exceeded",
+                Instant.now().toString()
+            );
         } catch (org.mozilla.javascript.RhinoException e) {
             log.error("Error evaluating condition expression: {}", expression, e);
             
@@ -126,6 +160,22 @@ public class ConditionNodeRunner implements NodeRunner {
         }
     }
     
+    private NodeRunResult conditionResult(WorkflowNode node, String expression, boolean conditionMet) {
+        Map<String, Object> outputs = new HashMap<>();
+        outputs.put("expression", expression);
+        outputs.put("result", conditionMet);
+        outputs.put("branch", conditionMet ? "true" : "false");
+        outputs.put("evaluatedAt", Instant.now().toString());
+        
+        return new NodeRunResult(
+            node.getId(),
+            outputs,
+            "success",
+            null,
+            Instant.now().toString()
+        );
+    }
+    
     /**
      * Creates a JavaScript-friendly representation of the snapshot.
      * The snapshot object will have:
@@ -141,42 +191,6 @@ public class ConditionNodeRunner implements NodeRunner {
         return jsSnapshot;
     }
     
-    /**
-     * Converts a Java Map/List to a JavaScript object/array recursively.
-     * This ensures nested structures are properly accessible in JavaScript.
-     */
-    private Object convertToJavaScriptObject(Object obj, Context context, Scriptable scope) {
-        if (obj == null) {
-            return null;
-        }
-        
-        if (obj instanceof Map) {
-            @SuppressWarnings("unchecked")
-            Map<String, Object> map = (Map<String, Object>) obj;
-            Scriptable jsObject = context.newObject(scope);
-            
-            for (Map.Entry<String, Object> entry : map.entrySet()) {
-                Object jsValue = convertToJavaScriptObject(entry.getValue(), context, scope);
-                ScriptableObject.putProperty(jsObject, entry.getKey(), jsValue);
-            }
-            
-            return jsObject;
-        } else if (obj instanceof List) {
-            @SuppressWarnings("unchecked")
-            List<Object> list = (List<Object>) obj;
-            Object[] array = new Object[list.size()];
-            
-            for (int i = 0; i < list.size(); i++) {
-                array[i] = convertToJavaScriptObject(list.get(i), context, scope);
-            }
-            
-            return context.newArray(scope, array);
-        } else {
-            // For primitives and other types, use standard conversion
-            return Context.javaToJS(obj, scope);
-        }
-    }
-    
     /**
      * Gets the latest node output for $json variable.
      * Returns the most recent node's outputs, or empty map if none available.
@@ -188,8 +202,7 @@ public class ConditionNodeRunner implements NodeRunner {
             return new HashMap<>();
         }
         
-        // Get the most recent node output (last in the map)
-        // In practice, we'll merge all outputs with later ones taking precedence
+        // Merge all outputs in plan order, nodes later in the plan taking precedence
         Map<String, Object> merged = new HashMap<>();
         for (Map<String, Object> outputs : nodeOutputs.values()) {
             if (outputs != null) {
@@ -202,22 +215,4 @@ public class ConditionNodeRunner implements NodeRunner {
         // The structure will be: { response: { data: [...] }, request: {...}, ... }
         return merged;
     }
-    
-    /**
-     * Cleans the expression by removing n8n-style {{ }} wrappers if present.
-     * Also replaces $json with json since $ at the start of identifiers can cause parsing issues in some JS engines.
-     */
-    private String cleanExpression(String expression) {
-        if (expression == null) return "";
-        String trimmed = expression.trim();
-        
-        // Remove all occurrences of {{ and }} (not just at start/end)
-        // This handles cases like: {{ $json.response.status }} == 200
-        trimmed = trimmed.replace("{{", "").replace("}}", "").trim();
-        
-        // Replace $json with json (Rhino has issues with $ at start of identifier)
-        trimmed = trimmed.replace("$json", "json");
-        
-        return trimmed;
-    }
 }
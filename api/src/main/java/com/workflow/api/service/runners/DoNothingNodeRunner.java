@@ -12,11 +12,23 @@ import java.util.Map;
 @Component
 public class DoNothingNodeRunner implements NodeRunner {
     
+    private static final NodeRunnerMetadata METADATA = new NodeRunnerMetadata(
+        NodeRunnerMetadata.ExecutionClass.INLINE, true, NodeRunnerMetadata.LatencyClass.MICROSECONDS);
+    
+    @Override
+    public String getType() {
+        return "DO_NOTHING";
+    }
+    
+    @Override
+    public NodeRunnerMetadata getMetadata() {
+        return METADATA;
+    }
+    
     @Override
     public NodeRunResult run(WorkflowNode node, ExecutionSnapshot snapshot) {
         Map<String, Object> outputs = new HashMap<>();
         outputs.put("note", "No operation performed");
-        outputs.put("snapshot", snapshot);
         outputs.put("executedAt", Instant.now().toString());
         
         return new NodeRunResult(
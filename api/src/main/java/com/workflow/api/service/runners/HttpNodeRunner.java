@@ -1,48 +1,113 @@
 package com.workflow.api.service.runners;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.workflow.api.dto.ExecutionSnapshot;
 import com.workflow.api.dto.NodeRunResult;
 import com.workflow.api.dto.WorkflowNode;
+import com.workflow.api.service.http.CapturedBody;
+import com.workflow.api.service.http.HostCircuitBreaker;
+import com.workflow.api.service.http.HostConcurrencyLimiter;
+import com.workflow.api.service.http.ResponseBodyCapture;
+import com.workflow.api.service.http.ResponseTooLargeException;
+import com.workflow.api.service.http.RetryDefaults;
+import com.workflow.api.service.http.RetryPolicy;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.http.*;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.HttpClientErrorException;
-import org.springframework.web.client.HttpServerErrorException;
-import org.springframework.web.client.RestClientException;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
 
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Slf4j
 @Component
-public class HttpNodeRunner implements NodeRunner {
+public class HttpNodeRunner implements AsyncNodeRunner {
     
-    private final RestTemplate restTemplate;
+    private static final NodeRunnerMetadata METADATA = new NodeRunnerMetadata(
+        NodeRunnerMetadata.ExecutionClass.NON_BLOCKING, false, NodeRunnerMetadata.LatencyClass.SECONDS);
     
-    public HttpNodeRunner(RestTemplate restTemplate) {
-        this.restTemplate = restTemplate;
+    private static final Set<String> SUPPORTED_METHODS = Set.of("GET", "POST", "PUT", "PATCH", "DELETE");
+    
+    private static final int DEFAULT_TIMEOUT_MS = 30000;
+    
+    // Managed by the HTTP client itself; setting them on a request is rejected
+    private static final Set<String> RESTRICTED_HEADERS = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+    
+    static {
+        RESTRICTED_HEADERS.addAll(Set.of("Connection", "Content-Length", "Expect", "Host", "Upgrade"));
+    }
+    
+    private final HttpClient httpClient;
+    private final HostConcurrencyLimiter hostConcurrencyLimiter;
+    private final HostCircuitBreaker hostCircuitBreaker;
+    private final RetryDefaults retryDefaults;
+    private final ResponseBodyCapture responseBodyCapture;
+    private final ObjectMapper objectMapper;
+    
+    public HttpNodeRunner(HttpClient httpClient, HostConcurrencyLimiter hostConcurrencyLimiter,
+                          HostCircuitBreaker hostCircuitBreaker, RetryDefaults retryDefaults,
+                          ResponseBodyCapture responseBodyCapture, ObjectMapper objectMapper) {
+        this.httpClient = httpClient;
+        this.hostConcurrencyLimiter = hostConcurrencyLimiter;
+        this.hostCircuitBreaker = hostCircuitBreaker;
+        this.retryDefaults = retryDefaults;
+        this.responseBodyCapture = responseBodyCapture;
+        this.objectMapper = objectMapper;
     }
     
     @Override
-    public NodeRunResult run(WorkflowNode node, ExecutionSnapshot snapshot) {
+    public String getType() {
+        return "HTTP_REQUEST";
+    }
+    
+    @Override
+    public NodeRunnerMetadata getMetadata() {
+        return METADATA;
+    }
+    
+    @Override
+    public CompletableFuture<NodeRunResult> runAsync(WorkflowNode node, ExecutionSnapshot snapshot) {
         Map<String, Object> config = node.getData().getConfig();
         String url = (String) config.get("url");
         
         if (url == null || url.trim().isEmpty()) {
-            return new NodeRunResult(
+            return CompletableFuture.completedFuture(new NodeRunResult(
                 node.getId(),
                 new HashMap<>(),
                 "failed",
                 "URL is required",
                 Instant.now().toString()
-            );
+            ));
         }
         
         String method = (String) config.getOrDefault("method", "POST");
-        Integer timeoutMs = (Integer) config.getOrDefault("timeoutMs", 30000);
+        Integer timeoutMs = timeoutMs(config.getOrDefault("timeoutMs", DEFAULT_TIMEOUT_MS));
+        if (timeoutMs == null) {
+            return CompletableFuture.completedFuture(new NodeRunResult(
+                node.getId(),
+                new HashMap<>(),
+                "failed",
+                "Invalid timeoutMs: " + config.get("timeoutMs") + " (expected a positive number of milliseconds)",
+                Instant.now().toString()
+            ));
+        }
         
         @SuppressWarnings("unchecked")
         Map<String, String> headers = (Map<String, String>) config.getOrDefault("headers", new HashMap<>());
@@ -50,105 +115,289 @@ public class HttpNodeRunner implements NodeRunner {
         Map<String, String> query = (Map<String, String>) config.getOrDefault("query", new HashMap<>());
         Object body = config.get("body");
         
+        if (!SUPPORTED_METHODS.contains(method.toUpperCase())) {
+            return CompletableFuture.completedFuture(new NodeRunResult(
+                node.getId(),
+                new HashMap<>(),
+                "failed",
+                "Unsupported HTTP method: " + method,
+                Instant.now().toString()
+            ));
+        }
+        
+        URI uri;
+        HttpRequest request;
         try {
-            HttpHeaders httpHeaders = new HttpHeaders();
-            headers.forEach(httpHeaders::set);
-            if (!httpHeaders.containsKey(HttpHeaders.CONTENT_TYPE)) {
-                httpHeaders.setContentType(MediaType.APPLICATION_JSON);
-            }
-            
             // Build URL with query parameters
-            String fullUrl = url;
-            if (!query.isEmpty()) {
-                StringBuilder queryString = new StringBuilder();
-                query.forEach((key, value) -> {
-                    if (queryString.length() > 0) {
-                        queryString.append("&");
-                    }
-                    queryString.append(key).append("=").append(value);
-                });
-                fullUrl = url + (url.contains("?") ? "&" : "?") + queryString;
-            }
+            UriComponentsBuilder uriBuilder = UriComponentsBuilder.fromUriString(url);
+            query.forEach(uriBuilder::queryParam);
+            uri = uriBuilder.build().encode().toUri();
             
-            HttpEntity<Object> requestEntity = new HttpEntity<>(body, httpHeaders);
-            ResponseEntity<Object> response;
+            HttpRequest.Builder requestBuilder = HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofMillis(timeoutMs))
+                .method(method.toUpperCase(), bodyPublisher(body));
             
-            switch (method.toUpperCase()) {
-                case "GET":
-                    response = restTemplate.exchange(fullUrl, HttpMethod.GET, requestEntity, Object.class);
-                    break;
-                case "POST":
-                    response = restTemplate.exchange(fullUrl, HttpMethod.POST, requestEntity, Object.class);
-                    break;
-                case "PUT":
-                    response = restTemplate.exchange(fullUrl, HttpMethod.PUT, requestEntity, Object.class);
-                    break;
-                case "PATCH":
-                    response = restTemplate.exchange(fullUrl, HttpMethod.PATCH, requestEntity, Object.class);
-                    break;
-                case "DELETE":
-                    response = restTemplate.exchange(fullUrl, HttpMethod.DELETE, requestEntity, Object.class);
-                    break;
-                default:
-                    return new NodeRunResult(
-                        node.getId(),
-                        new HashMap<>(),
-                        "failed",
-                        "Unsupported HTTP method: " + method,
-                        Instant.now().toString()
-                    );
+            boolean hasContentType = false;
+            for (Map.Entry<String, String> header : headers.entrySet()) {
+                if (RESTRICTED_HEADERS.contains(header.getKey())) {
+                    log.debug("Skipping restricted header {} on node {}", header.getKey(), node.getId());
+                    continue;
+                }
+                requestBuilder.header(header.getKey(), header.getValue());
+                hasContentType |= "Content-Type".equalsIgnoreCase(header.getKey());
+            }
+            if (!hasContentType) {
+                requestBuilder.header("Content-Type", "application/json");
+            }
+            request = requestBuilder.build();
+        } catch (IllegalArgumentException | IOException e) {
+            return CompletableFuture.completedFuture(createErrorResult(node, url, method, headers, query, body,
+                timeoutMs, 0, e.getMessage(), null));
+        }
+        
+        RetryPolicy retryPolicy = RetryPolicy.forNode(config, method.toUpperCase(), retryDefaults);
+        return attempt(new Call(node, snapshot.getRunId(), uri, request, url, method, headers, query, body,
+            timeoutMs, retryPolicy), 1);
+    }
+    
+    /**
+     * Makes one attempt and, if it failed in a retryable way and attempts are left,
+     * schedules the next one after the policy's backoff. Waiting for a retry holds no
+     * thread either.
+     */
+    private CompletableFuture<NodeRunResult> attempt(Call call, int attempt) {
+        Optional<HostCircuitBreaker.Permit> permit = hostCircuitBreaker.tryAcquire(call.uri());
+        if (permit.isEmpty()) {
+            NodeRunResult rejected = createErrorResult(call.node(), call.url(), call.method(), call.headers(),
+                call.query(), call.body(), call.timeoutMs(), 0,
+                "Circuit open for " + call.uri().getHost() + ", not sending request", null);
+            rejected.getOutputs().put("attempts", attempt - 1);
+            return CompletableFuture.completedFuture(rejected);
+        }
+        
+        return send(call).thenCompose(outcome -> {
+            switch (outcome.health()) {
+                case HEALTHY -> hostCircuitBreaker.onSuccess(permit.get());
+                case UNHEALTHY -> hostCircuitBreaker.onFailure(permit.get());
+                case UNKNOWN -> hostCircuitBreaker.onIgnored(permit.get());
             }
             
-            Map<String, Object> outputs = new HashMap<>();
-            Map<String, Object> requestInfo = new HashMap<>();
-            requestInfo.put("url", url);
-            requestInfo.put("method", method);
-            requestInfo.put("headers", headers);
-            requestInfo.put("query", query);
-            requestInfo.put("body", body);
-            requestInfo.put("timeoutMs", timeoutMs);
-            
-            Map<String, Object> responseInfo = new HashMap<>();
-            HttpStatusCode statusCode = response.getStatusCode();
-            responseInfo.put("status", statusCode.value());
-            // Get status text - HttpStatus has getReasonPhrase(), otherwise use default
-            String statusText = statusCode instanceof HttpStatus 
-                ? ((HttpStatus) statusCode).getReasonPhrase() 
-                : "OK";
-            responseInfo.put("statusText", statusText);
-            responseInfo.put("data", response.getBody());
-            
-            Map<String, String> responseHeaders = new HashMap<>();
-            response.getHeaders().forEach((key, values) -> {
-                if (!values.isEmpty()) {
-                    responseHeaders.put(key, values.get(0));
+            if (outcome.retryable() && call.retryPolicy().canRetry(attempt)) {
+                Duration delay = call.retryPolicy().backoff(attempt, outcome.retryAfter());
+                log.debug("Attempt {} of node {} failed ({}), retrying in {} ms", attempt, call.node().getId(),
+                    outcome.result().getError(), delay.toMillis());
+                Executor delayed = CompletableFuture.delayedExecutor(delay.toMillis(), TimeUnit.MILLISECONDS);
+                return CompletableFuture.runAsync(() -> { }, delayed)
+                    .thenCompose(ignored -> attempt(call, attempt + 1));
+            }
+            outcome.result().getOutputs().put("attempts", attempt);
+            return CompletableFuture.completedFuture(outcome.result());
+        });
+    }
+    
+    /**
+     * Makes one attempt. {@code timeoutMs} bounds the whole attempt: time spent waiting
+     * for a host slot is taken off the time the request gets.
+     */
+    private CompletableFuture<Outcome> send(Call call) {
+        URI uri = call.uri();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(call.timeoutMs());
+        // Neither waiting for a host slot nor waiting for the response holds a thread
+        return hostConcurrencyLimiter.acquire(uri)
+            .orTimeout(call.timeoutMs(), TimeUnit.MILLISECONDS)
+            .thenCompose(slot -> {
+                long remainingNanos = deadline - System.nanoTime();
+                if (remainingNanos <= 0) {
+                    hostConcurrencyLimiter.release(uri);
+                    return CompletableFuture.<HttpResponse<CapturedBody>>failedFuture(new TimeoutException());
+                }
+                HttpRequest request = HttpRequest.newBuilder(call.request(), (name, value) -> true)
+                    .timeout(Duration.ofNanos(remainingNanos))
+                    .build();
+                return httpClient.sendAsync(request, responseBodyCapture.handler(call.runId(), call.node().getId()))
+                    .whenComplete((response, error) -> hostConcurrencyLimiter.release(uri));
+            })
+            .handle((response, error) -> {
+                if (error == null) {
+                    int statusCode = response.statusCode();
+                    boolean retryable = call.retryPolicy().isRetryableStatus(statusCode);
+                    return new Outcome(
+                        toResult(call.node(), call.url(), call.method(), call.headers(), call.query(), call.body(),
+                            call.timeoutMs(), response),
+                        statusCode >= 500 || statusCode == 429 ? Health.UNHEALTHY : Health.HEALTHY,
+                        retryable,
+                        retryable ? retryAfter(response) : null
+                    );
+                }
+                Throwable cause = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause()
+                    : error;
+                String message;
+                Health health;
+                boolean retryable;
+                if (cause instanceof TimeoutException) {
+                    // Never got a slot; says nothing about the host and retrying would queue again
+                    message = "Too many concurrent requests to " + uri.getHost();
+                    health = Health.UNKNOWN;
+                    retryable = false;
+                } else if (cause instanceof HttpTimeoutException) {
+                    message = "Request timed out after " + call.timeoutMs() + " ms";
+                    health = Health.UNHEALTHY;
+                    retryable = true;
+                } else if (cause instanceof ResponseTooLargeException) {
+                    message = cause.getMessage();
+                    health = Health.UNKNOWN;
+                    retryable = false;
+                } else {
+                    message = cause.getMessage();
+                    // Connection refused, reset and the like
+                    health = cause instanceof IOException ? Health.UNHEALTHY : Health.UNKNOWN;
+                    retryable = cause instanceof IOException;
                 }
+                return new Outcome(
+                    createErrorResult(call.node(), call.url(), call.method(), call.headers(), call.query(),
+                        call.body(), call.timeoutMs(), 0, message, null),
+                    health,
+                    retryable,
+                    null
+                );
             });
-            responseInfo.put("headers", responseHeaders);
-            
-            outputs.put("request", requestInfo);
-            outputs.put("response", responseInfo);
-            outputs.put("snapshot", snapshot);
-            
-            return new NodeRunResult(
-                node.getId(),
-                outputs,
-                "success",
-                null,
-                Instant.now().toString()
-            );
-            
-        } catch (HttpClientErrorException | HttpServerErrorException e) {
-            return createErrorResult(node, snapshot, url, method, headers, query, body, timeoutMs, 
-                e.getStatusCode().value(), e.getStatusText(), e.getResponseBodyAsString());
-        } catch (RestClientException e) {
-            return createErrorResult(node, snapshot, url, method, headers, query, body, timeoutMs, 
-                0, e.getMessage(), null);
+    }
+    
+    /**
+     * Timeout from node config, accepting numbers and numeric strings such as
+     * {@code "5000"}. Returns {@code null} for anything else, or for values that are
+     * not positive.
+     */
+    private static Integer timeoutMs(Object value) {
+        long millis;
+        if (value instanceof Number number) {
+            millis = number.longValue();
+        } else if (value instanceof String text) {
+            try {
+                millis = Long.parseLong(text.trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        } else {
+            return null;
         }
+        return millis > 0 && millis <= Integer.MAX_VALUE ? (int) millis : null;
+    }
+    
+    /**
+     * Retry-After in seconds; the HTTP-date form is ignored.
+     */
+    private static Duration retryAfter(HttpResponse<?> response) {
+        return response.headers().firstValue("Retry-After")
+            .map(String::trim)
+            .filter(value -> value.chars().allMatch(Character::isDigit) && !value.isEmpty())
+            .map(value -> Duration.ofSeconds(Long.parseLong(value)))
+            .orElse(null);
     }
     
-    private NodeRunResult createErrorResult(WorkflowNode node, ExecutionSnapshot snapshot, 
-                                          String url, String method, Map<String, String> headers,
+    private NodeRunResult toResult(WorkflowNode node, String url, String method,
+                                   Map<String, String> headers, Map<String, String> query,
+                                   Object body, Integer timeoutMs, HttpResponse<CapturedBody> response) {
+        int statusCode = response.statusCode();
+        HttpStatus status = HttpStatus.resolve(statusCode);
+        String statusText = status != null ? status.getReasonPhrase() : "";
+        
+        if (statusCode >= 400) {
+            CapturedBody errorBody = response.body();
+            String errorData = errorBody.isSpilled()
+                ? "<" + errorBody.size() + " bytes stored in " + errorBody.file() + ">"
+                : new String(errorBody.bytes(), StandardCharsets.UTF_8);
+            return createErrorResult(node, url, method, headers, query, body, timeoutMs,
+                statusCode, statusText, errorData);
+        }
+        
+        Map<String, Object> outputs = new HashMap<>();
+        Map<String, Object> requestInfo = new HashMap<>();
+        requestInfo.put("url", url);
+        requestInfo.put("method", method);
+        requestInfo.put("headers", headers);
+        requestInfo.put("query", query);
+        requestInfo.put("body", body);
+        requestInfo.put("timeoutMs", timeoutMs);
+        
+        Map<String, Object> responseInfo = new HashMap<>();
+        responseInfo.put("status", statusCode);
+        responseInfo.put("statusText", statusText);
+        if (response.body().isSpilled()) {
+            // Too large to keep in the run's outputs; later nodes only see what was received
+            responseInfo.put("data", null);
+            responseInfo.put("bodyFile", bodyFileHandle(response));
+        } else {
+            responseInfo.put("data", readBody(response));
+        }
+        
+        Map<String, String> responseHeaders = new HashMap<>();
+        response.headers().map().forEach((key, values) -> {
+            if (!values.isEmpty()) {
+                responseHeaders.put(key, values.get(0));
+            }
+        });
+        responseInfo.put("headers", responseHeaders);
+        
+        outputs.put("request", requestInfo);
+        outputs.put("response", responseInfo);
+        
+        return new NodeRunResult(
+            node.getId(),
+            outputs,
+            "success",
+            null,
+            Instant.now().toString()
+        );
+    }
+    
+    /**
+     * Strings are sent as-is, anything else is serialized as JSON.
+     */
+    private HttpRequest.BodyPublisher bodyPublisher(Object body) throws IOException {
+        if (body == null) {
+            return HttpRequest.BodyPublishers.noBody();
+        }
+        if (body instanceof String text) {
+            return HttpRequest.BodyPublishers.ofString(text);
+        }
+        return HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body));
+    }
+    
+    /**
+     * Describes a spilled body without its path. Outputs are checkpointed and kept in
+     * the history, while the file is deleted with the rest of the run's files when the
+     * run ends, so a path would dangle in resumed runs and stored results.
+     */
+    private Map<String, Object> bodyFileHandle(HttpResponse<CapturedBody> response) {
+        Map<String, Object> handle = new HashMap<>();
+        handle.put("size", response.body().size());
+        handle.put("contentType", response.headers().firstValue("Content-Type").orElse(null));
+        return handle;
+    }
+    
+    /**
+     * JSON responses are parsed into maps and lists, anything else is returned as text.
+     */
+    private Object readBody(HttpResponse<CapturedBody> response) {
+        byte[] bytes = response.body().bytes();
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        String contentType = response.headers().firstValue("Content-Type").orElse("");
+        if (contentType.contains("json")) {
+            try {
+                return objectMapper.readValue(bytes, Object.class);
+            } catch (IOException e) {
+                log.debug("Response from {} is not valid JSON, returning it as text", response.uri());
+            }
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    private NodeRunResult createErrorResult(WorkflowNode node, String url, String method,
+                                          Map<String, String> headers,
                                           Map<String, String> query, Object body, Integer timeoutMs,
                                           int statusCode, String statusText, String responseData) {
         Map<String, Object> outputs = new HashMap<>();
@@ -168,7 +417,6 @@ public class HttpNodeRunner implements NodeRunner {
         
         outputs.put("request", requestInfo);
         outputs.put("response", responseInfo);
-        outputs.put("snapshot", snapshot);
         
         return new NodeRunResult(
             node.getId(),
@@ -178,4 +426,14 @@ public class HttpNodeRunner implements NodeRunner {
             Instant.now().toString()
         );
     }
+    
+    private enum Health { HEALTHY, UNHEALTHY, UNKNOWN }
+    
+    private record Call(WorkflowNode node, String runId, URI uri, HttpRequest request, String url, String method,
+                        Map<String, String> headers, Map<String, String> query, Object body, Integer timeoutMs,
+                        RetryPolicy retryPolicy) {
+    }
+    
+    private record Outcome(NodeRunResult result, Health health, boolean retryable, Duration retryAfter) {
+    }
 }
@@ -5,5 +5,15 @@ import com.workflow.api.dto.NodeRunResult;
 import com.workflow.api.dto.WorkflowNode;
 
 public interface NodeRunner {
+    /**
+     * Node type handled by this runner, e.g. {@code HTTP_REQUEST}.
+     */
+    String getType();
+
+    /**
+     * How the runner behaves; the engine uses it to pick an executor for the node.
+     */
+    NodeRunnerMetadata getMetadata();
+
     NodeRunResult run(WorkflowNode node, ExecutionSnapshot snapshot);
 }
@@ -0,0 +1,26 @@
+package com.workflow.api.service.runners;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class NodeRunnerMetadata {
+
+    public enum ExecutionClass {
+        /** Finishes in microseconds without blocking; runs on the dispatching thread. */
+        INLINE,
+        /** Keeps a core busy while it runs. */
+        CPU_BOUND,
+        /** Spends most of its time waiting on the network or disk. */
+        BLOCKING_IO,
+        /** Starts its work on the dispatching thread and completes a future; holds no thread while waiting. */
+        NON_BLOCKING
+    }
+
+    public enum LatencyClass { MICROSECONDS, MILLISECONDS, SECONDS }
+
+    private final ExecutionClass executionClass;
+    private final boolean idempotent;
+    private final LatencyClass latencyClass;
+}
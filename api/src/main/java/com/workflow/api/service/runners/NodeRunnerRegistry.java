@@ -0,0 +1,82 @@
+package com.workflow.api.service.runners;
+
+import com.workflow.api.dto.ExecutionSnapshot;
+import com.workflow.api.dto.NodeRunResult;
+import com.workflow.api.dto.WorkflowNode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Looks up runners by node type. Every {@link NodeRunner} bean is registered under
+ * the type it declares, so adding a node type only needs a new runner component.
+ */
+@Slf4j
+@Component
+public class NodeRunnerRegistry {
+
+    private final Map<String, NodeRunner> runners;
+
+    public NodeRunnerRegistry(List<NodeRunner> nodeRunners) {
+        Map<String, NodeRunner> byType = new HashMap<>();
+        for (NodeRunner runner : nodeRunners) {
+            NodeRunner existing = byType.putIfAbsent(runner.getType(), runner);
+            if (existing != null) {
+                throw new IllegalStateException("Node type " + runner.getType() + " is handled by both "
+                    + existing.getClass().getSimpleName() + " and " + runner.getClass().getSimpleName());
+            }
+        }
+        this.runners = Map.copyOf(byType);
+        log.info("Registered node runners for types: {}", new TreeSet<>(runners.keySet()));
+    }
+
+    public Optional<NodeRunner> find(String nodeType) {
+        return Optional.ofNullable(nodeType != null ? runners.get(nodeType) : null);
+    }
+
+    /**
+     * Returns the runner for a node type, or one that fails the node if the type is unknown.
+     */
+    public NodeRunner resolve(String nodeType) {
+        return find(nodeType).orElseGet(() -> new UnknownNodeRunner(nodeType));
+    }
+
+    public Set<String> getTypes() {
+        return runners.keySet();
+    }
+
+    private static final class UnknownNodeRunner implements NodeRunner {
+
+        private static final NodeRunnerMetadata METADATA = new NodeRunnerMetadata(
+            NodeRunnerMetadata.ExecutionClass.INLINE, true, NodeRunnerMetadata.LatencyClass.MICROSECONDS);
+
+        private final String nodeType;
+
+        private UnknownNodeRunner(String nodeType) {
+            this.nodeType = nodeType;
+        }
+
+        @Override
+        public String getType() {
+            return nodeType;
+        }
+
+        @Override
+        public NodeRunnerMetadata getMetadata() {
+            return METADATA;
+        }
+
+        @Override
+        public NodeRunResult run(WorkflowNode node, ExecutionSnapshot snapshot) {
+            return new NodeRunResult(
+                node.getId(),
+                new HashMap<>(),
+                "failed",
+                "Unknown node type: " + nodeType,
+                Instant.now().toString()
+            );
+        }
+    }
+}
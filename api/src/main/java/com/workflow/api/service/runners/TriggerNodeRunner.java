@@ -12,6 +12,19 @@ import java.util.Map;
 @Component
 public class TriggerNodeRunner implements NodeRunner {
     
+    private static final NodeRunnerMetadata METADATA = new NodeRunnerMetadata(
+        NodeRunnerMetadata.ExecutionClass.INLINE, true, NodeRunnerMetadata.LatencyClass.MICROSECONDS);
+    
+    @Override
+    public String getType() {
+        return "TRIGGER";
+    }
+    
+    @Override
+    public NodeRunnerMetadata getMetadata() {
+        return METADATA;
+    }
+    
     @Override
     public NodeRunResult run(WorkflowNode node, ExecutionSnapshot snapshot) {
         Map<String, Object> config = node.getData().getConfig();
@@ -20,7 +33,9 @@ public class TriggerNodeRunner implements NodeRunner {
         Map<String, Object> outputs = new HashMap<>();
         outputs.put("triggerType", triggerType);
         outputs.put("triggeredAt", Instant.now().toString());
-        outputs.put("snapshot", snapshot);
+        if (snapshot.getInput() != null) {
+            outputs.put("input", snapshot.getInput());
+        }
         
         return new NodeRunResult(
             node.getId(),
@@ -0,0 +1,108 @@
+package com.workflow.api.service.schedule;
+
+import com.workflow.api.dto.WorkflowDefinition;
+import com.workflow.api.dto.WorkflowNode;
+import org.springframework.scheduling.support.CronExpression;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Schedule of a workflow, taken from its TRIGGER node when {@code triggerType} is
+ * {@code SCHEDULE}. The node config holds the cron expression ({@code cron}, or
+ * {@code cronExpression} as written by the designer's schedule trigger) in the usual
+ * five-field form or Spring's six-field form with seconds, an optional
+ * {@code timezone} (default UTC) and an optional {@code misfirePolicy}.
+ */
+record CronSchedule(String workflowId, String expression, CronExpression cron, ZoneId zone,
+                    MisfirePolicy misfirePolicy) {
+
+    static final String TRIGGER_NODE_TYPE = "TRIGGER";
+    static final String TRIGGER_TYPE_KEY = "triggerType";
+    static final String SCHEDULE_TRIGGER_TYPE = "SCHEDULE";
+
+    /**
+     * What to do about fire times that passed while nobody owned the schedule.
+     */
+    enum MisfirePolicy {
+        /** Fire once for all missed times, then continue from now. */
+        FIRE_ONCE,
+        /** Drop missed times and continue from now. */
+        SKIP
+    }
+
+    /**
+     * @throws IllegalArgumentException if the trigger's schedule is invalid
+     */
+    static Optional<CronSchedule> from(String workflowId, WorkflowDefinition definition) {
+        if (definition.getNodes() == null) {
+            return Optional.empty();
+        }
+        for (WorkflowNode node : definition.getNodes()) {
+            if (!TRIGGER_NODE_TYPE.equals(node.getType()) || node.getData() == null
+                    || node.getData().getConfig() == null) {
+                continue;
+            }
+            Map<String, Object> config = node.getData().getConfig();
+            if (!SCHEDULE_TRIGGER_TYPE.equals(config.get(TRIGGER_TYPE_KEY))) {
+                continue;
+            }
+            Object expression = config.containsKey("cron") ? config.get("cron") : config.get("cronExpression");
+            if (!(expression instanceof String text) || text.isBlank()) {
+                throw new IllegalArgumentException("Schedule trigger has no cron expression");
+            }
+            return Optional.of(new CronSchedule(
+                workflowId,
+                text.trim(),
+                CronExpression.parse(withSeconds(text.trim())),
+                zone(config.get("timezone")),
+                misfirePolicy(config.get("misfirePolicy"))
+            ));
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * First fire time strictly after {@code after}, or {@code null} if there is none.
+     */
+    Instant next(Instant after) {
+        ZonedDateTime next = cron.next(after.atZone(zone));
+        return next != null ? next.toInstant() : null;
+    }
+
+    boolean sameAs(CronSchedule other) {
+        return other != null && expression.equals(other.expression) && zone.equals(other.zone)
+            && misfirePolicy == other.misfirePolicy;
+    }
+
+    private static String withSeconds(String expression) {
+        return expression.split("\\s+").length == 5 ? "0 " + expression : expression;
+    }
+
+    private static ZoneId zone(Object value) {
+        if (!(value instanceof String text) || text.isBlank()) {
+            return ZoneOffset.UTC;
+        }
+        try {
+            return ZoneId.of(text);
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("Unknown timezone: " + text, e);
+        }
+    }
+
+    private static MisfirePolicy misfirePolicy(Object value) {
+        if (!(value instanceof String text) || text.isBlank()) {
+            return MisfirePolicy.FIRE_ONCE;
+        }
+        try {
+            return MisfirePolicy.valueOf(text.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown misfire policy: " + text, e);
+        }
+    }
+}
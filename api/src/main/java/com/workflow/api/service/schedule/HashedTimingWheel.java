@@ -0,0 +1,140 @@
+package com.workflow.api.service.schedule;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel (Varghese and Lauck). Timeouts are hashed into one of
+ * {@code wheelSize} buckets by their deadline; a single thread advances one bucket per
+ * tick and expires the timeouts that are due in it. Scheduling and cancelling are O(1)
+ * and a tick only touches one bucket, so the cost does not grow with the number of
+ * scheduled tasks the way a priority queue would. Deadlines are rounded up to the
+ * tick; timeouts due further out than one revolution wait out the extra rounds in
+ * their bucket.
+ *
+ * <p>The expiry handler runs on the wheel thread and must hand real work off.
+ */
+@Slf4j
+final class HashedTimingWheel<T> {
+
+    private final long tickMs;
+    private final int mask;
+    private final List<Timeout<T>>[] buckets;
+    private final Queue<Timeout<T>> pending = new ConcurrentLinkedQueue<>();
+    private final Consumer<T> onExpired;
+    private final Thread worker;
+    private final long startMs;
+
+    private volatile boolean running = true;
+    private long tick;
+
+    @SuppressWarnings("unchecked")
+    HashedTimingWheel(String name, long tickMs, int wheelSize, Consumer<T> onExpired) {
+        int size = Integer.highestOneBit(Math.max(2, wheelSize - 1)) << 1;
+        this.tickMs = tickMs;
+        this.mask = size - 1;
+        this.buckets = (List<Timeout<T>>[]) new List[size];
+        for (int i = 0; i < size; i++) {
+            buckets[i] = new ArrayList<>();
+        }
+        this.onExpired = onExpired;
+        this.startMs = System.currentTimeMillis();
+        this.worker = new Thread(this::run, name);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    Timeout<T> schedule(T task, Instant deadline) {
+        Timeout<T> timeout = new Timeout<>(task, deadline.toEpochMilli());
+        pending.add(timeout);
+        return timeout;
+    }
+
+    void stop() {
+        running = false;
+        worker.interrupt();
+    }
+
+    private void run() {
+        while (running) {
+            long deadline = startMs + (tick + 1) * tickMs;
+            long sleepMs = deadline - System.currentTimeMillis();
+            if (sleepMs > 0) {
+                try {
+                    TimeUnit.MILLISECONDS.sleep(sleepMs);
+                } catch (InterruptedException e) {
+                    continue;
+                }
+            }
+            transferPending();
+            expire(buckets[(int) (tick & mask)]);
+            tick++;
+        }
+    }
+
+    private void transferPending() {
+        Timeout<T> timeout;
+        while ((timeout = pending.poll()) != null) {
+            if (timeout.cancelled) {
+                continue;
+            }
+            long dueTick = Math.max((timeout.deadlineMs - startMs + tickMs - 1) / tickMs - 1, tick);
+            timeout.remainingRounds = (dueTick - tick) / buckets.length;
+            buckets[(int) (dueTick & mask)].add(timeout);
+        }
+    }
+
+    private void expire(List<Timeout<T>> bucket) {
+        if (bucket.isEmpty()) {
+            return;
+        }
+        List<Timeout<T>> due = new ArrayList<>();
+        int kept = 0;
+        for (Timeout<T> timeout : bucket) {
+            if (timeout.cancelled) {
+                continue;
+            }
+            if (timeout.remainingRounds <= 0) {
+                due.add(timeout);
+            } else {
+                timeout.remainingRounds--;
+                bucket.set(kept++, timeout);
+            }
+        }
+        bucket.subList(kept, bucket.size()).clear();
+
+        for (Timeout<T> timeout : due) {
+            try {
+                onExpired.accept(timeout.task);
+            } catch (RuntimeException e) {
+                log.error("Timing wheel handler failed", e);
+            }
+        }
+    }
+
+    static final class Timeout<T> {
+        private final T task;
+        private final long deadlineMs;
+        private long remainingRounds;
+        private volatile boolean cancelled;
+
+        private Timeout(T task, long deadlineMs) {
+            this.task = task;
+            this.deadlineMs = deadlineMs;
+        }
+
+        /**
+         * Cancelled timeouts are dropped the next time their bucket comes round.
+         */
+        void cancel() {
+            cancelled = true;
+        }
+    }
+}
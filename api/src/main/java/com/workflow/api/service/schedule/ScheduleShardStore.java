@@ -0,0 +1,162 @@
+package com.workflow.api.service.schedule;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Shard leases and fire claims of the workflow scheduler.
+ *
+ * <p>Schedules are hashed into a fixed number of shards, and each shard is leased by
+ * one instance at a time in {@code schedule_shards}. Instances keep roughly an equal
+ * share: they take free or expired shards while below their share and give shards
+ * back while above it. Leases alone cannot rule out two owners for a moment (a pause
+ * longer than the lease, a handover in progress), so every fire is also claimed in
+ * {@code schedule_fires}, keyed by workflow and scheduled time. Only the instance
+ * whose insert succeeds fires.
+ */
+@Component
+@RequiredArgsConstructor
+class ScheduleShardStore {
+
+    private static final String SELECT_SHARD_IDS = "SELECT shard_id FROM schedule_shards";
+
+    private static final String INSERT_SHARD = "INSERT INTO schedule_shards (shard_id) VALUES (?)";
+
+    private static final String RENEW =
+        "UPDATE schedule_shards SET lease_expires_at = ? WHERE owner = ?";
+
+    private static final String SELECT_OWNED = "SELECT shard_id FROM schedule_shards WHERE owner = ?";
+
+    private static final String COUNT_OTHER_OWNERS =
+        "SELECT COUNT(DISTINCT owner) FROM schedule_shards WHERE owner <> ? AND lease_expires_at > ?";
+
+    private static final String SELECT_CLAIMABLE =
+        "SELECT shard_id FROM schedule_shards WHERE owner IS NULL OR lease_expires_at < ? "
+            + "ORDER BY shard_id LIMIT ? FOR UPDATE";
+
+    private static final String CLAIM =
+        "UPDATE schedule_shards SET owner = ?, lease_expires_at = ? WHERE shard_id = ?";
+
+    private static final String RELEASE =
+        "UPDATE schedule_shards SET owner = NULL, lease_expires_at = NULL WHERE shard_id = ? AND owner = ?";
+
+    private static final String INSERT_FIRE =
+        "INSERT INTO schedule_fires (workflow_id, fire_time, fired_by, fired_at) VALUES (?, ?, ?, ?)";
+
+    private static final String SELECT_LAST_FIRES =
+        "SELECT workflow_id, MAX(fire_time) AS last_fire FROM schedule_fires WHERE fire_time > ? GROUP BY workflow_id";
+
+    private static final String DELETE_FIRES = "DELETE FROM schedule_fires WHERE fire_time < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private volatile String claimQuery;
+
+    void ensureShards(int shardCount) {
+        Set<Integer> existing = new HashSet<>(jdbcTemplate.queryForList(SELECT_SHARD_IDS, Integer.class));
+        for (int shard = 0; shard < shardCount; shard++) {
+            if (!existing.contains(shard)) {
+                try {
+                    jdbcTemplate.update(INSERT_SHARD, shard);
+                } catch (DuplicateKeyException e) {
+                    // Another instance created it first
+                }
+            }
+        }
+    }
+
+    /**
+     * Renews this instance's leases and moves it towards its fair share of shards.
+     * Returns the shards it owns afterwards.
+     */
+    Set<Integer> rebalance(String owner, int shardCount, Duration lease) {
+        Instant now = Instant.now();
+        Timestamp nowTs = Timestamp.from(now);
+        Timestamp leaseExpiresAt = Timestamp.from(now.plus(lease));
+
+        return transactionTemplate.execute(status -> {
+            jdbcTemplate.update(RENEW, leaseExpiresAt, owner);
+            Set<Integer> owned = new TreeSet<>(jdbcTemplate.queryForList(SELECT_OWNED, Integer.class, owner));
+
+            Integer others = jdbcTemplate.queryForObject(COUNT_OTHER_OWNERS, Integer.class, owner, nowTs);
+            int instances = 1 + (others != null ? others : 0);
+            int share = (shardCount + instances - 1) / instances;
+
+            if (owned.size() < share) {
+                List<Integer> claimable = jdbcTemplate.queryForList(claimQuery(), Integer.class, nowTs,
+                    share - owned.size());
+                List<Object[]> claims = new ArrayList<>(claimable.size());
+                for (Integer shard : claimable) {
+                    claims.add(new Object[] {owner, leaseExpiresAt, shard});
+                }
+                if (!claims.isEmpty()) {
+                    jdbcTemplate.batchUpdate(CLAIM, claims);
+                }
+                owned.addAll(claimable);
+            } else if (owned.size() > share) {
+                // Give back the surplus so newly started instances get shards
+                List<Integer> surplus = new ArrayList<>(owned).subList(share, owned.size());
+                List<Object[]> releases = new ArrayList<>(surplus.size());
+                for (Integer shard : surplus) {
+                    releases.add(new Object[] {shard, owner});
+                }
+                jdbcTemplate.batchUpdate(RELEASE, releases);
+                surplus.forEach(owned::remove);
+            }
+            return owned;
+        });
+    }
+
+    /**
+     * Claims one fire of a workflow. Returns {@code false} if it was already claimed,
+     * in which case the surrounding transaction is marked rollback-only by the caller.
+     */
+    boolean claimFire(String workflowId, Instant fireTime, String owner) {
+        try {
+            jdbcTemplate.update(INSERT_FIRE, workflowId, Timestamp.from(fireTime), owner, Timestamp.from(Instant.now()));
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Latest claimed fire per workflow, looking back as far as {@code since}.
+     */
+    Map<String, Instant> lastFires(Instant since) {
+        Map<String, Instant> lastFires = new HashMap<>();
+        jdbcTemplate.query(SELECT_LAST_FIRES, rs -> {
+            lastFires.put(rs.getString("workflow_id"), rs.getTimestamp("last_fire").toInstant());
+        }, Timestamp.from(since));
+        return lastFires;
+    }
+
+    int deleteFiresBefore(Instant cutoff) {
+        return jdbcTemplate.update(DELETE_FIRES, Timestamp.from(cutoff));
+    }
+
+    private String claimQuery() {
+        if (claimQuery == null) {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+            claimQuery = "PostgreSQL".equalsIgnoreCase(product) ? SELECT_CLAIMABLE + " SKIP LOCKED" : SELECT_CLAIMABLE;
+        }
+        return claimQuery;
+    }
+}
@@ -0,0 +1,372 @@
+package com.workflow.api.service.schedule;
+
+import com.workflow.api.dto.WorkflowDefinition;
+import com.workflow.api.entity.Workflow;
+import com.workflow.api.repository.WorkflowRepository;
+import com.workflow.api.service.ExecutionRunService;
+import com.workflow.api.service.InstanceIdentity;
+import com.workflow.api.service.WorkflowChangedEvent;
+import com.workflow.api.service.plan.ExecutionPlan;
+import com.workflow.api.service.plan.ExecutionPlanCache;
+import com.workflow.api.service.plan.WorkflowDefinitionCache;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fires workflows whose TRIGGER node is a schedule trigger.
+ *
+ * <p>Every ACTIVE scheduled workflow belongs to one of a fixed number of shards, and
+ * each instance only keeps the schedules of the shards it leases (see
+ * {@link ScheduleShardStore}). A schedule is a single entry in a hashed timing wheel
+ * holding its next fire time, so tens of thousands of schedules cost one thread and
+ * constant work per tick rather than a timer or a poll each. When an entry expires the
+ * fire is claimed and the run is enqueued in one transaction, which makes every fire
+ * happen exactly once across instances, and the next fire time goes back into the wheel.
+ *
+ * <p>Fires missed while no instance owned a shard are handled per schedule by its
+ * {@link CronSchedule.MisfirePolicy}, based on the last claimed fire.
+ */
+@Slf4j
+@Component
+public class WorkflowScheduler {
+
+    private static final String ACTIVE = "ACTIVE";
+    private static final String REQUESTED_BY = "scheduler";
+
+    private final ScheduleShardStore shardStore;
+    private final WorkflowRepository workflowRepository;
+    private final WorkflowDefinitionCache definitionCache;
+    private final ExecutionPlanCache executionPlanCache;
+    private final ExecutionRunService executionRunService;
+    private final TransactionTemplate transactionTemplate;
+
+    private final String instanceId;
+    private final boolean enabled;
+    private final int shardCount;
+    private final Duration lease;
+    private final Duration misfireThreshold;
+    private final Duration fireRetention;
+
+    private final HashedTimingWheel<Fire> wheel;
+    private final ExecutorService fireExecutor;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private volatile Set<Integer> ownedShards = Collections.emptySet();
+    private volatile LocalDateTime lastSync = LocalDateTime.now();
+
+    public WorkflowScheduler(ScheduleShardStore shardStore,
+                             WorkflowRepository workflowRepository,
+                             WorkflowDefinitionCache definitionCache,
+                             ExecutionPlanCache executionPlanCache,
+                             ExecutionRunService executionRunService,
+                             TransactionTemplate transactionTemplate,
+                             InstanceIdentity instanceIdentity,
+                             @Value("${workflow.schedule.enabled:true}") boolean enabled,
+                             @Value("${workflow.schedule.shards:64}") int shardCount,
+                             @Value("${workflow.schedule.lease-ms:30000}") long leaseMs,
+                             @Value("${workflow.schedule.tick-ms:1000}") long tickMs,
+                             @Value("${workflow.schedule.wheel-size:512}") int wheelSize,
+                             @Value("${workflow.schedule.fire-threads:4}") int fireThreads,
+                             @Value("${workflow.schedule.misfire-threshold-ms:60000}") long misfireThresholdMs,
+                             @Value("${workflow.schedule.fire-retention-days:7}") int fireRetentionDays) {
+        this.shardStore = shardStore;
+        this.workflowRepository = workflowRepository;
+        this.definitionCache = definitionCache;
+        this.executionPlanCache = executionPlanCache;
+        this.executionRunService = executionRunService;
+        this.transactionTemplate = transactionTemplate;
+        this.instanceId = instanceIdentity.getId();
+        this.enabled = enabled;
+        this.shardCount = shardCount;
+        this.lease = Duration.ofMillis(leaseMs);
+        this.misfireThreshold = Duration.ofMillis(misfireThresholdMs);
+        this.fireRetention = Duration.ofDays(fireRetentionDays);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.fireExecutor = Executors.newFixedThreadPool(fireThreads, runnable -> {
+            Thread thread = new Thread(runnable, "wf-schedule-fire-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.wheel = new HashedTimingWheel<>("wf-schedule-wheel", tickMs, wheelSize,
+            fire -> fireExecutor.execute(() -> fire(fire)));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            log.info("Workflow scheduler disabled");
+            return;
+        }
+        shardStore.ensureShards(shardCount);
+        rebalance();
+    }
+
+    @PreDestroy
+    public void stop() {
+        wheel.stop();
+        fireExecutor.shutdownNow();
+    }
+
+    /**
+     * Renews shard leases and loads or drops schedules of shards gained or lost.
+     */
+    @Scheduled(fixedDelayString = "${workflow.schedule.rebalance-interval-ms:10000}",
+        initialDelayString = "${workflow.schedule.rebalance-interval-ms:10000}")
+    public void rebalance() {
+        if (!enabled) {
+            return;
+        }
+        Set<Integer> owned;
+        try {
+            owned = shardStore.rebalance(instanceId, shardCount, lease);
+        } catch (RuntimeException e) {
+            log.warn("Failed to renew schedule shard leases", e);
+            return;
+        }
+
+        Set<Integer> previous = ownedShards;
+        Set<Integer> gained = new HashSet<>(owned);
+        gained.removeAll(previous);
+        ownedShards = Set.copyOf(owned);
+
+        if (!previous.equals(owned)) {
+            entries.values().removeIf(entry -> {
+                if (owned.contains(shardOf(entry.schedule().workflowId()))) {
+                    return false;
+                }
+                entry.timeout().cancel();
+                return true;
+            });
+            log.info("Schedule shards owned by {}: {}", instanceId, owned.size());
+        }
+        if (!gained.isEmpty()) {
+            loadShards(gained);
+        }
+    }
+
+    /**
+     * Picks up schedule changes made through other instances.
+     */
+    @Scheduled(fixedDelayString = "${workflow.schedule.resync-interval-ms:30000}")
+    public void resync() {
+        if (!enabled || ownedShards.isEmpty()) {
+            return;
+        }
+        // Overlap the previous window so commits that raced the last query are not missed
+        LocalDateTime since = lastSync.minus(lease);
+        lastSync = LocalDateTime.now();
+        try {
+            for (Workflow workflow : workflowRepository.findByUpdatedAtAfter(since)) {
+                if (ownedShards.contains(shardOf(workflow.getId()))) {
+                    refresh(workflow);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to resync workflow schedules", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${workflow.schedule.prune-interval-ms:3600000}")
+    public void pruneFires() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            int deleted = shardStore.deleteFiresBefore(Instant.now().minus(fireRetention));
+            if (deleted > 0) {
+                log.debug("Pruned {} schedule fire claims", deleted);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to prune schedule fire claims", e);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onWorkflowChanged(WorkflowChangedEvent event) {
+        if (!enabled || !ownedShards.contains(shardOf(event.workflowId()))) {
+            return;
+        }
+        Optional<Workflow> workflow = workflowRepository.findById(event.workflowId());
+        if (workflow.isPresent()) {
+            refresh(workflow.get());
+        } else {
+            unschedule(event.workflowId());
+        }
+    }
+
+    private void loadShards(Set<Integer> shards) {
+        Map<String, Instant> lastFires = shardStore.lastFires(Instant.now().minus(fireRetention));
+        // Only workflows with a schedule trigger, and only those in the gained shards, are loaded
+        List<String> ids = workflowRepository.findIdsByNodeTypeAndConfigValue(CronSchedule.TRIGGER_NODE_TYPE,
+                CronSchedule.TRIGGER_TYPE_KEY, CronSchedule.SCHEDULE_TRIGGER_TYPE).stream()
+            .filter(id -> shards.contains(shardOf(id)))
+            .toList();
+        int loaded = 0;
+        for (Workflow workflow : workflowRepository.findAllById(ids)) {
+            if (!ACTIVE.equals(workflow.getStatus())) {
+                continue;
+            }
+            Optional<CronSchedule> schedule = parse(workflow);
+            if (schedule.isPresent()) {
+                Instant lastFire = lastFires.get(workflow.getId());
+                Instant next = lastFire != null ? schedule.get().next(lastFire) : schedule.get().next(Instant.now());
+                schedule(schedule.get(), next);
+                loaded++;
+            }
+        }
+        log.info("Loaded {} schedules from {} shards", loaded, shards.size());
+    }
+
+    private void refresh(Workflow workflow) {
+        Optional<CronSchedule> schedule = ACTIVE.equals(workflow.getStatus()) ? parse(workflow) : Optional.empty();
+        if (schedule.isEmpty()) {
+            unschedule(workflow.getId());
+            return;
+        }
+        Entry existing = entries.get(workflow.getId());
+        if (existing != null && existing.schedule().sameAs(schedule.get())) {
+            return;
+        }
+        // Edited schedules start from now; misfires only apply to unowned time
+        schedule(schedule.get(), schedule.get().next(Instant.now()));
+    }
+
+    private void schedule(CronSchedule schedule, Instant fireTime) {
+        if (fireTime == null) {
+            unschedule(schedule.workflowId());
+            return;
+        }
+        Instant now = Instant.now();
+        boolean catchUp = false;
+        if (fireTime.isBefore(now.minus(misfireThreshold))) {
+            if (schedule.misfirePolicy() == CronSchedule.MisfirePolicy.SKIP) {
+                log.info("Skipping missed fires of workflow {} since {}", schedule.workflowId(), fireTime);
+                fireTime = schedule.next(now);
+                if (fireTime == null) {
+                    unschedule(schedule.workflowId());
+                    return;
+                }
+            } else {
+                catchUp = true;
+            }
+        }
+
+        Fire fire = new Fire(schedule, fireTime, catchUp);
+        Entry previous = entries.put(schedule.workflowId(), new Entry(schedule, fire, wheel.schedule(fire, fireTime)));
+        if (previous != null) {
+            previous.timeout().cancel();
+        }
+    }
+
+    private void unschedule(String workflowId) {
+        Entry entry = entries.remove(workflowId);
+        if (entry != null) {
+            entry.timeout().cancel();
+        }
+    }
+
+    private void fire(Fire fire) {
+        String workflowId = fire.schedule().workflowId();
+        Entry entry = entries.get(workflowId);
+        if (entry == null || entry.fire() != fire) {
+            // Replaced or removed after it was handed to the wheel
+            return;
+        }
+        if (!ownedShards.contains(shardOf(workflowId))) {
+            unschedule(workflowId);
+            return;
+        }
+
+        try {
+            Optional<WorkflowDefinitionCache.CachedWorkflow> workflow = definitionCache.get(workflowId);
+            if (workflow.isEmpty() || !ACTIVE.equals(workflow.get().status())) {
+                unschedule(workflowId);
+                return;
+            }
+            Optional<CronSchedule> current = parse(workflowId, workflow.get().definition());
+            if (current.isEmpty()) {
+                unschedule(workflowId);
+                return;
+            }
+            if (!current.get().sameAs(fire.schedule())) {
+                schedule(current.get(), current.get().next(Instant.now()));
+                return;
+            }
+
+            ExecutionPlan plan = executionPlanCache.getPlan(workflow.get());
+            Boolean fired = transactionTemplate.execute(status -> {
+                if (!shardStore.claimFire(workflowId, fire.fireTime(), instanceId)) {
+                    status.setRollbackOnly();
+                    return false;
+                }
+                executionRunService.submit(plan, null, REQUESTED_BY);
+                return true;
+            });
+            if (Boolean.TRUE.equals(fired)) {
+                log.info("Fired schedule of workflow {} for {}", workflowId, fire.fireTime());
+            } else {
+                log.debug("Schedule of workflow {} for {} already fired elsewhere", workflowId, fire.fireTime());
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to fire schedule of workflow {} for {}", workflowId, fire.fireTime(), e);
+        }
+
+        if (entries.get(workflowId) == entry) {
+            // A catch-up fire stands in for all missed times; continue from now
+            Instant after = fire.catchUp() ? Instant.now() : fire.fireTime();
+            schedule(fire.schedule(), fire.schedule().next(after));
+        }
+    }
+
+    private Optional<CronSchedule> parse(Workflow workflow) {
+        WorkflowDefinition definition;
+        try {
+            definition = definitionCache.get(workflow).definition();
+        } catch (RuntimeException e) {
+            log.warn("Workflow {} has an unreadable definition: {}", workflow.getId(), e.getMessage());
+            return Optional.empty();
+        }
+        return parse(workflow.getId(), definition);
+    }
+
+    private Optional<CronSchedule> parse(String workflowId, WorkflowDefinition definition) {
+        try {
+            return CronSchedule.from(workflowId, definition);
+        } catch (RuntimeException e) {
+            log.warn("Workflow {} has an invalid schedule trigger: {}", workflowId, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private int shardOf(String workflowId) {
+        return Math.floorMod(workflowId.hashCode(), shardCount);
+    }
+
+    private record Fire(CronSchedule schedule, Instant fireTime, boolean catchUp) {
+    }
+
+    private record Entry(CronSchedule schedule, Fire fire, HashedTimingWheel.Timeout<Fire> timeout) {
+    }
+}
@@ -0,0 +1,108 @@
+package com.workflow.api.service.script;
+
+import org.mozilla.javascript.Scriptable;
+import org.mozilla.javascript.ScriptableObject;
+
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Plain JavaScript object backed by a Java map. Entries are wrapped on first read and
+ * remembered, so a script pays only for the properties it touches. Assignments and
+ * deletes stay local to the view and never reach the underlying map, which is shared
+ * with the rest of the run.
+ */
+final class JsMapView extends ScriptableObject {
+
+    private final Map<?, ?> map;
+    private Set<String> deleted;
+
+    JsMapView(Map<?, ?> map, Scriptable scope) {
+        this.map = map;
+        setParentScope(ScriptableObject.getTopLevelScope(scope));
+        setPrototype(ScriptableObject.getObjectPrototype(scope));
+    }
+
+    @Override
+    public String getClassName() {
+        return "Object";
+    }
+
+    @Override
+    public Object get(String name, Scriptable start) {
+        Object value = super.get(name, start);
+        if (value != NOT_FOUND || !hasEntry(name)) {
+            return value;
+        }
+        value = ScriptValues.toJs(map.get(name), getParentScope());
+        if (isExtensible()) {
+            super.put(name, this, value);
+        }
+        return value;
+    }
+
+    @Override
+    public Object get(int index, Scriptable start) {
+        return get(String.valueOf(index), start);
+    }
+
+    @Override
+    public boolean has(String name, Scriptable start) {
+        return super.has(name, start) || hasEntry(name);
+    }
+
+    @Override
+    public boolean has(int index, Scriptable start) {
+        return has(String.valueOf(index), start);
+    }
+
+    @Override
+    public void put(String name, Scriptable start, Object value) {
+        if (deleted != null) {
+            deleted.remove(name);
+        }
+        super.put(name, start, value);
+    }
+
+    @Override
+    public void put(int index, Scriptable start, Object value) {
+        put(String.valueOf(index), start, value);
+    }
+
+    @Override
+    public void delete(String name) {
+        super.delete(name);
+        if (map.containsKey(name)) {
+            if (deleted == null) {
+                deleted = new HashSet<>();
+            }
+            deleted.add(name);
+        }
+    }
+
+    @Override
+    public void delete(int index) {
+        delete(String.valueOf(index));
+    }
+
+    @Override
+    public Object[] getIds() {
+        Set<Object> ids = new LinkedHashSet<>();
+        for (Object key : map.keySet()) {
+            String name = String.valueOf(key);
+            if (deleted == null || !deleted.contains(name)) {
+                ids.add(name);
+            }
+        }
+        for (Object id : super.getIds()) {
+            ids.add(id instanceof String ? id : String.valueOf(id));
+        }
+        return ids.toArray();
+    }
+
+    private boolean hasEntry(String name) {
+        return (deleted == null || !deleted.contains(name)) && map.containsKey(name);
+    }
+}
@@ -0,0 +1,102 @@
+package com.workflow.api.service.script;
+
+import com.workflow.api.util.LruCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.ContextFactory;
+import org.mozilla.javascript.Script;
+import org.mozilla.javascript.Scriptable;
+import org.mozilla.javascript.ScriptableObject;
+
+/**
+ * Shared Rhino setup for CODE and CONDITION nodes. The safe standard objects (no
+ * {@code Packages} or {@code java} globals) are built once into a sealed scope that
+ * every run inherits from through its own child scope, and compiled scripts are kept
+ * in a bounded LRU cache so a given source is parsed and compiled only once. Each
+ * execution runs against a {@link ScriptBudget}.
+ */
+@Slf4j
+@Component
+public class RhinoScriptRuntime {
+
+    private final ContextFactory contextFactory;
+    private final LruCache<ScriptKey, Script> scripts;
+    private final ScriptableObject sharedScope;
+
+    @Value("${workflow.script.max-instructions:50000000}")
+    private long maxInstructions;
+
+    @Value("${workflow.script.timeout-ms:10000}")
+    private long timeoutMs;
+
+    @Value("${workflow.script.max-cpu-ms:5000}")
+    private long maxCpuMs;
+
+    @Value("${workflow.script.max-allocated-bytes:268435456}")
+    private long maxAllocatedBytes;
+
+    public RhinoScriptRuntime(@Value("${workflow.script.cache-size:1000}") int cacheSize,
+                              @Value("${workflow.script.optimization-level:0}") int optimizationLevel,
+                              @Value("${workflow.script.observer-threshold:10000}") int observerThreshold,
+                              @Value("${workflow.script.max-stack-depth:1000}") int maxStackDepth) {
+        this.contextFactory = new SandboxContextFactory(optimizationLevel, observerThreshold, maxStackDepth);
+        this.scripts = new LruCache<>(cacheSize);
+
+        Context rhinoContext = contextFactory.enterContext();
+        try {
+            this.sharedScope = rhinoContext.initSafeStandardObjects(null, true);
+        } finally {
+            Context.exit();
+        }
+        log.info("Rhino script runtime ready (optimization level {}, cache size {})", optimizationLevel, cacheSize);
+    }
+
+    /**
+     * Starts a budget for one script execution. Must be called on the thread that
+     * runs the script, since CPU time and allocation are measured per thread.
+     */
+    public ScriptBudget newBudget() {
+        return new ScriptBudget(maxInstructions, timeoutMs, maxCpuMs, maxAllocatedBytes);
+    }
+
+    /**
+     * Enters a Rhino context on the current thread, charging executed instructions to
+     * {@code budget}. Callers must pair this with {@link Context#exit()} in a finally
+     * block; an exhausted budget surfaces as {@link ScriptBudgetExceededException}.
+     */
+    public Context enter(ScriptBudget budget) {
+        Context rhinoContext = contextFactory.enterContext();
+        SandboxContextFactory.bind(rhinoContext, budget);
+        return rhinoContext;
+    }
+
+    /**
+     * Creates a per-run top-level scope. Variables a script defines land in this scope,
+     * while lookups of standard objects fall through to the shared sealed scope.
+     */
+    public Scriptable newScope(Context rhinoContext) {
+        Scriptable scope = rhinoContext.newObject(sharedScope);
+        scope.setPrototype(sharedScope);
+        scope.setParentScope(null);
+        return scope;
+    }
+
+    /**
+     * Returns the compiled form of {@code source}, compiling it on first use.
+     */
+    public Script compile(Context rhinoContext, String source, String sourceName) {
+        ScriptKey key = new ScriptKey(sourceName, source);
+        Script script = scripts.get(key);
+        if (script == null) {
+            script = rhinoContext.compileString(source, sourceName, 1, null);
+            scripts.put(key, script);
+        }
+        return script;
+    }
+
+    private record ScriptKey(String sourceName, String source) {
+    }
+}
@@ -0,0 +1,83 @@
+package com.workflow.api.service.script;
+
+import com.workflow.api.service.ExecutionContext;
+import org.mozilla.javascript.ClassShutter;
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.ContextFactory;
+
+import java.util.Set;
+
+/**
+ * Context factory for user scripts. Every context it creates reports executed
+ * instructions back to the factory, which charges them to the {@link ScriptBudget}
+ * bound to the context, and only exposes the Java classes that carry run data.
+ * Instructions are only reported while script code runs, not from inside Java
+ * built-ins; see {@link ScriptBudget}.
+ */
+class SandboxContextFactory extends ContextFactory {
+
+    private static final Set<String> VISIBLE_CLASSES = Set.of(
+        "java.lang.Object",
+        "java.lang.String",
+        "java.lang.Boolean",
+        "java.lang.Character",
+        "java.lang.Number",
+        "java.lang.Byte",
+        "java.lang.Short",
+        "java.lang.Integer",
+        "java.lang.Long",
+        "java.lang.Float",
+        "java.lang.Double"
+    );
+
+    /**
+     * Run data reaches scripts as plain collections, DTOs and snapshot views. Anything
+     * else, including java.lang.Class and every java.util sub-package, stays hidden.
+     */
+    private static final ClassShutter CLASS_SHUTTER = className ->
+        VISIBLE_CLASSES.contains(className)
+            || (className.startsWith("java.util.") && className.indexOf('.', "java.util.".length()) < 0)
+            || className.startsWith("com.workflow.api.dto.")
+            || className.startsWith(ExecutionContext.class.getName() + "$");
+
+    private final int optimizationLevel;
+    private final int observerThreshold;
+    private final int maxStackDepth;
+
+    SandboxContextFactory(int optimizationLevel, int observerThreshold, int maxStackDepth) {
+        this.optimizationLevel = optimizationLevel;
+        this.observerThreshold = observerThreshold;
+        this.maxStackDepth = maxStackDepth;
+    }
+
+    /**
+     * Binds {@code budget} to the current context so instruction callbacks charge it.
+     */
+    static void bind(Context rhinoContext, ScriptBudget budget) {
+        rhinoContext.putThreadLocal(ScriptBudget.class, budget);
+    }
+
+    @Override
+    protected Context makeContext() {
+        Context rhinoContext = super.makeContext();
+        rhinoContext.setOptimizationLevel(optimizationLevel);
+        rhinoContext.setInstructionObserverThreshold(observerThreshold);
+        // Compiled scripts only count instructions when asked to
+        rhinoContext.setGenerateObserverCount(true);
+        rhinoContext.setClassShutter(CLASS_SHUTTER);
+        // Rhino can only cap call depth for interpreted scripts; compiled ones recurse on the
+        // JVM stack and the runners turn a StackOverflowError into a failed result
+        if (optimizationLevel == -1) {
+            rhinoContext.setMaximumInterpreterStackDepth(maxStackDepth);
+        }
+        return rhinoContext;
+    }
+
+    @Override
+    protected void observeInstructionCount(Context rhinoContext, int instructionCount) {
+        Object budget = rhinoContext.getThreadLocal(ScriptBudget.class);
+        if (budget instanceof ScriptBudget scriptBudget) {
+            scriptBudget.charge(instructionCount);
+        }
+    }
+}
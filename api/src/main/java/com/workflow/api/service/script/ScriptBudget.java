@@ -0,0 +1,109 @@
+package com.workflow.api.service.script;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Resource budget for a single script execution. Rhino reports executed instructions
+ * through {@link SandboxContextFactory}, which charges them here; every charge also
+ * checks wall-clock time, thread CPU time and bytes allocated by the executing thread.
+ * A limit of zero or less disables that check.
+ *
+ * <p>Limits are only enforced at those checks. Built-ins implemented in Java, such as
+ * regular expression matching or sorting without a comparator, run to completion
+ * without reporting instructions, so a single such call (a pathological regex, say)
+ * can overrun every limit before the budget fails the script on its next check. There
+ * is no safe way to preempt them: Rhino does not check for interrupts and the JVM no
+ * longer supports stopping a thread. The executor's thread count is what bounds the
+ * damage.
+ */
+public final class ScriptBudget {
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private final long maxInstructions;
+    private final long timeoutMs;
+    private final long maxCpuMs;
+    private final long maxAllocatedBytes;
+
+    private final long startNanos;
+    private final long startCpuNanos;
+    private final long startAllocatedBytes;
+    private long instructions;
+
+    ScriptBudget(long maxInstructions, long timeoutMs, long maxCpuMs, long maxAllocatedBytes) {
+        this.maxInstructions = maxInstructions;
+        this.timeoutMs = timeoutMs;
+        this.maxCpuMs = maxCpuMs;
+        this.maxAllocatedBytes = maxAllocatedBytes;
+        this.startNanos = System.nanoTime();
+        this.startCpuNanos = currentCpuNanos();
+        this.startAllocatedBytes = currentAllocatedBytes();
+    }
+
+    void charge(int instructionCount) {
+        instructions += instructionCount;
+        if (maxInstructions > 0 && instructions > maxInstructions) {
+            throw exceeded("instruction budget of " + maxInstructions + " exceeded");
+        }
+        if (timeoutMs > 0 && elapsedMs() > timeoutMs) {
+            throw exceeded("time limit of " + timeoutMs + " ms exceeded");
+        }
+        if (maxCpuMs > 0 && cpuMs() > maxCpuMs) {
+            throw exceeded("CPU time limit of " + maxCpuMs + " ms exceeded");
+        }
+        if (maxAllocatedBytes > 0 && allocatedBytes() > maxAllocatedBytes) {
+            throw exceeded("allocation limit of " + maxAllocatedBytes + " bytes exceeded");
+        }
+    }
+
+    /**
+     * Usage so far alongside the configured limits. Values that the JVM cannot measure
+     * are reported as -1.
+     */
+    public Map<String, Object> toMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("instructions", instructions);
+        metrics.put("maxInstructions", maxInstructions);
+        metrics.put("elapsedMs", elapsedMs());
+        metrics.put("timeoutMs", timeoutMs);
+        metrics.put("cpuMs", cpuMs());
+        metrics.put("maxCpuMs", maxCpuMs);
+        metrics.put("allocatedBytes", allocatedBytes());
+        metrics.put("maxAllocatedBytes", maxAllocatedBytes);
+        return metrics;
+    }
+
+    private ScriptBudgetExceededException exceeded(String reason) {
+        return new ScriptBudgetExceededException("Script " + reason, toMetrics());
+    }
+
+    private long elapsedMs() {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    private long cpuMs() {
+        long now = currentCpuNanos();
+        return now < 0 || startCpuNanos < 0 ? -1 : (now - startCpuNanos) / 1_000_000;
+    }
+
+    private long allocatedBytes() {
+        long now = currentAllocatedBytes();
+        return now < 0 || startAllocatedBytes < 0 ? -1 : now - startAllocatedBytes;
+    }
+
+    private static long currentCpuNanos() {
+        return THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : -1;
+    }
+
+    private static long currentAllocatedBytes() {
+        if (THREADS instanceof com.sun.management.ThreadMXBean threads
+                && threads.isThreadAllocatedMemorySupported()
+                && threads.isThreadAllocatedMemoryEnabled()) {
+            return threads.getCurrentThreadAllocatedBytes();
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,21 @@
+package com.workflow.api.service.script;
+
+import java.util.Map;
+
+/**
+ * Thrown from inside a running script when its {@link ScriptBudget} is exhausted.
+ * It is not a Rhino exception, so script-level try/catch cannot swallow it.
+ */
+public class ScriptBudgetExceededException extends RuntimeException {
+
+    private final Map<String, Object> metrics;
+
+    public ScriptBudgetExceededException(String message, Map<String, Object> metrics) {
+        super(message);
+        this.metrics = metrics;
+    }
+
+    public Map<String, Object> getMetrics() {
+        return metrics;
+    }
+}
@@ -0,0 +1,113 @@
+package com.workflow.api.service.script;
+
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.Function;
+import org.mozilla.javascript.NativeArray;
+import org.mozilla.javascript.Scriptable;
+import org.mozilla.javascript.ScriptableObject;
+import org.mozilla.javascript.Undefined;
+import org.mozilla.javascript.Wrapper;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Exposes run data to scripts without copying it up front. Maps become lazy
+ * {@link JsMapView}s. Lists become real JavaScript arrays when they are read, so
+ * {@code Array.isArray}, {@code JSON.stringify} and the array methods behave as
+ * scripts expect, while any maps inside them are wrapped lazily again.
+ */
+public final class ScriptValues {
+
+    /** Deepest nesting of arrays and objects a script result may have */
+    static final int MAX_RESULT_DEPTH = 256;
+
+    private ScriptValues() {
+    }
+
+    /**
+     * Returns the script-side value for a Java value read from node outputs.
+     */
+    public static Object toJs(Object value, Scriptable scope) {
+        if (value == null || value instanceof String || value instanceof Boolean) {
+            return value;
+        }
+        if (value instanceof Number number) {
+            return number instanceof Double ? number : number.doubleValue();
+        }
+        if (value instanceof Character) {
+            return value.toString();
+        }
+        if (value instanceof Map<?, ?> map) {
+            return new JsMapView(map, scope);
+        }
+        if (value instanceof List<?> list) {
+            Object[] elements = new Object[list.size()];
+            for (int i = 0; i < elements.length; i++) {
+                elements[i] = toJs(list.get(i), scope);
+            }
+            return Context.getCurrentContext().newArray(scope, elements);
+        }
+        return Context.javaToJS(value, scope);
+    }
+
+    /**
+     * Converts a script result back to plain Java values so it can be stored as a node
+     * output and serialized. Lazy views are read out in full at this point.
+     *
+     * @throws IllegalArgumentException if the result refers to itself or is nested
+     *                                  deeper than {@link #MAX_RESULT_DEPTH}
+     */
+    public static Object toJava(Object value) {
+        return toJava(value, new IdentityHashMap<>(), 0);
+    }
+
+    /**
+     * {@code enclosing} holds the arrays and objects being converted around this value;
+     * meeting one of them again means the result is cyclic. Values shared between
+     * branches are fine and are converted once per reference.
+     */
+    private static Object toJava(Object value, IdentityHashMap<Object, Boolean> enclosing, int depth) {
+        if (value == null || value instanceof Undefined) {
+            return null;
+        }
+        if (value instanceof Wrapper wrapper) {
+            return wrapper.unwrap();
+        }
+        if (value instanceof CharSequence text) {
+            return text.toString();
+        }
+        boolean array = value instanceof NativeArray;
+        if (!array && (!(value instanceof Scriptable) || value instanceof Function)) {
+            return value;
+        }
+        if (depth >= MAX_RESULT_DEPTH) {
+            throw new IllegalArgumentException("Script result is nested deeper than " + MAX_RESULT_DEPTH + " levels");
+        }
+        if (enclosing.put(value, Boolean.TRUE) != null) {
+            throw new IllegalArgumentException("Script result contains a circular reference");
+        }
+        try {
+            if (array) {
+                NativeArray nativeArray = (NativeArray) value;
+                List<Object> list = new ArrayList<>((int) nativeArray.getLength());
+                for (int i = 0; i < nativeArray.getLength(); i++) {
+                    list.add(toJava(nativeArray.get(i, nativeArray), enclosing, depth + 1));
+                }
+                return list;
+            }
+            Scriptable object = (Scriptable) value;
+            Map<String, Object> map = new LinkedHashMap<>();
+            for (Object id : object.getIds()) {
+                String name = String.valueOf(id);
+                map.put(name, toJava(ScriptableObject.getProperty(object, name), enclosing, depth + 1));
+            }
+            return map;
+        } finally {
+            enclosing.remove(value);
+        }
+    }
+}
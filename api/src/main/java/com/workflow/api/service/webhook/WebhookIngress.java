@@ -0,0 +1,143 @@
+package com.workflow.api.service.webhook;
+
+import com.workflow.api.dto.ExecutionStatus;
+import com.workflow.api.exception.WorkflowRunRejectedException;
+import com.workflow.api.service.ExecutionEngineService;
+import com.workflow.api.service.ExecutionRun;
+import com.workflow.api.service.queue.RunQueueStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hands webhook runs to the run queue. A webhook is acknowledged once its run is in a
+ * bounded in-memory buffer; a single writer thread drains the buffer and inserts whole
+ * batches into {@code run_queue} with one batched statement, so the request thread
+ * never waits on the database and inserts cost a fraction of a round trip each.
+ *
+ * <p>When the buffer is full, webhooks are rejected (503) rather than queued in
+ * memory without bound. Runs still buffered are written on shutdown; a crash loses at
+ * most the runs accepted since the last batch. A batch that fails is retried before
+ * its runs are dropped and counted in {@code workflow.webhook.dropped}.
+ */
+@Slf4j
+@Component
+public class WebhookIngress {
+
+    private static final String REQUESTED_BY = "webhook";
+
+    private final RunQueueStore runQueueStore;
+    private final ExecutionEngineService executionEngineService;
+    private final BlockingQueue<RunQueueStore.NewRun> buffer;
+    private final int batchSize;
+    private final int writeAttempts;
+    private final long retryBackoffMs;
+
+    private final Counter acceptedCounter;
+    private final Counter rejectedCounter;
+    private final Counter droppedCounter;
+
+    private volatile boolean running;
+    private Thread writerThread;
+
+    public WebhookIngress(RunQueueStore runQueueStore,
+                          ExecutionEngineService executionEngineService,
+                          MeterRegistry meterRegistry,
+                          @Value("${workflow.webhook.buffer-capacity:50000}") int bufferCapacity,
+                          @Value("${workflow.webhook.batch-size:500}") int batchSize,
+                          @Value("${workflow.webhook.write-attempts:5}") int writeAttempts,
+                          @Value("${workflow.webhook.retry-backoff-ms:200}") long retryBackoffMs) {
+        this.runQueueStore = runQueueStore;
+        this.executionEngineService = executionEngineService;
+        this.buffer = new ArrayBlockingQueue<>(bufferCapacity);
+        this.batchSize = Math.max(1, batchSize);
+        this.writeAttempts = Math.max(1, writeAttempts);
+        this.retryBackoffMs = retryBackoffMs;
+
+        this.acceptedCounter = meterRegistry.counter("workflow.webhook.accepted");
+        this.rejectedCounter = meterRegistry.counter("workflow.webhook.rejected");
+        this.droppedCounter = meterRegistry.counter("workflow.webhook.dropped");
+        meterRegistry.gauge("workflow.webhook.buffer.size", buffer, BlockingQueue::size);
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        writerThread = new Thread(this::writeLoop, "wf-webhook-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        writerThread.interrupt();
+        writerThread.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    /**
+     * Buffers a run of the route's workflow with the given JSON input.
+     *
+     * @throws WorkflowRunRejectedException if the buffer is full
+     */
+    public ExecutionStatus accept(WebhookRoute route, String input) {
+        String runId = executionEngineService.newRunId();
+        RunQueueStore.NewRun run = new RunQueueStore.NewRun(runId, route.workflowId(), route.plan().getClientId(),
+            null, input, REQUESTED_BY, route.plan().size());
+        if (!buffer.offer(run)) {
+            rejectedCounter.increment();
+            throw new WorkflowRunRejectedException("Too many webhook runs pending, try again later");
+        }
+        acceptedCounter.increment();
+        return new ExecutionRun(runId, route.workflowId(), REQUESTED_BY, route.plan().size()).toStatus();
+    }
+
+    private void writeLoop() {
+        List<RunQueueStore.NewRun> batch = new ArrayList<>(batchSize);
+        while (running || !buffer.isEmpty()) {
+            try {
+                RunQueueStore.NewRun first = buffer.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                buffer.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                // Shutting down; the loop drains what is left
+                running = false;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<RunQueueStore.NewRun> batch) throws InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                runQueueStore.enqueueAll(batch);
+                return;
+            } catch (RuntimeException e) {
+                if (attempt >= writeAttempts) {
+                    droppedCounter.increment(batch.size());
+                    log.error("Failed to enqueue {} webhook runs, dropping them", batch.size(), e);
+                    return;
+                }
+                log.warn("Failed to enqueue {} webhook runs (attempt {}), retrying", batch.size(), attempt, e);
+                if (running) {
+                    TimeUnit.MILLISECONDS.sleep(retryBackoffMs * attempt);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.workflow.api.service.webhook;
+
+import com.workflow.api.dto.WorkflowDefinition;
+import com.workflow.api.dto.WorkflowNode;
+import com.workflow.api.service.plan.ExecutionPlan;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Webhook of a workflow, taken from its TRIGGER node when {@code triggerType} is
+ * {@code WEBHOOK}. The node config holds the {@code path} (or {@code webhookPath}),
+ * the HTTP {@code method} (default POST) and optionally an {@code authentication}
+ * scheme with its {@code authConfig}:
+ * <ul>
+ *   <li>{@code bearer}: {@code token}</li>
+ *   <li>{@code apiKey}: {@code apiKey} and optionally {@code headerName} (default X-API-Key)</li>
+ *   <li>{@code basic}: {@code username} and {@code password}</li>
+ * </ul>
+ * The expected credential header is computed once, so a request is authorized with a
+ * single constant-time comparison.
+ */
+public record WebhookRoute(String workflowId, String method, String path, ExecutionPlan plan,
+                           String credentialHeader, byte[] expectedCredential) {
+
+    private static final String DEFAULT_API_KEY_HEADER = "X-API-Key";
+
+    /**
+     * Reads the webhook of a workflow; {@code plan} is only called for workflows that
+     * have one.
+     *
+     * @throws IllegalArgumentException if the webhook trigger is misconfigured
+     */
+    static Optional<WebhookRoute> from(String workflowId, WorkflowDefinition definition,
+                                       Supplier<ExecutionPlan> plan) {
+        if (definition.getNodes() == null) {
+            return Optional.empty();
+        }
+        for (WorkflowNode node : definition.getNodes()) {
+            if (!"TRIGGER".equals(node.getType()) || node.getData() == null || node.getData().getConfig() == null) {
+                continue;
+            }
+            Map<String, Object> config = node.getData().getConfig();
+            if (!"WEBHOOK".equals(config.get("triggerType"))) {
+                continue;
+            }
+            Object path = config.containsKey("path") ? config.get("path") : config.get("webhookPath");
+            if (!(path instanceof String text) || text.isBlank()) {
+                throw new IllegalArgumentException("Webhook trigger has no path");
+            }
+            Object method = config.get("method");
+            String httpMethod = method instanceof String m && !m.isBlank() ? m.toUpperCase(Locale.ROOT) : "POST";
+
+            String header = null;
+            String credential = null;
+            Object authentication = config.get("authentication");
+            if (authentication instanceof String scheme && !scheme.isBlank() && !"none".equals(scheme)) {
+                Map<?, ?> authConfig = config.get("authConfig") instanceof Map<?, ?> map ? map : Map.of();
+                switch (scheme) {
+                    case "bearer" -> {
+                        header = "Authorization";
+                        credential = "Bearer " + required(authConfig, "token");
+                    }
+                    case "apiKey" -> {
+                        Object headerName = authConfig.get("headerName");
+                        header = headerName instanceof String name && !name.isBlank() ? name : DEFAULT_API_KEY_HEADER;
+                        credential = required(authConfig, "apiKey");
+                    }
+                    case "basic" -> {
+                        header = "Authorization";
+                        String userInfo = required(authConfig, "username") + ":" + required(authConfig, "password");
+                        credential = "Basic " + Base64.getEncoder()
+                            .encodeToString(userInfo.getBytes(StandardCharsets.UTF_8));
+                    }
+                    default -> throw new IllegalArgumentException("Unknown webhook authentication: " + scheme);
+                }
+            }
+
+            return Optional.of(new WebhookRoute(workflowId, httpMethod, normalizePath(text), plan.get(), header,
+                credential != null ? credential.getBytes(StandardCharsets.UTF_8) : null));
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Canonical form of a webhook path: leading slash, no trailing slash.
+     */
+    static String normalizePath(String path) {
+        String normalized = path.trim();
+        if (!normalized.startsWith("/")) {
+            normalized = "/" + normalized;
+        }
+        while (normalized.length() > 1 && normalized.endsWith("/")) {
+            normalized = normalized.substring(0, normalized.length() - 1);
+        }
+        return normalized;
+    }
+
+    static String key(String method, String path) {
+        return method + " " + path;
+    }
+
+    public String key() {
+        return key(method, path);
+    }
+
+    /**
+     * Checks the request's credential, if the webhook requires one.
+     */
+    public boolean authorize(Function<String, String> headers) {
+        if (credentialHeader == null) {
+            return true;
+        }
+        String presented = headers.apply(credentialHeader);
+        return presented != null
+            && MessageDigest.isEqual(presented.getBytes(StandardCharsets.UTF_8), expectedCredential);
+    }
+
+    private static String required(Map<?, ?> authConfig, String key) {
+        Object value = authConfig.get(key);
+        if (!(value instanceof String text) || text.isEmpty()) {
+            throw new IllegalArgumentException("Webhook authentication needs authConfig." + key);
+        }
+        return text;
+    }
+}
@@ -0,0 +1,143 @@
+package com.workflow.api.service.webhook;
+
+import com.workflow.api.entity.Workflow;
+import com.workflow.api.repository.WorkflowRepository;
+import com.workflow.api.service.WorkflowChangedEvent;
+import com.workflow.api.service.plan.ExecutionPlanCache;
+import com.workflow.api.service.plan.WorkflowDefinitionCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory index of the webhooks of ACTIVE workflows by method and path. Lookups read
+ * an immutable map through a volatile field and never touch the database; changes
+ * (rare next to webhook hits) rebuild the map and swap it in.
+ *
+ * <p>Changes made on this instance are applied as soon as they commit. Changes made on
+ * other instances are picked up by a periodic resync of recently updated workflows and
+ * an occasional full reload, which also notices deletions.
+ */
+@Slf4j
+@Component
+public class WebhookRouteIndex {
+
+    private static final String ACTIVE = "ACTIVE";
+
+    private final WorkflowRepository workflowRepository;
+    private final WorkflowDefinitionCache definitionCache;
+    private final ExecutionPlanCache executionPlanCache;
+    private final Duration resyncOverlap;
+
+    private final Map<String, WebhookRoute> routesByWorkflow = new ConcurrentHashMap<>();
+    private volatile Map<String, WebhookRoute> routes = Map.of();
+    private volatile LocalDateTime lastSync = LocalDateTime.now();
+
+    public WebhookRouteIndex(WorkflowRepository workflowRepository,
+                             WorkflowDefinitionCache definitionCache,
+                             ExecutionPlanCache executionPlanCache,
+                             @Value("${workflow.webhook.resync-interval-ms:10000}") long resyncIntervalMs) {
+        this.workflowRepository = workflowRepository;
+        this.definitionCache = definitionCache;
+        this.executionPlanCache = executionPlanCache;
+        this.resyncOverlap = Duration.ofMillis(resyncIntervalMs);
+    }
+
+    public Optional<WebhookRoute> find(String method, String path) {
+        return Optional.ofNullable(routes.get(WebhookRoute.key(method, WebhookRoute.normalizePath(path))));
+    }
+
+    /**
+     * Loads the webhooks of all ACTIVE workflows, replacing the current index.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${workflow.webhook.full-reload-interval-ms:300000}",
+        initialDelayString = "${workflow.webhook.full-reload-interval-ms:300000}")
+    public void reload() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        Map<String, WebhookRoute> loaded = new HashMap<>();
+        try {
+            for (Workflow workflow : workflowRepository.findByStatus(ACTIVE)) {
+                route(workflow).ifPresent(route -> loaded.put(workflow.getId(), route));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to load webhook routes", e);
+            return;
+        }
+        synchronized (this) {
+            routesByWorkflow.keySet().retainAll(loaded.keySet());
+            routesByWorkflow.putAll(loaded);
+            rebuild();
+        }
+        lastSync = startedAt;
+        log.info("Loaded {} webhook routes", routes.size());
+    }
+
+    /**
+     * Picks up webhook changes made through other instances.
+     */
+    @Scheduled(fixedDelayString = "${workflow.webhook.resync-interval-ms:10000}")
+    public void resync() {
+        // Overlap the previous window so commits that raced the last query are not missed
+        LocalDateTime since = lastSync.minus(resyncOverlap);
+        lastSync = LocalDateTime.now();
+        try {
+            for (Workflow workflow : workflowRepository.findByUpdatedAtAfter(since)) {
+                update(workflow.getId(), ACTIVE.equals(workflow.getStatus()) ? route(workflow) : Optional.empty());
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to resync webhook routes", e);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onWorkflowChanged(WorkflowChangedEvent event) {
+        Optional<Workflow> workflow = workflowRepository.findById(event.workflowId());
+        update(event.workflowId(), workflow.filter(w -> ACTIVE.equals(w.getStatus())).flatMap(this::route));
+    }
+
+    private synchronized void update(String workflowId, Optional<WebhookRoute> route) {
+        WebhookRoute previous = route.isPresent()
+            ? routesByWorkflow.put(workflowId, route.get())
+            : routesByWorkflow.remove(workflowId);
+        if (previous != null || route.isPresent()) {
+            rebuild();
+        }
+    }
+
+    private void rebuild() {
+        Map<String, WebhookRoute> index = new HashMap<>();
+        // Workflow id order, so every instance resolves path conflicts the same way
+        for (WebhookRoute route : new TreeMap<>(routesByWorkflow).values()) {
+            WebhookRoute existing = index.putIfAbsent(route.key(), route);
+            if (existing != null) {
+                log.warn("Webhook {} of workflow {} is already used by workflow {}; ignoring it",
+                    route.key(), route.workflowId(), existing.workflowId());
+            }
+        }
+        routes = Map.copyOf(index);
+    }
+
+    private Optional<WebhookRoute> route(Workflow workflow) {
+        try {
+            // Compiled here so that a workflow that cannot run is never acknowledged
+            WorkflowDefinitionCache.CachedWorkflow cached = definitionCache.get(workflow);
+            return WebhookRoute.from(workflow.getId(), cached.definition(), () -> executionPlanCache.getPlan(cached));
+        } catch (RuntimeException e) {
+            log.warn("Workflow {} has an invalid webhook trigger: {}", workflow.getId(), e.getMessage());
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.workflow.api.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Small thread-safe LRU cache. Lookups and inserts are synchronized, so values should
+ * be cheap to hand out and {@link #computeIfAbsent} loaders must not call back into
+ * the same cache.
+ */
+public class LruCache<K, V> {
+
+    private final int maxSize;
+    private final LinkedHashMap<K, V> entries;
+
+    public LruCache(int maxSize) {
+        this(maxSize, () -> { });
+    }
+
+    /**
+     * @param onEviction called, under the cache lock, whenever an entry is evicted to
+     *                   make room
+     */
+    public LruCache(int maxSize, Runnable onEviction) {
+        this.maxSize = Math.max(1, maxSize);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                if (size() > LruCache.this.maxSize) {
+                    onEviction.run();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public synchronized V get(K key) {
+        return entries.get(key);
+    }
+
+    public synchronized void put(K key, V value) {
+        entries.put(key, value);
+    }
+
+    public synchronized V computeIfAbsent(K key, Function<? super K, ? extends V> loader) {
+        return entries.computeIfAbsent(key, loader);
+    }
+
+    public synchronized void remove(K key) {
+        entries.remove(key);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,27 @@
+package com.workflow.api.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.io.SegmentedStringWriter;
+import com.fasterxml.jackson.core.util.BufferRecycler;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+
+import java.io.IOException;
+
+/**
+ * Captures a JSON value as its JSON text. Tokens are copied straight from the parser to
+ * a generator, so large values (such as workflow definitions) are neither bound to maps
+ * and lists nor serialized again.
+ */
+public class RawJsonDeserializer extends JsonDeserializer<String> {
+
+    @Override
+    public String deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+        SegmentedStringWriter writer = new SegmentedStringWriter(new BufferRecycler());
+        try (JsonGenerator generator = parser.getCodec().getFactory().createGenerator(writer)) {
+            generator.copyCurrentStructure(parser);
+        }
+        return writer.getAndClear();
+    }
+}
@@ -0,0 +1,158 @@
+package com.workflow.api.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.workflow.api.config.JacksonConfig;
+import com.workflow.api.dto.WorkflowSummary;
+import com.workflow.api.entity.Workflow;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares listing a page of workflows as full entities, as {@code GET /workflows} did
+ * before, with the {@link WorkflowSummary} projection it uses now: time to run the
+ * query and map the page, and the size of the page serialized as the response body.
+ * Runs against the embedded H2 database with the Liquibase schema. Not part of the
+ * regular build (surefire only picks up {@code *Test} classes); run it with
+ * <pre>
+ *   mvn -pl api test -Dtest=WorkflowSummaryBenchmark
+ * </pre>
+ * H2 stores the definition inline, so on PostgreSQL, where large jsonb values are
+ * TOASTed and have to be fetched and decompressed, the gap in query time is larger.
+ */
+@DataJpaTest
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import(JacksonConfig.class)
+class WorkflowSummaryBenchmark {
+
+    private static final String OWNER_ID = "benchmark-owner";
+    private static final int WORKFLOWS = 200;
+    private static final int NODES_PER_WORKFLOW = 500;
+    private static final int PAGE_SIZE = 50;
+    private static final int WARMUP_ITERATIONS = 20;
+    private static final int MEASURE_ITERATIONS = 50;
+
+    private static final String FULL_PAGE_QUERY =
+        "select w from Workflow w where w.ownerId = :ownerId order by w.updatedAt desc";
+
+    @Autowired
+    private WorkflowRepository workflowRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void seed() {
+        String definition = definition(NODES_PER_WORKFLOW);
+        List<Workflow> workflows = new ArrayList<>(WORKFLOWS);
+        for (int i = 0; i < WORKFLOWS; i++) {
+            Workflow workflow = new Workflow();
+            workflow.setId(UUID.randomUUID().toString());
+            workflow.setName("workflow-" + i);
+            workflow.setDescription("Benchmark workflow " + i);
+            workflow.setOwnerId(OWNER_ID);
+            workflow.setClientId("benchmark-client");
+            workflow.setStatus("ACTIVE");
+            workflow.setWorkflowDefinition(definition);
+            workflow.setCreatedBy(OWNER_ID);
+            workflow.setUpdatedBy(OWNER_ID);
+            workflows.add(workflow);
+        }
+        workflowRepository.saveAll(workflows);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void compareFullEntitiesWithSummaries() throws Exception {
+        PageRequest page = PageRequest.of(0, PAGE_SIZE, Sort.by(Sort.Direction.DESC, "updatedAt"));
+
+        List<Workflow> full = fullPage();
+        Page<WorkflowSummary> summaries = workflowRepository.findSummariesByOwnerId(OWNER_ID, page);
+        assertThat(full).hasSize(PAGE_SIZE);
+        assertThat(summaries.getContent()).hasSize(PAGE_SIZE);
+
+        long fullBytes = objectMapper.writeValueAsBytes(full).length;
+        long summaryBytes = objectMapper.writeValueAsBytes(summaries.getContent()).length;
+        long fullQueryNanos = time(this::fullPage);
+        long summaryQueryNanos = time(() -> workflowRepository.findSummariesByOwnerId(OWNER_ID, page).getContent());
+
+        System.out.printf("page of %d workflows with %d-node definitions%n", PAGE_SIZE, NODES_PER_WORKFLOW);
+        System.out.printf("%-10s %14s %14s%n", "", "query+map ms", "body bytes");
+        System.out.printf("%-10s %14.2f %14d%n", "full", fullQueryNanos / 1e6, fullBytes);
+        System.out.printf("%-10s %14.2f %14d%n", "summary", summaryQueryNanos / 1e6, summaryBytes);
+    }
+
+    private List<Workflow> fullPage() {
+        return entityManager.createQuery(FULL_PAGE_QUERY, Workflow.class)
+            .setParameter("ownerId", OWNER_ID)
+            .setMaxResults(PAGE_SIZE)
+            .getResultList();
+    }
+
+    /**
+     * Average nanoseconds per call. The persistence context is cleared before every
+     * call so entities are read from the database rather than served from it.
+     */
+    private long time(Supplier<List<?>> query) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            entityManager.clear();
+            assertThat(query.get()).hasSize(PAGE_SIZE);
+        }
+        long elapsed = 0;
+        for (int i = 0; i < MEASURE_ITERATIONS; i++) {
+            entityManager.clear();
+            long start = System.nanoTime();
+            List<?> result = query.get();
+            elapsed += System.nanoTime() - start;
+            assertThat(result).hasSize(PAGE_SIZE);
+        }
+        return elapsed / MEASURE_ITERATIONS;
+    }
+
+    /**
+     * A definition shaped like the designer saves it: a chain of HTTP request nodes.
+     */
+    private static String definition(int nodes) {
+        StringBuilder json = new StringBuilder("{\"nodes\":[");
+        for (int i = 0; i < nodes; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"id\":\"node-").append(i).append("\",\"type\":\"HTTP_REQUEST\",")
+                .append("\"position\":{\"x\":").append(120 + 240 * (i % 10))
+                .append(",\"y\":").append(80 + 160 * (i / 10)).append("},")
+                .append("\"data\":{\"label\":\"Request ").append(i).append("\",\"config\":{")
+                .append("\"method\":\"POST\",\"url\":\"https://api.example.com/customers/").append(i)
+                .append("/events\",\"headers\":{\"content-type\":\"application/json\"},")
+                .append("\"body\":\"{\\\"step\\\": ").append(i).append("}\",\"timeoutMs\":5000}}}");
+        }
+        json.append("],\"edges\":[");
+        for (int i = 1; i < nodes; i++) {
+            if (i > 1) {
+                json.append(',');
+            }
+            json.append("{\"id\":\"edge-").append(i).append("\",\"source\":\"node-").append(i - 1)
+                .append("\",\"target\":\"node-").append(i).append("\"}");
+        }
+        return json.append("]}").toString();
+    }
+}
@@ -0,0 +1,115 @@
+package com.workflow.api.service.expression;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ConditionExpressionParserTest {
+
+    private static boolean test(String expression, Map<String, Object> json) {
+        return ConditionExpressionParser.parse(expression).test(json);
+    }
+
+    private static Map<String, Object> response() {
+        Map<String, Object> json = new HashMap<>();
+        json.put("status", 200);
+        json.put("code", "200");
+        json.put("ok", true);
+        json.put("count", 0);
+        json.put("name", "");
+        json.put("user", Map.of("name", "ada", "roles", List.of("admin", "dev")));
+        json.put("items", List.of(Map.of("id", 1L), Map.of("id", 2L)));
+        json.put("nothing", null);
+        return json;
+    }
+
+    @Test
+    void comparesNumbersRegardlessOfJavaType() {
+        assertThat(test("$json.status == 200", response())).isTrue();
+        assertThat(test("json.status >= 200 && json.status < 300", response())).isTrue();
+        assertThat(test("$json.items[1].id === 2", response())).isTrue();
+        assertThat(test("-$json.status < 0", response())).isTrue();
+    }
+
+    @Test
+    void distinguishesLooseAndStrictEquality() {
+        assertThat(test("$json.code == 200", response())).isTrue();
+        assertThat(test("$json.code === 200", response())).isFalse();
+        assertThat(test("$json.code !== 200", response())).isTrue();
+        assertThat(test("$json.nothing == undefined", response())).isTrue();
+        assertThat(test("$json.nothing === undefined", response())).isFalse();
+    }
+
+    @Test
+    void resolvesDotBracketAndLengthPaths() {
+        assertThat(test("$json.user.name === 'ada'", response())).isTrue();
+        assertThat(test("$json['user'][\"roles\"][0] === 'admin'", response())).isTrue();
+        assertThat(test("$json.user.roles.length === 2", response())).isTrue();
+        assertThat(test("$json.user.name.length == 3", response())).isTrue();
+        assertThat(test("$json.user.roles[5] === undefined", response())).isTrue();
+    }
+
+    @Test
+    void missingPropertiesAreUndefined() {
+        assertThat(test("$json.missing === undefined", response())).isTrue();
+        assertThat(test("!$json.missing", response())).isTrue();
+    }
+
+    @Test
+    void appliesJavaScriptTruthiness() {
+        assertThat(test("$json.ok", response())).isTrue();
+        assertThat(test("$json.count", response())).isFalse();
+        assertThat(test("$json.name", response())).isFalse();
+        assertThat(test("$json.user", response())).isTrue();
+        assertThat(test("$json.count || $json.name || $json.user", response())).isTrue();
+        assertThat(test("$json.ok && $json.count", response())).isFalse();
+    }
+
+    @Test
+    void respectsPrecedenceAndParentheses() {
+        assertThat(test("false && false || true", response())).isTrue();
+        assertThat(test("false && (false || true)", response())).isFalse();
+        assertThat(test("!(1 > 2) && 2 >= 2", response())).isTrue();
+        assertThat(test("1 < 2 == true", response())).isTrue();
+    }
+
+    @Test
+    void rejectsWhatItCannotCompile() {
+        assertThatThrownBy(() -> ConditionExpressionParser.parse("Math.max(1, 2) > 1"))
+            .isInstanceOf(UnsupportedExpressionException.class);
+        assertThatThrownBy(() -> ConditionExpressionParser.parse("$json.items.map(i => i.id)"))
+            .isInstanceOf(UnsupportedExpressionException.class);
+        assertThatThrownBy(() -> ConditionExpressionParser.parse("$json.status = 200"))
+            .isInstanceOf(UnsupportedExpressionException.class);
+        assertThatThrownBy(() -> ConditionExpressionParser.parse("$json[key]"))
+            .isInstanceOf(UnsupportedExpressionException.class);
+        assertThatThrownBy(() -> ConditionExpressionParser.parse("'it\\'s'"))
+            .isInstanceOf(UnsupportedExpressionException.class);
+        assertThatThrownBy(() -> ConditionExpressionParser.parse("1 2"))
+            .isInstanceOf(UnsupportedExpressionException.class);
+        assertThatThrownBy(() -> ConditionExpressionParser.parse("(1 > 2"))
+            .isInstanceOf(UnsupportedExpressionException.class);
+        assertThatThrownBy(() -> ConditionExpressionParser.parse("010 == 8"))
+            .isInstanceOf(UnsupportedExpressionException.class);
+    }
+
+    @Test
+    void defersToTheScriptEngineWhenEvaluationNeedsIt() {
+        CompiledCondition nullProperty = ConditionExpressionParser.parse("$json.nothing.name == 'x'");
+        assertThatThrownBy(() -> nullProperty.test(response()))
+            .isInstanceOf(UnsupportedExpressionException.class);
+
+        CompiledCondition objectComparison = ConditionExpressionParser.parse("$json.user > 1");
+        assertThatThrownBy(() -> objectComparison.test(response()))
+            .isInstanceOf(UnsupportedExpressionException.class);
+
+        CompiledCondition looseObjectEquality = ConditionExpressionParser.parse("$json.user.roles == 'admin,dev'");
+        assertThatThrownBy(() -> looseObjectEquality.test(response()))
+            .isInstanceOf(UnsupportedExpressionException.class);
+    }
+}
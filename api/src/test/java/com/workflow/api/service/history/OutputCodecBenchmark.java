@@ -0,0 +1,107 @@
+package com.workflow.api.service.history;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares {@link OutputCodec} with plain JSON for typical node outputs: stored size,
+ * and encode/decode time per document. Not part of the regular build (surefire only
+ * picks up {@code *Test} classes); run it with
+ * <pre>
+ *   mvn -pl api test -Dtest=OutputCodecBenchmark
+ * </pre>
+ * Timings are averages over {@value #MEASURE_ITERATIONS} iterations after
+ * {@value #WARMUP_ITERATIONS} warm-up iterations, good enough to compare the two
+ * formats on one machine but not a substitute for a JMH run.
+ */
+class OutputCodecBenchmark {
+
+    private static final int WARMUP_ITERATIONS = 2_000;
+    private static final int MEASURE_ITERATIONS = 5_000;
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {};
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final OutputCodec codec = new OutputCodec(objectMapper, 512, 262_144);
+
+    @Test
+    void compareWithJson() throws Exception {
+        System.out.printf("%-8s %10s %10s %7s %12s %12s %12s %12s%n",
+            "payload", "json B", "codec B", "ratio", "json enc ns", "codec enc ns", "json dec ns", "codec dec ns");
+        for (int items : new int[] {1, 20, 500}) {
+            Map<String, Object> outputs = httpOutputs(items);
+
+            byte[] json = objectMapper.writeValueAsBytes(outputs);
+            byte[] encoded = codec.encode(outputs);
+            assertThat(codec.decode(encoded)).isEqualTo(objectMapper.readValue(json, MAP_TYPE));
+
+            long jsonEncode = time(() -> objectMapper.writeValueAsBytes(outputs));
+            long codecEncode = time(() -> codec.encode(outputs));
+            long jsonDecode = time(() -> objectMapper.readValue(json, MAP_TYPE));
+            long codecDecode = time(() -> codec.decode(encoded));
+
+            System.out.printf("%-8s %10d %10d %7.2f %12d %12d %12d %12d%n",
+                items + " rows", json.length, encoded.length, (double) encoded.length / json.length,
+                jsonEncode, codecEncode, jsonDecode, codecDecode);
+        }
+    }
+
+    /**
+     * Average nanoseconds per call.
+     */
+    private static long time(Action action) throws Exception {
+        Object sink = null;
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            sink = action.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURE_ITERATIONS; i++) {
+            sink = action.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        assertThat(sink).isNotNull();
+        return elapsed / MEASURE_ITERATIONS;
+    }
+
+    /**
+     * Outputs shaped like an HTTP node's: status, headers and a JSON array body.
+     */
+    private static Map<String, Object> httpOutputs(int items) {
+        List<Map<String, Object>> data = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("id", i);
+            item.put("name", "customer-" + i);
+            item.put("email", "customer" + i + "@example.com");
+            item.put("active", i % 3 != 0);
+            item.put("balance", i * 12.5);
+            item.put("tags", List.of("tier-" + (i % 4), "region-" + (i % 7)));
+            data.add(item);
+        }
+        Map<String, Object> headers = new LinkedHashMap<>();
+        headers.put("content-type", "application/json");
+        headers.put("cache-control", "no-cache");
+        headers.put("x-request-id", "0f8c2a9e-4d7b-4b1e-9a53-2c6f1d8e7b40");
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("status", 200);
+        response.put("headers", headers);
+        response.put("data", data);
+
+        Map<String, Object> outputs = new LinkedHashMap<>();
+        outputs.put("response", response);
+        return outputs;
+    }
+
+    @FunctionalInterface
+    private interface Action {
+        Object run() throws Exception;
+    }
+}
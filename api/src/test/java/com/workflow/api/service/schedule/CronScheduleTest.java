@@ -0,0 +1,114 @@
+package com.workflow.api.service.schedule;
+
+import com.workflow.api.dto.WorkflowDefinition;
+import com.workflow.api.dto.WorkflowNode;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CronScheduleTest {
+
+    private static WorkflowNode node(String id, String type, Map<String, Object> config) {
+        return new WorkflowNode(id, type, new WorkflowNode.Position(0, 0),
+            new WorkflowNode.NodeData(id, new HashMap<>(config)));
+    }
+
+    private static WorkflowDefinition definition(WorkflowNode... nodes) {
+        return new WorkflowDefinition("wf-1", "Workflow", List.of(nodes), List.of(), null, null);
+    }
+
+    private static Optional<CronSchedule> schedule(Map<String, Object> triggerConfig) {
+        return CronSchedule.from("wf-1", definition(
+            node("http", "HTTP_REQUEST", Map.of("url", "https://example.com")),
+            node("trigger", "TRIGGER", triggerConfig)));
+    }
+
+    @Test
+    void readsFiveFieldExpressionsAsFiringOnTheMinute() {
+        CronSchedule schedule = schedule(Map.of("triggerType", "SCHEDULE", "cron", "*/15 * * * *")).orElseThrow();
+
+        assertThat(schedule.workflowId()).isEqualTo("wf-1");
+        assertThat(schedule.zone()).isEqualTo(ZoneOffset.UTC);
+        assertThat(schedule.misfirePolicy()).isEqualTo(CronSchedule.MisfirePolicy.FIRE_ONCE);
+        assertThat(schedule.next(Instant.parse("2026-03-02T10:07:30Z"))).isEqualTo(Instant.parse("2026-03-02T10:15:00Z"));
+        // Strictly after
+        assertThat(schedule.next(Instant.parse("2026-03-02T10:15:00Z"))).isEqualTo(Instant.parse("2026-03-02T10:30:00Z"));
+    }
+
+    @Test
+    void acceptsSixFieldExpressionsAndTheDesignersKey() {
+        CronSchedule schedule = schedule(Map.of("triggerType", "SCHEDULE", "cronExpression", " 30 0 12 * * MON ")).orElseThrow();
+
+        assertThat(schedule.expression()).isEqualTo("30 0 12 * * MON");
+        assertThat(schedule.next(Instant.parse("2026-03-03T00:00:00Z"))).isEqualTo(Instant.parse("2026-03-09T12:00:30Z"));
+    }
+
+    @Test
+    void evaluatesInTheConfiguredTimezone() {
+        CronSchedule schedule = schedule(Map.of("triggerType", "SCHEDULE", "cron", "0 9 * * *",
+            "timezone", "Europe/Berlin")).orElseThrow();
+
+        assertThat(schedule.zone()).isEqualTo(ZoneId.of("Europe/Berlin"));
+        // CET in winter, CEST after the switch on the last Sunday of March
+        assertThat(schedule.next(Instant.parse("2026-01-15T00:00:00Z"))).isEqualTo(Instant.parse("2026-01-15T08:00:00Z"));
+        assertThat(schedule.next(Instant.parse("2026-07-15T00:00:00Z"))).isEqualTo(Instant.parse("2026-07-15T07:00:00Z"));
+    }
+
+    @Test
+    void readsTheMisfirePolicyCaseInsensitively() {
+        CronSchedule schedule = schedule(Map.of("triggerType", "SCHEDULE", "cron", "0 * * * *",
+            "misfirePolicy", "skip")).orElseThrow();
+
+        assertThat(schedule.misfirePolicy()).isEqualTo(CronSchedule.MisfirePolicy.SKIP);
+    }
+
+    @Test
+    void ignoresWorkflowsWithoutAScheduleTrigger() {
+        assertThat(schedule(Map.of("triggerType", "WEBHOOK", "cron", "0 * * * *")).isPresent()).isFalse();
+        assertThat(schedule(Map.of()).isPresent()).isFalse();
+        assertThat(CronSchedule.from("wf-1", definition(
+            node("code", "CODE", Map.of("triggerType", "SCHEDULE", "cron", "0 * * * *")))).isPresent()).isFalse();
+        assertThat(CronSchedule.from("wf-1", new WorkflowDefinition()).isPresent()).isFalse();
+    }
+
+    @Test
+    void rejectsInvalidScheduleTriggers() {
+        assertThatThrownBy(() -> schedule(Map.of("triggerType", "SCHEDULE", "cron", " ")))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("no cron expression");
+        assertThatThrownBy(() -> schedule(Map.of("triggerType", "SCHEDULE", "cron", "61 * * * *")))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> schedule(Map.of("triggerType", "SCHEDULE", "cron", "0 * * * *",
+            "timezone", "Mars/Olympus")))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("Unknown timezone");
+        assertThatThrownBy(() -> schedule(Map.of("triggerType", "SCHEDULE", "cron", "0 * * * *",
+            "misfirePolicy", "RETRY")))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("Unknown misfire policy");
+    }
+
+    @Test
+    void comparesSchedulesByExpressionZoneAndPolicy() {
+        CronSchedule utc = schedule(Map.of("triggerType", "SCHEDULE", "cron", "0 9 * * *")).orElseThrow();
+        CronSchedule sameUtc = schedule(Map.of("triggerType", "SCHEDULE", "cron", "0 9 * * *")).orElseThrow();
+        CronSchedule berlin = schedule(Map.of("triggerType", "SCHEDULE", "cron", "0 9 * * *",
+            "timezone", "Europe/Berlin")).orElseThrow();
+        CronSchedule skip = schedule(Map.of("triggerType", "SCHEDULE", "cron", "0 9 * * *",
+            "misfirePolicy", "SKIP")).orElseThrow();
+
+        assertThat(utc.sameAs(sameUtc)).isTrue();
+        assertThat(utc.sameAs(berlin)).isFalse();
+        assertThat(utc.sameAs(skip)).isFalse();
+        assertThat(utc.sameAs(null)).isFalse();
+    }
+}
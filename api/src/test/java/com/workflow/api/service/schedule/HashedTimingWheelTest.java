@@ -0,0 +1,114 @@
+package com.workflow.api.service.schedule;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HashedTimingWheelTest {
+
+    private static final long TICK_MS = 10;
+    private static final int WHEEL_SIZE = 8;
+
+    private final Map<String, Long> firedAt = new ConcurrentHashMap<>();
+    private HashedTimingWheel<String> wheel;
+
+    @AfterEach
+    void stopWheel() {
+        if (wheel != null) {
+            wheel.stop();
+        }
+    }
+
+    private HashedTimingWheel<String> newWheel(Consumer<String> onExpired) {
+        wheel = new HashedTimingWheel<>("test-wheel", TICK_MS, WHEEL_SIZE, onExpired);
+        return wheel;
+    }
+
+    private Consumer<String> recordingTo(CountDownLatch latch) {
+        return task -> {
+            firedAt.put(task, System.currentTimeMillis());
+            latch.countDown();
+        };
+    }
+
+    @Test
+    void firesAtOrAfterTheDeadline() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        newWheel(recordingTo(latch));
+        long deadline = System.currentTimeMillis() + 50;
+
+        wheel.schedule("task", Instant.ofEpochMilli(deadline));
+
+        assertThat(latch.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(firedAt.get("task")).isGreaterThanOrEqualTo(deadline);
+    }
+
+    @Test
+    void waitsOutExtraRoundsForDeadlinesBeyondOneRevolution() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        newWheel(recordingTo(latch));
+        // Three revolutions of an 8 x 10 ms wheel away
+        long deadline = System.currentTimeMillis() + 3 * WHEEL_SIZE * TICK_MS + 15;
+
+        wheel.schedule("far", Instant.ofEpochMilli(deadline));
+
+        assertThat(latch.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(firedAt.get("far")).isGreaterThanOrEqualTo(deadline);
+    }
+
+    @Test
+    void firesPastDeadlinesOnTheNextTick() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        newWheel(recordingTo(latch));
+        long scheduledAt = System.currentTimeMillis();
+
+        wheel.schedule("late", Instant.ofEpochMilli(scheduledAt - 60_000));
+
+        assertThat(latch.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(firedAt.get("late") - scheduledAt).isLessThan(1_000L);
+    }
+
+    @Test
+    void neverFiresCancelledTimeouts() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        newWheel(recordingTo(latch));
+        long now = System.currentTimeMillis();
+
+        HashedTimingWheel.Timeout<String> cancelled = wheel.schedule("cancelled", Instant.ofEpochMilli(now + 30));
+        wheel.schedule("kept", Instant.ofEpochMilli(now + 120));
+        cancelled.cancel();
+
+        assertThat(latch.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(firedAt.keySet()).containsExactly("kept");
+    }
+
+    @Test
+    void keepsTickingWhenTheHandlerThrows() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        List<String> fired = new CopyOnWriteArrayList<>();
+        newWheel(task -> {
+            fired.add(task);
+            if ("bad".equals(task)) {
+                throw new IllegalStateException("handler failure");
+            }
+            latch.countDown();
+        });
+        long now = System.currentTimeMillis();
+
+        wheel.schedule("bad", Instant.ofEpochMilli(now + 20));
+        wheel.schedule("good", Instant.ofEpochMilli(now + 80));
+
+        assertThat(latch.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(fired).containsExactly("bad", "good");
+    }
+}
@@ -0,0 +1,136 @@
+package com.workflow.api.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.workflow.api.dto.WorkflowRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning a create/update request body into the definition text that gets
+ * stored: {@link RawJsonDeserializer} copying tokens versus binding the definition to
+ * maps and serializing it again, as requests were handled before. Run with
+ * <pre>
+ *   mvn -pl api test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.workflow.api.util.RawJsonDeserializerBenchmark
+ * </pre>
+ * or straight from the IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RawJsonDeserializerBenchmark {
+
+    @Param({"50", "500"})
+    public int nodes;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private byte[] body;
+
+    @Setup
+    public void setUp() throws Exception {
+        Map<String, Object> request = new LinkedHashMap<>();
+        request.put("name", "benchmark");
+        request.put("description", nodes + " node workflow");
+        request.put("status", "ACTIVE");
+        request.put("workflowDefinition", definition(nodes));
+        body = objectMapper.writeValueAsBytes(request);
+    }
+
+    @Benchmark
+    public String raw() throws Exception {
+        return objectMapper.readValue(body, WorkflowRequest.class).getWorkflowDefinition();
+    }
+
+    @Benchmark
+    public String boundAndReserialized() throws Exception {
+        BoundWorkflowRequest request = objectMapper.readValue(body, BoundWorkflowRequest.class);
+        return objectMapper.writeValueAsString(request.workflowDefinition);
+    }
+
+    /**
+     * Request shape before definitions were kept raw.
+     */
+    public static class BoundWorkflowRequest {
+        public String name;
+        public String description;
+        public String clientId;
+        public String status;
+        public Map<String, Object> workflowDefinition;
+    }
+
+    /**
+     * A chain of HTTP and code nodes behind a trigger, laid out like the designer saves it.
+     */
+    private static Map<String, Object> definition(int nodeCount) {
+        List<Map<String, Object>> nodeList = new ArrayList<>(nodeCount);
+        List<Map<String, Object>> edgeList = new ArrayList<>(nodeCount);
+        for (int i = 0; i < nodeCount; i++) {
+            Map<String, Object> config = new LinkedHashMap<>();
+            String type;
+            if (i == 0) {
+                type = "TRIGGER";
+            } else if (i % 2 == 1) {
+                type = "HTTP_REQUEST";
+                config.put("method", "POST");
+                config.put("url", "https://api.example.com/customers/" + i + "/events");
+                config.put("headers", Map.of("content-type", "application/json", "x-source", "workflow"));
+                config.put("body", "{\"step\": " + i + ", \"payload\": \"{{ $json.response.data }}\"}");
+                config.put("timeoutMs", 5000);
+            } else {
+                type = "CODE";
+                config.put("code", "var items = $json.response.data || [];\n"
+                    + "return { count: items.length, step: " + i + " };");
+            }
+
+            Map<String, Object> data = new LinkedHashMap<>();
+            data.put("label", type + " " + i);
+            data.put("config", config);
+
+            Map<String, Object> node = new LinkedHashMap<>();
+            node.put("id", "node-" + i);
+            node.put("type", type);
+            node.put("position", Map.of("x", 120.0 + 240 * (i % 10), "y", 80.0 + 160 * (i / 10)));
+            node.put("data", data);
+            nodeList.add(node);
+
+            if (i > 0) {
+                Map<String, Object> edge = new LinkedHashMap<>();
+                edge.put("id", "edge-" + (i - 1) + "-" + i);
+                edge.put("source", "node-" + (i - 1));
+                edge.put("target", "node-" + i);
+                edgeList.add(edge);
+            }
+        }
+        Map<String, Object> definition = new LinkedHashMap<>();
+        definition.put("nodes", nodeList);
+        definition.put("edges", edgeList);
+        return definition;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(RawJsonDeserializerBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
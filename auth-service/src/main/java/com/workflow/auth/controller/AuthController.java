@@ -13,6 +13,7 @@ import com.workflow.enums.UserRole;
 import com.workflow.exceptions.client.ClientNotFoundException;
 import com.workflow.exceptions.user.UserNotFoundException;
 import com.workflow.model.ApiResponse;
+import com.workflow.model.CursorPage;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -175,6 +176,54 @@ public class AuthController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Get all users by cursor, ordered by username
+     * Pass the returned nextCursor to get the following page; it is null on the last page.
+     * includeTotal adds an approximate total (PostgreSQL only).
+     */
+    @GetMapping("/users/cursor")
+    @PreAuthorize("hasAuthority('PLATFORM_ADMIN')")
+    public ResponseEntity<ApiResponse<CursorPage<UserDto>>> getAllUsersByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String search,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        CursorPage<UserDto> usersPage = userService.getUsersByCursor(null, search, cursor, size, includeTotal);
+        ApiResponse<CursorPage<UserDto>> response = new ApiResponse<>(HttpStatus.OK.value(), HttpStatus.OK.getReasonPhrase(), usersPage);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Get users by client ID by cursor, ordered by username
+     * PLATFORM_ADMIN can list any client, CLIENT_ADMIN only their own
+     */
+    @GetMapping("/users/client/{clientId}/cursor")
+    @PreAuthorize("hasAnyAuthority('PLATFORM_ADMIN', 'CLIENT_ADMIN')")
+    public ResponseEntity<ApiResponse<CursorPage<UserDto>>> getUsersByClientIdByCursor(
+            @PathVariable UUID clientId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String search,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        org.springframework.security.core.Authentication authentication = 
+            org.springframework.security.core.context.SecurityContextHolder.getContext().getAuthentication();
+        
+        boolean isPlatformAdmin = authentication.getAuthorities().stream()
+            .anyMatch(a -> a.getAuthority().equals("PLATFORM_ADMIN"));
+        
+        if (!isPlatformAdmin) {
+            Optional<User> currentUserOpt = userService.getCurrentUser();
+            if (currentUserOpt.isEmpty() || currentUserOpt.get().getClient() == null
+                    || !currentUserOpt.get().getClient().getId().equals(clientId)) {
+                throw new org.springframework.security.access.AccessDeniedException("Access Denied: You can only access users from your own client");
+            }
+        }
+        
+        CursorPage<UserDto> usersPage = userService.getUsersByCursor(clientId, search, cursor, size, includeTotal);
+        ApiResponse<CursorPage<UserDto>> response = new ApiResponse<>(HttpStatus.OK.value(), HttpStatus.OK.getReasonPhrase(), usersPage);
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * Get a single user by ID
      * PLATFORM_ADMIN can access any user
@@ -7,10 +7,16 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface UserRepository extends JpaRepository<User, UUID> {
+    String SEARCH_MATCHES = "(LOWER(u.username) LIKE :pattern ESCAPE '\\' OR " +
+           "LOWER(u.email) LIKE :pattern ESCAPE '\\' OR " +
+           "LOWER(u.firstName) LIKE :pattern ESCAPE '\\' OR " +
+           "LOWER(u.lastName) LIKE :pattern ESCAPE '\\')";
+    
     Optional<User> findByUsername(String username);
     Optional<User> findByEmail(String email);
     
@@ -50,4 +56,27 @@ public interface UserRepository extends JpaRepository<User, UUID> {
            "LOWER(u.firstName) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
            "LOWER(u.lastName) LIKE LOWER(CONCAT('%', :search, '%')))")
     Page<User> findByClientIdWithSearch(@Param("clientId") UUID clientId, @Param("search") String search, Pageable pageable);
+    
+    /**
+     * Keyset pages of users by (username, id). The first page has no cursor; the others
+     * continue after the last row of the previous one. Pass "%" as pattern to match all users.
+     */
+    @Query("SELECT u FROM User u WHERE " + SEARCH_MATCHES + " ORDER BY u.username, u.id")
+    List<User> seekAll(@Param("pattern") String pattern, Pageable pageable);
+    
+    @Query("SELECT u FROM User u WHERE " + SEARCH_MATCHES + " AND (u.username, u.id) > (:username, :id) " +
+           "ORDER BY u.username, u.id")
+    List<User> seekAllAfter(@Param("pattern") String pattern, @Param("username") String username,
+                            @Param("id") UUID id, Pageable pageable);
+    
+    /**
+     * Keyset pages of a client's users by (username, id)
+     */
+    @Query("SELECT u FROM User u WHERE u.client.id = :clientId AND " + SEARCH_MATCHES + " ORDER BY u.username, u.id")
+    List<User> seekByClientId(@Param("clientId") UUID clientId, @Param("pattern") String pattern, Pageable pageable);
+    
+    @Query("SELECT u FROM User u WHERE u.client.id = :clientId AND " + SEARCH_MATCHES +
+           " AND (u.username, u.id) > (:username, :id) ORDER BY u.username, u.id")
+    List<User> seekByClientIdAfter(@Param("clientId") UUID clientId, @Param("pattern") String pattern,
+                                   @Param("username") String username, @Param("id") UUID id, Pageable pageable);
 }
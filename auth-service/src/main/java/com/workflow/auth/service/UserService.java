@@ -15,13 +15,19 @@ import com.workflow.dto.UserDto;
 import com.workflow.exceptions.user.InvalidCredentialsException;
 import com.workflow.exceptions.user.UserAlreadyExistsException;
 import com.workflow.exceptions.user.UserNotFoundException;
+import com.workflow.model.CursorPage;
+import com.workflow.util.CursorToken;
+import com.workflow.util.PlannerEstimates;
 import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.modelmapper.ModelMapper;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import com.workflow.exceptions.role.RoleNotFoundException;
@@ -33,12 +39,17 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 @Slf4j
 public class UserService {
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+    private static final String SEARCH_MATCHES_SQL = "(lower(username) LIKE ? ESCAPE '\\' OR lower(email) LIKE ? ESCAPE '\\' " +
+            "OR lower(first_name) LIKE ? ESCAPE '\\' OR lower(last_name) LIKE ? ESCAPE '\\')";
+
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
     private final JwtUtil jwtUtil;
     private final PasswordEncoder passwordEncoder;
     private final PasswordPolicyValidator passwordPolicyValidator;
     private final PlatformSettingsService platformSettingsService;
+    private final JdbcTemplate jdbcTemplate;
     @org.springframework.beans.factory.annotation.Autowired
     private ModelMapper modelMapper;
 
@@ -113,32 +124,7 @@ public class UserService {
         }
 
         List<UserDto> userDtos = usersPage.getContent().stream()
-                .map(user -> {
-                    UserDto dto = modelMapper.map(user, UserDto.class);
-                    String createdByName = null;
-                    String updatedByName = null;
-                    
-                    if (user.getCreatedBy() != null) {
-                        Optional<User> createdByUser = userRepository.findById(user.getCreatedBy());
-                        createdByName = createdByUser.map(User::getUsername).orElse(null);
-                    }
-                    
-                    if (user.getUpdatedBy() != null) {
-                        Optional<User> updatedByUser = userRepository.findById(user.getUpdatedBy());
-                        updatedByName = updatedByUser.map(User::getUsername).orElse(null);
-                    }
-
-                    if(createdByName != null){
-                        dto.setCreatedByName(createdByName);
-                    }
-                    
-                    if(updatedByName != null){
-                        dto.setUpdatedByName(updatedByName);
-                    }
-                    
-                    dto.setRoles(mapRolesToNames(user.getRoles()));
-                    return dto;
-                })
+                .map(this::toUserDto)
                 .collect(Collectors.toList());
 
         return new PageImpl<>(userDtos, pageable, usersPage.getTotalElements());
@@ -154,37 +140,81 @@ public class UserService {
         }
 
         List<UserDto> userDtos = usersPage.getContent().stream()
-                .map(user -> {
-                    UserDto dto = modelMapper.map(user, UserDto.class);
-                    String createdByName = null;
-                    String updatedByName = null;
-                    
-                    if (user.getCreatedBy() != null) {
-                        Optional<User> createdByUser = userRepository.findById(user.getCreatedBy());
-                        createdByName = createdByUser.map(User::getUsername).orElse(null);
-                    }
-                    
-                    if (user.getUpdatedBy() != null) {
-                        Optional<User> updatedByUser = userRepository.findById(user.getUpdatedBy());
-                        updatedByName = updatedByUser.map(User::getUsername).orElse(null);
-                    }
-
-                    if(createdByName != null){
-                        dto.setCreatedByName(createdByName);
-                    }
-                    
-                    if(updatedByName != null){
-                        dto.setUpdatedByName(updatedByName);
-                    }
-                    
-                    dto.setRoles(mapRolesToNames(user.getRoles()));
-                    return dto;
-                })
+                .map(this::toUserDto)
                 .collect(Collectors.toList());
 
         return new PageImpl<>(userDtos, pageable, usersPage.getTotalElements());
     }
 
+    /**
+     * Get a page of users ordered by username, across all clients when clientId is null.
+     * Pages are read by keyset: each continues after the (username, id) of the previous page's
+     * last row, carried in the cursor, so deep pages cost the same as the first one and no
+     * count query runs. The total, if asked for, is the planner's estimate.
+     */
+    public CursorPage<UserDto> getUsersByCursor(UUID clientId, String search, String cursor, int size, boolean includeTotal) {
+        int limit = Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+        String pattern = toSearchPattern(search);
+        // One row more than the page tells whether another page follows
+        Pageable rowsToRead = PageRequest.of(0, limit + 1);
+
+        List<User> users;
+        if (cursor == null || cursor.isEmpty()) {
+            users = clientId == null
+                    ? userRepository.seekAll(pattern, rowsToRead)
+                    : userRepository.seekByClientId(clientId, pattern, rowsToRead);
+        } else {
+            String[] keys = CursorToken.decode(cursor, 2);
+            UUID afterId = toCursorId(keys[1]);
+            users = clientId == null
+                    ? userRepository.seekAllAfter(pattern, keys[0], afterId, rowsToRead)
+                    : userRepository.seekByClientIdAfter(clientId, pattern, keys[0], afterId, rowsToRead);
+        }
+
+        String nextCursor = null;
+        if (users.size() > limit) {
+            users = users.subList(0, limit);
+            User last = users.get(limit - 1);
+            nextCursor = CursorToken.encode(last.getUsername(), last.getId().toString());
+        }
+
+        List<UserDto> userDtos = users.stream()
+                .map(this::toUserDto)
+                .collect(Collectors.toList());
+        Long approximateTotal = includeTotal ? estimateUsers(clientId, pattern) : null;
+        return new CursorPage<>(userDtos, nextCursor, approximateTotal);
+    }
+
+    private Long estimateUsers(UUID clientId, String pattern) {
+        return jdbcTemplate.execute((ConnectionCallback<Long>) c -> clientId == null
+                ? PlannerEstimates.estimateRows(c, "SELECT 1 FROM workflow_users WHERE " + SEARCH_MATCHES_SQL,
+                        pattern, pattern, pattern, pattern)
+                : PlannerEstimates.estimateRows(c, "SELECT 1 FROM workflow_users WHERE client_id = ? AND " + SEARCH_MATCHES_SQL,
+                        clientId, pattern, pattern, pattern, pattern));
+    }
+
+    /**
+     * Case-insensitive "contains" LIKE pattern, with LIKE wildcards in the search escaped
+     */
+    private String toSearchPattern(String search) {
+        if (search == null || search.trim().isEmpty()) {
+            return "%";
+        }
+        String escaped = search.trim().toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+
+    private UUID toCursorId(String value) {
+        try {
+            return UUID.fromString(value);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
     public UserDto getUserDtoById(UUID userId) {
         User user = userRepository.findById(userId).orElse(null);
         if(user == null) {
@@ -405,6 +435,33 @@ public class UserService {
         );
     }
 
+    private UserDto toUserDto(User user) {
+        UserDto dto = modelMapper.map(user, UserDto.class);
+        String createdByName = null;
+        String updatedByName = null;
+        
+        if (user.getCreatedBy() != null) {
+            Optional<User> createdByUser = userRepository.findById(user.getCreatedBy());
+            createdByName = createdByUser.map(User::getUsername).orElse(null);
+        }
+        
+        if (user.getUpdatedBy() != null) {
+            Optional<User> updatedByUser = userRepository.findById(user.getUpdatedBy());
+            updatedByName = updatedByUser.map(User::getUsername).orElse(null);
+        }
+
+        if(createdByName != null){
+            dto.setCreatedByName(createdByName);
+        }
+        
+        if(updatedByName != null){
+            dto.setUpdatedByName(updatedByName);
+        }
+        
+        dto.setRoles(mapRolesToNames(user.getRoles()));
+        return dto;
+    }
+
     private List<String> mapRolesToNames(Set<Role> roles) {
         return roles.stream().map(Role::getCode).collect(Collectors.toList());
     }
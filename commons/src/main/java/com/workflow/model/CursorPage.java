@@ -0,0 +1,21 @@
+package com.workflow.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing. {@code nextCursor} is passed back to fetch the
+ * following page and is null on the last one. {@code approximateTotal} is the planner's
+ * row estimate, only filled in when asked for and where the database provides one.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> content;
+    private String nextCursor;
+    private Long approximateTotal;
+}
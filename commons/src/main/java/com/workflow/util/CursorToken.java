@@ -0,0 +1,41 @@
+package com.workflow.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque continuation tokens for keyset pagination. A token carries the sort keys of
+ * the last row of a page; clients hand it back unchanged and never look inside.
+ */
+public final class CursorToken {
+
+    private static final String SEPARATOR = "\u001f";
+
+    private CursorToken() {
+    }
+
+    public static String encode(String... keys) {
+        String joined = String.join(SEPARATOR, keys);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(joined.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns the {@code expectedKeys} keys of a token.
+     *
+     * @throws IllegalArgumentException if the token was not produced by {@link #encode}
+     *                                  with that many keys
+     */
+    public static String[] decode(String token, int expectedKeys) {
+        String joined;
+        try {
+            joined = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        String[] keys = joined.split(SEPARATOR, -1);
+        if (keys.length != expectedKeys) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,44 @@
+package com.workflow.util;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Row counts estimated by the PostgreSQL planner, for listings where an exact
+ * {@code count(*)} would cost as much as reading every matching row. The estimate
+ * follows table statistics (ANALYZE) and can be off by a wide margin on skewed data.
+ */
+public final class PlannerEstimates {
+
+    private static final Pattern PLAN_ROWS = Pattern.compile("\"Plan Rows\":\\s*(\\d+)");
+
+    private PlannerEstimates() {
+    }
+
+    /**
+     * Returns the planner's estimate of the number of rows {@code sql} returns, or null
+     * when the database is not PostgreSQL.
+     */
+    public static Long estimateRows(Connection connection, String sql, Object... args) throws SQLException {
+        if (!"PostgreSQL".equals(connection.getMetaData().getDatabaseProductName())) {
+            return null;
+        }
+        try (PreparedStatement statement = connection.prepareStatement("EXPLAIN (FORMAT JSON) " + sql)) {
+            for (int i = 0; i < args.length; i++) {
+                statement.setObject(i + 1, args[i]);
+            }
+            try (ResultSet rs = statement.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                // The first "Plan Rows" is the top plan node's, i.e. the rows of the whole query
+                Matcher matcher = PLAN_ROWS.matcher(rs.getString(1));
+                return matcher.find() ? Long.parseLong(matcher.group(1)) : null;
+            }
+        }
+    }
+}
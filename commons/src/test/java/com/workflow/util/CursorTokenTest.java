@@ -0,0 +1,59 @@
+package com.workflow.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+
+public class CursorTokenTest {
+
+    @Test
+    public void decodesWhatItEncodes() {
+        String token = CursorToken.encode("2026-03-02T10:15:30.123456", "3f2c9a1e-7b4d-4c8e-9f10-2a6b5c4d3e2f");
+
+        assertArrayEquals(new String[] {"2026-03-02T10:15:30.123456", "3f2c9a1e-7b4d-4c8e-9f10-2a6b5c4d3e2f"},
+            CursorToken.decode(token, 2));
+    }
+
+    @Test
+    public void keepsEmptyAndNonAsciiKeys() {
+        String token = CursorToken.encode("", "Z\u00fcrich \u2713", "");
+
+        assertArrayEquals(new String[] {"", "Z\u00fcrich \u2713", ""}, CursorToken.decode(token, 3));
+    }
+
+    @Test
+    public void producesUrlSafeTokensWithoutPadding() {
+        for (int length = 1; length <= 12; length++) {
+            String token = CursorToken.encode("?>".repeat(length), "~~~");
+            assertFalse(token, token.contains("+") || token.contains("/") || token.contains("="));
+        }
+    }
+
+    @Test
+    public void rejectsTokensWithADifferentNumberOfKeys() {
+        String token = CursorToken.encode("a", "b");
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> CursorToken.decode(token, 3));
+        assertEquals("Invalid cursor", e.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> CursorToken.decode(token, 1));
+    }
+
+    @Test
+    public void rejectsTokensThatAreNotBase64Url() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+            () -> CursorToken.decode("not a cursor!", 2));
+        assertEquals("Invalid cursor", e.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> CursorToken.decode("ab+/", 1));
+    }
+
+    @Test
+    public void rejectsTamperedTokens() {
+        String token = CursorToken.encode("2026-03-02T10:15:30", "id-1");
+        String truncated = token.substring(0, token.length() / 2);
+
+        assertThrows(IllegalArgumentException.class, () -> CursorToken.decode(truncated, 2));
+    }
+}
@@ -171,12 +171,4 @@ export class WorkflowListComponent implements OnInit {
   getEndIndex(): number {
     return Math.min((this.currentPage + 1) * this.pageSize, this.totalElements);
   }
-
-  getNodeCount(workflow: Workflow): number {
-    return workflow.nodes?.length || 0;
-  }
-
-  getEdgeCount(workflow: Workflow): number {
-    return workflow.edges?.length || 0;
-  }
 }
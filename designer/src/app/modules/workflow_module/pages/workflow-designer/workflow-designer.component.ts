@@ -1,6 +1,8 @@
 import { Component, OnInit, inject } from '@angular/core';
 import { CommonModule } from '@angular/common';
 import { ActivatedRoute, Router } from '@angular/router';
+import { of } from 'rxjs';
+import { switchMap } from 'rxjs/operators';
 import { WorkflowStateService } from '@workflow/services/workflow-state.service';
 import { PersistenceService } from '@workflow/services/persistence.service';
 import { ExecutionEngineService } from '@workflow/services/execution-engine.service';
@@ -315,16 +317,16 @@ export class WorkflowDesignerComponent implements OnInit {
   }
 
   onLoadWorkflow(): void {
-    // Load workflows from backend
-    this.persistenceService.getAllWorkflows(0, 10).subscribe({
-      next: (workflows) => {
-        if (workflows.length === 0) {
+    // Load the most recent workflow from backend (can be enhanced with a selection dialog)
+    this.persistenceService.getWorkflowSummaries(0, 1).pipe(
+      switchMap((summaries) => summaries.length > 0 ? this.persistenceService.loadWorkflow(summaries[0].id) : of(null))
+    ).subscribe({
+      next: (workflow) => {
+        if (!workflow) {
           this.toastService.showToast('warning', 'No Workflows', 'No saved workflows found.');
           return;
         }
 
-        // Simple: load the first workflow (can be enhanced with a selection dialog)
-        const workflow = workflows[0];
         this.stateService.loadWorkflow(workflow);
         this.persistenceService.saveCurrentWorkflow(workflow);
         this.stateService.addExecutionLog(
@@ -2,7 +2,7 @@ import { Injectable, inject } from '@angular/core';
 import { Observable, of } from 'rxjs';
 import { map, catchError } from 'rxjs/operators';
 import { WorkflowDefinition } from '@shared/models/workflow.types';
-import { WorkflowApiService, Workflow, WorkflowsPageResponse } from './workflow-api.service';
+import { WorkflowApiService, Workflow, WorkflowSummary, WorkflowsPageResponse } from './workflow-api.service';
 
 const CURRENT_WORKFLOW_KEY = 'workflow-designer-current';
 
@@ -113,38 +113,18 @@ export class PersistenceService {
   }
 
   /**
-   * Get all saved workflows from backend API.
+   * Get saved workflow summaries from backend API. Summaries carry no definition;
+   * use loadWorkflow to open one.
    * @param page Page number (0-indexed)
    * @param size Page size
    * @param search Optional search term
-   * @returns Observable<WorkflowDefinition[]>
+   * @returns Observable<WorkflowSummary[]>
    */
-  getAllWorkflows(page: number = 0, size: number = 100, search?: string): Observable<WorkflowDefinition[]> {
+  getWorkflowSummaries(page: number = 0, size: number = 100, search?: string): Observable<WorkflowSummary[]> {
     return this.workflowApiService.getWorkflows(page, size, search).pipe(
       map((response) => {
         const pageResponse: WorkflowsPageResponse = response.body;
-        
-        if (pageResponse && pageResponse.content) {
-          return pageResponse.content
-            .map((w: Workflow) => {
-              // Parse workflowDefinition if it's a JSON string
-              if (w.workflowDefinition) {
-                if (typeof w.workflowDefinition === 'string') {
-                  try {
-                    return JSON.parse(w.workflowDefinition) as WorkflowDefinition;
-                  } catch (e) {
-                    console.error('Failed to parse workflowDefinition:', e);
-                    return null;
-                  }
-                } else {
-                  return w.workflowDefinition as WorkflowDefinition;
-                }
-              }
-              return null;
-            })
-            .filter((w: WorkflowDefinition | null | undefined): w is WorkflowDefinition => w !== null && w !== undefined);
-        }
-        return [];
+        return pageResponse?.content ?? [];
       }),
       catchError((error) => {
         console.error('Failed to get workflows:', error);
@@ -20,8 +20,11 @@ export interface Workflow {
   updatedBy?: string;
 }
 
+/** A workflow as listed by GET /workflows, without its definition. */
+export type WorkflowSummary = Omit<Workflow, 'workflowDefinition'>;
+
 export interface WorkflowsPageResponse {
-  content: Workflow[];
+  content: WorkflowSummary[];
   totalElements: number;
   totalPages: number;
   size: number;
@@ -53,7 +56,7 @@ export class WorkflowApiService {
   }
 
   /**
-   * Get all workflows with pagination
+   * Get all workflows with pagination (summaries, without definitions)
    */
   getWorkflows(page: number = 0, size: number = 10, search?: string): Observable<ApiResponse<WorkflowsPageResponse>> {
     let params = new HttpParams()
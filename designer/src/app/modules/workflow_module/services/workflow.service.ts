@@ -8,8 +8,8 @@ import { WorkflowDefinition } from '@shared/models/workflow.types';
 export interface Workflow {
   id: string;
   name: string;
-  nodes?: any[];
-  edges?: any[];
+  description?: string;
+  status?: string;
   createdAt?: string;
   updatedAt?: string;
 }
@@ -40,33 +40,15 @@ export class WorkflowService {
         const pageResponse: any = response.body;
         
         if (pageResponse && pageResponse.content) {
-          // Convert backend Workflow format to frontend Workflow format
-          const workflows: Workflow[] = pageResponse.content.map((w: any) => {
-            let workflowDef: WorkflowDefinition | null = null;
-            
-            // Parse workflowDefinition if it's a JSON string
-            if (w.workflowDefinition) {
-              if (typeof w.workflowDefinition === 'string') {
-                try {
-                  workflowDef = JSON.parse(w.workflowDefinition) as WorkflowDefinition;
-                } catch (e) {
-                  console.error('Failed to parse workflowDefinition:', e);
-                  workflowDef = null;
-                }
-              } else {
-                workflowDef = w.workflowDefinition as WorkflowDefinition;
-              }
-            }
-            
-            return {
-              id: w.id,
-              name: w.name || 'Untitled Workflow',
-              nodes: workflowDef?.nodes || [],
-              edges: workflowDef?.edges || [],
-              createdAt: w.createdAt || workflowDef?.createdAt,
-              updatedAt: w.updatedAt || workflowDef?.updatedAt
-            };
-          });
+          // The list carries summaries only; definitions are loaded when a workflow is opened
+          const workflows: Workflow[] = pageResponse.content.map((w: any) => ({
+            id: w.id,
+            name: w.name || 'Untitled Workflow',
+            description: w.description,
+            status: w.status,
+            createdAt: w.createdAt,
+            updatedAt: w.updatedAt
+          }));
           
           return {
             content: workflows,